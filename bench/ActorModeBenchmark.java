@@ -0,0 +1,111 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * actor 模式的规模测试
+ * <p>
+ * 在按真实时间运行的 {@link TimingWheelScheduler} 上生成 n 个路由器的环，再开启 actor 模式（异步投递），
+ * 输出每个 actor 占用的堆内存；运行 seconds 秒，每秒输出一次处理的通告数、路由表项变化数、邮箱积压、最大深度和发送方等待次数，
+ * 最后停止定时路由更新、等待邮箱处理完毕，按环上的距离检查每个路由表（距离 d ≤ 14 的网络跳数为 d + 1）。
+ * 环的直径远大于 15 跳，“不可达” 路由表项会沿环继续扩散，因此只测量固定时长内的吞吐，不等待收敛。
+ * mode=direct 时不开启 actor 模式，作为对比。载体线程数由 -Djdk.virtualThreadScheduler.parallelism 设置。
+ * 参数：[n=路由器数] [interval=更新周期毫秒] [tick=刻度毫秒] [workers=定时工作线程数] [mailbox=邮箱容量]
+ * [seconds=运行秒数] [mode=actors|direct]
+ */
+public class ActorModeBenchmark {
+    /**
+     * 检查环上每个路由器到距离 14 跳以内的网络的路由表项
+     *
+     * @return 不符合预期的路由表项数
+     */
+    private static long verifyRing(List<Router> routers, List<Network> networks) {
+        int n = routers.size();
+        int radius = Math.min(14, (n - 1) / 2);
+        long mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            RoutingTable.Snapshot snapshot = routers.get(i).getRoutingTableSnapshot();
+            for (int d = -radius; d <= radius; d++) {
+                if (snapshot.hops(networks.get(Math.floorMod(i + d, n)).getNetworkId()) != Math.abs(d) + 1) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    } // end verifyRing()
+
+    /**
+     * 垃圾回收后的堆占用（字节）
+     */
+    private static long heap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    } // end heap()
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = 100_000;
+        long interval = 1000;
+        long tick = 10;
+        int workers = 2;
+        int mailbox = RouterActorSystem.DEFAULT_MAILBOX_CAPACITY;
+        double seconds = 30;
+        boolean actors = true;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(0, arg.indexOf('='))) {
+                case "n" -> n = Integer.parseInt(value);
+                case "interval" -> interval = Long.parseLong(value);
+                case "tick" -> tick = Long.parseLong(value);
+                case "workers" -> workers = Integer.parseInt(value);
+                case "mailbox" -> mailbox = Integer.parseInt(value);
+                case "seconds" -> seconds = Double.parseDouble(value);
+                case "mode" -> actors = value.equals("actors");
+                default -> throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(tick, interval, workers);
+        NetworkTopology networkTopology = new NetworkTopology(scheduler, false);
+        List<Router> routers = new TopologyGenerator(networkTopology, 1).ring(n);
+        long heapBefore = heap();
+        RouterActorSystem system = actors ? networkTopology.startActors(mailbox, false) : null;
+        long heapAfter = heap();
+        System.out.printf("环：路由器 %d 个，更新周期 %d ms，%s，堆 %d MB，平台线程 %d 个，处理器数 %d%n", n, interval,
+                actors ? String.format("actor 模式（邮箱容量 %d，载体线程 %s，每个 actor 占用堆 %d B）", mailbox,
+                        System.getProperty("jdk.virtualThreadScheduler.parallelism", "默认"), (heapAfter - heapBefore) / n)
+                        : "直接调用",
+                heapAfter >> 20, ManagementFactory.getThreadMXBean().getThreadCount(), Runtime.getRuntime().availableProcessors());
+
+        ConvergenceDetector detector = networkTopology.getConvergenceDetector();
+        long start = System.nanoTime();
+        long lastChanges = detector.getEntriesChanged();
+        long lastProcessed = system == null ? 0 : system.getProcessedAdvertisements();
+        for (int second = 1; second <= seconds; second++) {
+            Thread.sleep(Math.max(0, start + second * 1_000_000_000L - System.nanoTime()) / 1_000_000);
+            long changes = detector.getEntriesChanged();
+            String mailboxes = "";
+            if (system != null) {
+                long processed = system.getProcessedAdvertisements();
+                mailboxes = "，处理通告 " + (processed - lastProcessed) + " 个，邮箱积压 " + system.getQueuedAdvertisements()
+                        + " 个，最大深度 " + system.getMaxDepth() + "，发送方等待 " + system.getBlockedPosts() + " 次";
+                lastProcessed = processed;
+            }
+            System.out.println("  " + second + " s：路由表项变化 " + (changes - lastChanges) + " 次" + mailboxes);
+            lastChanges = changes;
+        }
+
+        for (Router router : routers) {
+            router.stopUpdates();
+        }
+        scheduler.awaitQuiescence();
+        if (system != null) {
+            System.out.println(system);
+            while (system.getQueuedAdvertisements() > 0) {
+                Thread.sleep(10); // 等待邮箱处理完毕再检查路由表
+            }
+        }
+        System.out.println("路由表检查：" + verifyRing(routers, networkTopology.getNetworks()) + " 项不符，平台线程 "
+                + ManagementFactory.getThreadMXBean().getThreadCount() + " 个");
+        networkTopology.shutdown();
+    } // end main()
+} // end class ActorModeBenchmark
@@ -0,0 +1,128 @@
+import java.util.*;
+
+/**
+ * 网络退出性能测试（无界面运行）
+ * <p>
+ * 构造 rows × cols 的网格拓扑：每个路由器直连一个局域网，每条链路是一个直连两端路由器的链路网络。
+ * 在离散事件仿真中收敛后依次退出若干链路网络，对比按直连索引退出与原来遍历所有路由器两两比较的耗时。
+ */
+public class ExitNetworkBenchmark {
+    private static final long WARMUP_SIMULATION_MILLIS = 60_000; // 退出网络前的仿真时间（毫秒）
+
+    /**
+     * 构造网格拓扑并仿真一段时间
+     *
+     * @param networkTopology 网络拓扑
+     * @param engine          离散事件仿真引擎
+     * @param rows            行数
+     * @param cols            列数
+     * @param prefix          名称前缀（两次构造使用不同的网络，互不影响）
+     * @return 链路网络
+     */
+    private static List<Network> buildGrid(NetworkTopology networkTopology, SimulationEngine engine,
+                                           int rows, int cols, String prefix) {
+        Router[][] grid = new Router[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Router router = new Router(prefix + "R" + r + "-" + c);
+                grid[r][c] = router;
+                Network lan = new Network(prefix + "局域网" + r + "-" + c);
+                networkTopology.joinNetwork(lan);
+                networkTopology.joinRouter(router);
+                networkTopology.attachNetwork(router, lan);
+            }
+        }
+
+        List<Network> links = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (c + 1 < cols) {
+                    links.add(link(networkTopology, grid[r][c], grid[r][c + 1], prefix));
+                }
+                if (r + 1 < rows) {
+                    links.add(link(networkTopology, grid[r][c], grid[r + 1][c], prefix));
+                }
+            }
+        }
+        engine.runUntil(engine.getCurrentTime() + WARMUP_SIMULATION_MILLIS);
+        return links;
+    } // end buildGrid()
+
+    /**
+     * 用一个链路网络连接两个路由器
+     */
+    private static Network link(NetworkTopology networkTopology, Router router1, Router router2, String prefix) {
+        Network network = new Network(prefix + "链路" + router1.getRouterName() + "~" + router2.getRouterName());
+        networkTopology.joinNetwork(network);
+        router1.addNeighbor(router2);
+        router2.addNeighbor(router1);
+        networkTopology.attachNetwork(router1, network);
+        networkTopology.attachNetwork(router2, network);
+        return network;
+    } // end link()
+
+    /**
+     * 原来的网络退出实现：遍历所有路由器两两比较是否直连该网络，每个路由器都遍历整个路由表
+     */
+    private static void legacyExitNetwork(NetworkTopology networkTopology, Network network) {
+        List<Router> routers = networkTopology.getRouters();
+        networkTopology.getNetworks().remove(network);
+        for (Router router : routers) {
+            if (router.isDirectlyConnectedNetwork(network)) {
+                for (Router router1 : routers) {
+                    if (!router1.equals(router) && router1.isDirectlyConnectedNetwork(network)) {
+                        router.removeNeighbor(router1);
+                        router1.removeNeighbor(router);
+                    }
+                }
+            }
+            router.removeEntriesForNetwork(network);
+        }
+    } // end legacyExitNetwork()
+
+    /**
+     * 统计所有路由器中不可达的路由表项数（用于核对两种实现的结果一致）
+     */
+    private static long unreachableEntries(NetworkTopology networkTopology) {
+        long count = 0;
+        for (Router router : networkTopology.getRouters()) {
+            RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+            for (int id = snapshot.nextNetworkId(0); id >= 0; id = snapshot.nextNetworkId(id + 1)) {
+                if (snapshot.hops(id) == RoutingTable.UNREACHABLE) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    } // end unreachableEntries()
+
+    /**
+     * @param args 行数、列数、退出的链路网络数
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int exits = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        for (boolean indexed : new boolean[]{false, true}) {
+            SimulationEngine engine = new SimulationEngine();
+            NetworkTopology networkTopology = new NetworkTopology(engine);
+            List<Network> links = buildGrid(networkTopology, engine, rows, cols, indexed ? "新" : "旧");
+            Collections.shuffle(links, new Random(42));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < exits; i++) {
+                if (indexed) {
+                    networkTopology.exitNetwork(links.get(i));
+                } else {
+                    legacyExitNetwork(networkTopology, links.get(i));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%s：%d 个路由器，退出 %d 个链路网络，共 %.1f ms，平均 %.3f ms/次，不可达表项 %d%n",
+                    indexed ? "直连索引" : "遍历比较", networkTopology.getRouters().size(), exits,
+                    elapsed / 1e6, elapsed / 1e6 / exits, unreachableEntries(networkTopology));
+            networkTopology.shutdown();
+        }
+    } // end main()
+} // end class ExitNetworkBenchmark
@@ -0,0 +1,184 @@
+import java.util.*;
+
+/**
+ * 转发表查找吞吐的基准
+ * <p>
+ * 生成 prefixes 个网络，前缀长度的分布近似互联网路由表（/24 约六成，其余分布在 /8～/32，大量前缀相互嵌套），
+ * 载入一个路由器的路由表（下一跳在 nextHops 个路由器编号中随机选取），由路由器编译转发表并输出编译耗时和占用的内存。
+ * 两种目的地址：均匀随机的地址（大多在一级数组中命中）和落在随机前缀内的地址（需要向下查找节点），
+ * 分别测量逐个查找和每批 batch 个地址的批量查找，单线程重复 rounds 轮，输出每秒查找数（取最好的一轮）。
+ * 查找前先与按前缀长度逐级查哈希表的朴素最长前缀匹配逐个比较，确认结果一致。
+ * 参数：[prefixes=网络数] [nextHops=下一跳数] [addresses=每轮地址数] [batch=每批地址数] [rounds=轮数] [seed=种子]
+ */
+public class ForwardingLookupBenchmark {
+    /**
+     * 按近似互联网路由表的分布随机选取前缀长度
+     */
+    private static int randomLength(Random random) {
+        double p = random.nextDouble();
+        if (p < 0.60) {
+            return 24;
+        }
+        if (p < 0.75) {
+            return 19 + random.nextInt(5); // /19～/23
+        }
+        if (p < 0.85) {
+            return 8 + random.nextInt(11); // /8～/18
+        }
+        return 25 + random.nextInt(8); // /25～/32
+    } // end randomLength()
+
+    /**
+     * 朴素的最长前缀匹配：从 /32 到 /0 逐级查哈希表
+     */
+    private static int naiveLookup(List<Map<Integer, Integer>> byLength, int address) {
+        for (int length = 32; length >= 0; length--) {
+            Integer nextHop = byLength.get(length).get(address & Network.mask(length));
+            if (nextHop != null) {
+                return nextHop;
+            }
+        }
+        return -1;
+    } // end naiveLookup()
+
+    /**
+     * 逐个查找 rounds 轮，返回最好一轮的每秒查找数
+     */
+    private static double measureSingle(ForwardingTable table, int[] addresses, int rounds, long[] checksum) {
+        double best = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int address : addresses) {
+                sum += table.lookup(address);
+            }
+            best = Math.max(best, addresses.length / ((System.nanoTime() - start) / 1e9));
+            checksum[0] += sum;
+        }
+        return best;
+    } // end measureSingle()
+
+    /**
+     * 每批 batch 个地址批量查找 rounds 轮，返回最好一轮的每秒查找数
+     */
+    private static double measureBatched(ForwardingTable table, int[] addresses, int batch, int rounds, long[] checksum) {
+        int[] in = new int[batch];
+        int[] out = new int[batch];
+        double best = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int from = 0; from < addresses.length; from += batch) {
+                int count = Math.min(batch, addresses.length - from);
+                System.arraycopy(addresses, from, in, 0, count); // 模拟从收包队列取出一批目的地址
+                table.lookup(in, out, count);
+                for (int i = 0; i < count; i++) {
+                    sum += out[i];
+                }
+            }
+            best = Math.max(best, addresses.length / ((System.nanoTime() - start) / 1e9));
+            checksum[0] += sum;
+        }
+        return best;
+    } // end measureBatched()
+
+    public static void main(String[] args) {
+        int prefixes = 500_000;
+        int nextHops = 64;
+        int addressCount = 4 << 20;
+        int batch = 64;
+        int rounds = 10;
+        long seed = 1;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(0, arg.indexOf('='))) {
+                case "prefixes" -> prefixes = Integer.parseInt(value);
+                case "nextHops" -> nextHops = Integer.parseInt(value);
+                case "addresses" -> addressCount = Integer.parseInt(value);
+                case "batch" -> batch = Integer.parseInt(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+
+        /* 生成网络和路由表：一半的前缀落在已有前缀之内（嵌套），其余随机 */
+        Random random = new Random(seed);
+        int[] networkIds = new int[prefixes];
+        byte[] hops = new byte[prefixes];
+        int[] nextHopIds = new int[prefixes];
+        int[] prefixAddresses = new int[prefixes];
+        int[] prefixLengths = new int[prefixes];
+        List<Map<Integer, Integer>> byLength = new ArrayList<>();
+        for (int length = 0; length <= 32; length++) {
+            byLength.add(new HashMap<>());
+        }
+        for (int i = 0; i < prefixes; i++) {
+            int length = randomLength(random);
+            int address = random.nextInt();
+            if (i > 0 && random.nextBoolean()) {
+                int outer = random.nextInt(i);
+                int outerMask = Network.mask(prefixLengths[outer]);
+                address = prefixAddresses[outer] & outerMask | address & ~outerMask;
+                length = Math.max(length, prefixLengths[outer]);
+            }
+            Network network = new Network("前缀" + i);
+            network.setPrefix(address, length);
+            networkIds[i] = network.getNetworkId();
+            prefixAddresses[i] = network.getPrefixAddress();
+            prefixLengths[i] = length;
+            hops[i] = (byte) (1 + random.nextInt(RoutingTable.UNREACHABLE - 1));
+            nextHopIds[i] = random.nextInt(nextHops);
+            byLength.get(length).put(prefixAddresses[i], nextHopIds[i]);
+        }
+        Router router = new Router("R");
+        router.restoreRoutingTable(networkIds, hops, nextHopIds, prefixes);
+
+        long start = System.nanoTime();
+        ForwardingTable table = router.awaitForwardingTable();
+        long compileNanos = System.nanoTime() - start;
+        for (int i = 0; i < 3; i++) {
+            start = System.nanoTime();
+            table = ForwardingTable.compile(router.getRoutingTableSnapshot(), table.getVersion());
+            compileNanos = Math.min(compileNanos, System.nanoTime() - start);
+        }
+        System.out.printf("转发表：%s，编译 %.1f ms（%.0f ns/条），处理器数 %d%n", table, compileNanos / 1e6,
+                (double) compileNanos / prefixes, Runtime.getRuntime().availableProcessors());
+
+        int[] uniform = new int[addressCount];
+        int[] inPrefix = new int[addressCount];
+        for (int i = 0; i < addressCount; i++) {
+            uniform[i] = random.nextInt();
+            int p = random.nextInt(prefixes);
+            inPrefix[i] = prefixAddresses[p] | random.nextInt() & ~Network.mask(prefixLengths[p]);
+        }
+
+        long mismatches = 0;
+        int[] out = new int[batch];
+        for (int[] addresses : List.of(uniform, inPrefix)) {
+            for (int from = 0; from < addresses.length; from += batch) {
+                int count = Math.min(batch, addresses.length - from);
+                table.lookup(Arrays.copyOfRange(addresses, from, from + count), out, count);
+                for (int i = 0; i < count; i++) {
+                    int expected = naiveLookup(byLength, addresses[from + i]);
+                    if (table.lookup(addresses[from + i]) != expected || out[i] != expected) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        System.out.println("与朴素最长前缀匹配比较：" + (2L * addressCount) + " 个地址，" + mismatches + " 个不一致");
+
+        Map<String, int[]> workloads = new LinkedHashMap<>();
+        workloads.put("均匀随机地址", uniform);
+        workloads.put("前缀内地址", inPrefix);
+        long[] checksum = new long[1];
+        for (Map.Entry<String, int[]> entry : workloads.entrySet()) {
+            double single = measureSingle(table, entry.getValue(), rounds, checksum);
+            double batched = measureBatched(table, entry.getValue(), batch, rounds, checksum);
+            System.out.printf("%s：逐个查找 %.1f M 次/秒，批量查找（每批 %d 个）%.1f M 次/秒%n", entry.getKey(), single / 1e6, batch,
+                    batched / 1e6);
+        }
+        System.out.println("校验和：" + checksum[0]);
+    } // end main()
+} // end class ForwardingLookupBenchmark
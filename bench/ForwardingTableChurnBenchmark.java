@@ -0,0 +1,163 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由表持续变化时的转发表查找与合并重建
+ * <p>
+ * 一个路由器的路由表有 prefixes 个网络（默认前缀，/24 与 /28），由 {@link ForwardingTableUpdater} 在后台合并重建转发表。
+ * readers 个查找线程不停地读取已发布的转发表并查找随机目的地址；一个修改线程每 interval 毫秒连续修改 burst 个路由表项，
+ * 其中一半只改跳数（不影响转发，不请求重建），一半改下一跳。先不修改路由表测量 seconds 秒作为对比，再边修改边测量 seconds 秒。
+ * 输出两个阶段的查找速率、路由表项变化数、请求重建和实际重建的次数（合并比例）以及每次重建的平均耗时，
+ * 最后检查后台发布的转发表与由最新路由表重新编译的转发表是否一致。
+ * 参数：[prefixes=网络数] [readers=查找线程数] [burst=每阵变化数] [interval=每阵间隔毫秒] [coalesce=合并窗口毫秒] [seconds=每阶段秒数]
+ */
+public class ForwardingTableChurnBenchmark {
+    /**
+     * 查找线程：不停地读取已发布的转发表并批量查找
+     *
+     * @param router    路由器
+     * @param addresses 目的地址
+     * @param lookups   查找次数（输出）
+     * @param running   是否继续
+     */
+    private static Thread reader(Router router, int[] addresses, LongAdder lookups, AtomicBoolean running) {
+        return Thread.ofPlatform().daemon().start(() -> {
+            int[] nextHops = new int[64];
+            int[] batch = new int[64];
+            int offset = 0;
+            long sum = 0;
+            while (running.get()) {
+                ForwardingTable table = router.getForwardingTable(); // 只读一次 volatile 引用
+                System.arraycopy(addresses, offset, batch, 0, batch.length);
+                table.lookup(batch, nextHops, batch.length);
+                sum += nextHops[0];
+                lookups.add(batch.length);
+                offset = (offset + batch.length) % (addresses.length - batch.length);
+            }
+            if (sum == 42) {
+                System.out.print(""); // 防止查找被优化掉
+            }
+        });
+    } // end reader()
+
+    /**
+     * 运行一个阶段
+     *
+     * @return 每秒查找数
+     */
+    private static double phase(Router router, int[] addresses, int readers, double seconds, Runnable writer)
+            throws InterruptedException {
+        LongAdder lookups = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            threads.add(reader(router, addresses, lookups, running));
+        }
+        long start = System.nanoTime();
+        long deadline = start + (long) (seconds * 1e9);
+        while (System.nanoTime() < deadline) {
+            if (writer == null) {
+                Thread.sleep(10);
+            } else {
+                writer.run();
+            }
+        }
+        long count = lookups.sum();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return count / elapsed;
+    } // end phase()
+
+    public static void main(String[] args) throws InterruptedException {
+        int prefixes = 100_000;
+        int readers = 1;
+        int burst = 200;
+        long interval = 5;
+        long coalesce = ForwardingTableUpdater.DEFAULT_COALESCE_MILLIS;
+        double seconds = 5;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(0, arg.indexOf('='))) {
+                case "prefixes" -> prefixes = Integer.parseInt(value);
+                case "readers" -> readers = Integer.parseInt(value);
+                case "burst" -> burst = Integer.parseInt(value);
+                case "interval" -> interval = Long.parseLong(value);
+                case "coalesce" -> coalesce = Long.parseLong(value);
+                case "seconds" -> seconds = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+
+        Random random = new Random(1);
+        int[] networkIds = new int[prefixes];
+        byte[] hops = new byte[prefixes];
+        int[] nextHopIds = new int[prefixes];
+        for (int i = 0; i < prefixes; i++) {
+            networkIds[i] = new Network("转发" + i).getNetworkId();
+            hops[i] = (byte) (1 + random.nextInt(RoutingTable.UNREACHABLE - 2));
+            nextHopIds[i] = random.nextInt(64);
+        }
+        Router router = new Router("R");
+        router.restoreRoutingTable(networkIds, hops, nextHopIds, prefixes);
+        ForwardingTableUpdater updater = new ForwardingTableUpdater(coalesce);
+        router.setForwardingTableUpdater(updater);
+        while (router.isForwardingTableStale()) {
+            Thread.sleep(1);
+        }
+        System.out.println("转发表：" + router.awaitForwardingTable() + "，查找线程 " + readers + " 个，处理器数 "
+                + Runtime.getRuntime().availableProcessors());
+
+        int[] addresses = new int[1 << 20];
+        for (int i = 0; i < addresses.length; i++) {
+            Network network = Network.byId(networkIds[random.nextInt(prefixes)]);
+            addresses[i] = network.getPrefixAddress() | random.nextInt() & ~Network.mask(network.getPrefixLength());
+        }
+
+        double idle = phase(router, addresses, readers, seconds, null);
+        long changesBefore = router.getChangeCount();
+        long requestsBefore = updater.getRequests();
+        long rebuildsBefore = updater.getRebuilds();
+        int finalBurst = burst;
+        long finalInterval = interval;
+        double churn = phase(router, addresses, readers, seconds, () -> {
+            RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+            for (int i = 0; i < finalBurst; i++) {
+                int networkId = networkIds[random.nextInt(networkIds.length)];
+                int hop = snapshot.hops(networkId);
+                if (random.nextBoolean()) {
+                    router.replayRoute(networkId, hop % (RoutingTable.UNREACHABLE - 2) + 1, snapshot.nextHop(networkId)); // 只改跳数
+                } else {
+                    router.replayRoute(networkId, hop, (snapshot.nextHop(networkId) + 1) % 64); // 改下一跳
+                }
+            }
+            try {
+                Thread.sleep(finalInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(coalesce + 100);
+        long changes = router.getChangeCount() - changesBefore;
+        long requests = updater.getRequests() - requestsBefore;
+        long rebuilds = updater.getRebuilds() - rebuildsBefore;
+        System.out.printf("不修改路由表：查找 %.1f M 次/秒%n", idle / 1e6);
+        System.out.printf("修改路由表：查找 %.1f M 次/秒，路由表项变化 %d 次，请求重建 %d 次，重建 %d 次（每次重建合并 %.1f 次变化）%n",
+                churn / 1e6, changes, requests, rebuilds, rebuilds == 0 ? 0 : (double) changes / rebuilds);
+        System.out.println(updater);
+        /* 最后一阵变化之后，后台发布的转发表应与由最新路由表重新编译的转发表一致（没有丢失变化） */
+        ForwardingTable published = router.getForwardingTable();
+        ForwardingTable expected = ForwardingTable.compile(router.getRoutingTableSnapshot(), -1);
+        long mismatches = 0;
+        for (int address : addresses) {
+            if (published.lookup(address) != expected.lookup(address)) {
+                mismatches++;
+            }
+        }
+        System.out.println("后台发布的转发表与最新路由表比较：" + addresses.length + " 个地址，" + mismatches + " 个不一致");
+        updater.shutdown();
+    } // end main()
+} // end class ForwardingTableChurnBenchmark
@@ -0,0 +1,93 @@
+import java.util.*;
+
+/**
+ * 同步轮引擎的基准与一致性检查
+ * <p>
+ * 预热一次后，对同一个（固定种子生成的）拓扑，用不同并行度的 {@link SynchronousRoundEngine} 收敛，输出每轮耗时和相对单线程的加速比，
+ * 并检查：各并行度的路由表完全相同（确定性），且每个路由器到每个网络的跳数与
+ * {@link SimulationEngine}（每个周期都发送完整路由表）收敛后的结果相同（与 receiveUpdate 的语义一致）。
+ * 参数：[拓扑类型] [拓扑参数...] [threads=1,2,4] [compare=true|false]
+ */
+public class RoundEngineBenchmark {
+    /**
+     * 生成拓扑
+     */
+    private static NetworkTopology topology(UpdateScheduler scheduler, String type, double[] params) {
+        NetworkTopology networkTopology = new NetworkTopology(scheduler, false);
+        new TopologyGenerator(networkTopology, 1).generate(type, params);
+        return networkTopology;
+    } // end topology()
+
+    /**
+     * 路由表摘要（跳数；withNextHop 时包含下一跳）
+     */
+    private static long digest(NetworkTopology networkTopology, boolean withNextHop) {
+        long digest = 1;
+        for (Router router : networkTopology.getRouters()) {
+            RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+            for (Network network : networkTopology.getNetworks()) {
+                int hops = snapshot.hops(network.getNetworkId());
+                String nextHop = hops == 0 || !withNextHop ? "" : Router.byId(snapshot.nextHop(network.getNetworkId())).getRouterName();
+                digest = digest * 31 + Objects.hash(router.getRouterName(), network.getNetworkName(), hops, nextHop);
+            }
+        }
+        return digest;
+    } // end digest()
+
+    public static void main(String[] args) {
+        String type = "grid";
+        List<Double> paramList = new ArrayList<>();
+        int[] threads = {1, 2, 4};
+        boolean compare = true;
+        for (String arg : args) {
+            if (arg.startsWith("threads=")) {
+                threads = Arrays.stream(arg.substring(8).split(",")).mapToInt(Integer::parseInt).toArray();
+            } else if (arg.startsWith("compare=")) {
+                compare = Boolean.parseBoolean(arg.substring(8));
+            } else if (Character.isDigit(arg.charAt(0))) {
+                paramList.add(Double.parseDouble(arg));
+            } else {
+                type = arg;
+            }
+        }
+        double[] params = paramList.isEmpty() ? new double[]{30, 30} : paramList.stream().mapToDouble(d -> d).toArray();
+        System.out.println("拓扑：" + type + " " + paramList + "，处理器数：" + Runtime.getRuntime().availableProcessors());
+
+        SynchronousRoundEngine warmup = new SynchronousRoundEngine(threads[0]); // 预热（不计入结果）
+        NetworkTopology warmupTopology = topology(warmup, type, params);
+        warmup.runUntilConverged(10_000);
+        warmupTopology.shutdown();
+
+        Long hopsDigest = null;
+        Long tableDigest = null;
+        double baseNanosPerRound = 0;
+        for (int parallelism : threads) {
+            SynchronousRoundEngine engine = new SynchronousRoundEngine(parallelism);
+            NetworkTopology networkTopology = topology(engine, type, params);
+            SimulationResult result = engine.runUntilConverged(10_000);
+            double nanosPerRound = (double) result.getComputeNanos() / Math.max(1, engine.getRound());
+            if (baseNanosPerRound == 0) {
+                baseNanosPerRound = nanosPerRound;
+            }
+            long digest = digest(networkTopology, true);
+            System.out.printf("并行度 %d：%s，轮数 %d，每轮 %.3f ms，加速比 %.2f，路由表%s%n", parallelism, result,
+                    engine.getRound(), nanosPerRound / 1e6, baseNanosPerRound / nanosPerRound,
+                    tableDigest == null || tableDigest == digest ? "一致" : "不一致");
+            tableDigest = tableDigest == null ? digest : tableDigest;
+            hopsDigest = digest(networkTopology, false);
+            networkTopology.shutdown();
+        }
+
+        if (compare) {
+            SimulationEngine engine = new SimulationEngine();
+            NetworkTopology networkTopology = topology(engine, type, params);
+            for (Router router : networkTopology.getRouters()) {
+                router.setFullUpdateCycles(1);
+            }
+            SimulationResult result = engine.runUntilConverged(36_000_000);
+            System.out.println("SimulationEngine：" + result + "，跳数"
+                    + (hopsDigest != null && hopsDigest == digest(networkTopology, false) ? "一致" : "不一致"));
+            networkTopology.shutdown();
+        }
+    } // end main()
+} // end class RoundEngineBenchmark
@@ -0,0 +1,116 @@
+import java.util.*;
+
+/**
+ * 路由表项定时器的基准
+ * <p>
+ * 不经过路由表，直接测量时间轮：routers 个时间轮、每个 networks 个路由表项（共 routers × networks 个定时器），
+ * 时钟每步前进 1 秒，每步推进所有时间轮；每个路由表项每 30 秒（full 秒）被刷新一次，其中 silent 比例的路由表项
+ * 从某一刻起不再刷新（模拟下一跳静默故障），超时后开始垃圾回收，垃圾回收到期后不再计时。
+ * 输出每次刷新、每个定时器每秒推进的耗时，每个定时器占用的堆内存，以及超时、移除和惰性重排的次数。
+ * 参数：[routers=时间轮数] [networks=每个时间轮的路由表项数] [seconds=模拟秒数] [full=刷新周期秒数] [silent=静默比例]
+ */
+public class RouteTimerBenchmark {
+    /**
+     * 手动推进的时钟
+     */
+    private static final class ManualClock implements UpdateScheduler {
+        private long now; // 当前时刻（毫秒）
+
+        @Override
+        public void start(Router router) {
+        } // end start()
+
+        @Override
+        public void stop(Router router) {
+        } // end stop()
+
+        @Override
+        public void shutdown() {
+        } // end shutdown()
+
+        @Override
+        public long currentTimeMillis() {
+            return now;
+        } // end currentTimeMillis()
+    } // end class ManualClock
+
+    /**
+     * 垃圾回收后的堆占用（字节）
+     */
+    private static long heap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    } // end heap()
+
+    public static void main(String[] args) {
+        int routers = 1000;
+        int networks = 2000;
+        int seconds = 900;
+        int full = 30;
+        double silent = 0.01;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(0, arg.indexOf('='))) {
+                case "routers" -> routers = Integer.parseInt(value);
+                case "networks" -> networks = Integer.parseInt(value);
+                case "seconds" -> seconds = Integer.parseInt(value);
+                case "full" -> full = Integer.parseInt(value);
+                case "silent" -> silent = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+
+        ManualClock clock = new ManualClock();
+        RouteTimers timers = new RouteTimers(clock, RouteTimers.DEFAULT_TIMEOUT_MILLIS,
+                RouteTimers.DEFAULT_GARBAGE_COLLECTION_MILLIS);
+        long heapBefore = heap();
+        RouteTimers.Wheel[] wheels = new RouteTimers.Wheel[routers];
+        for (int r = 0; r < routers; r++) {
+            wheels[r] = timers.newWheel();
+            for (int n = 0; n < networks; n++) {
+                wheels[r].refresh(n, clock.now);
+            }
+        }
+        long heapAfter = heap();
+        long timerCount = (long) routers * networks;
+        System.out.printf("定时器 %d 个（%d 个时间轮 × %d 个路由表项），每个定时器占用堆 %.1f B，刻度 %d ms%n", timerCount,
+                routers, networks, (double) (heapAfter - heapBefore) / timerCount, timers.getTickMillis());
+
+        /* 第 silentFrom 秒起，每个时间轮的前 silentCount 个路由表项不再刷新；其余路由表项按网络编号错开刷新时刻 */
+        int silentCount = (int) (networks * silent);
+        int silentFrom = seconds / 4;
+        long[] expired = new long[2];
+        RouteTimers.ExpiryHandler handler = (networkId, garbageCollection) -> expired[garbageCollection ? 1 : 0]++;
+        RouteTimers.Wheel[] handlerWheel = new RouteTimers.Wheel[1];
+        RouteTimers.ExpiryHandler rearm = (networkId, garbageCollection) -> {
+            handler.onExpired(networkId, garbageCollection);
+            if (!garbageCollection) {
+                handlerWheel[0].startGarbageCollection(networkId, clock.now);
+            }
+        };
+        long refreshes = 0, refreshNanos = 0, advanceNanos = 0;
+        for (int second = 1; second <= seconds; second++) {
+            clock.now = second * 1000L;
+            long start = System.nanoTime();
+            for (RouteTimers.Wheel wheel : wheels) {
+                int from = second < silentFrom ? 0 : silentCount;
+                for (int n = from + Math.floorMod(second - from, full); n < networks; n += full) {
+                    wheel.refresh(n, clock.now);
+                    refreshes++;
+                }
+            }
+            long middle = System.nanoTime();
+            for (RouteTimers.Wheel wheel : wheels) {
+                handlerWheel[0] = wheel;
+                wheel.advance(clock.now, rearm);
+            }
+            refreshNanos += middle - start;
+            advanceNanos += System.nanoTime() - middle;
+        }
+        System.out.printf("模拟 %d 秒：刷新 %d 次，每次 %.1f ns；推进 %.1f ms/秒（每个定时器 %.2f ns/秒）%n", seconds, refreshes,
+                (double) refreshNanos / refreshes, advanceNanos / 1e6 / seconds, (double) advanceNanos / seconds / timerCount);
+        System.out.printf("超时 %d 项，垃圾回收 %d 项（预期各 %d 项），%s%n", expired[0], expired[1], (long) routers * silentCount,
+                timers);
+    } // end main()
+} // end class RouteTimerBenchmark
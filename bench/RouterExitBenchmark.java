@@ -0,0 +1,91 @@
+import java.util.*;
+
+/**
+ * 路由器故障、退出性能测试（无界面运行）
+ * <p>
+ * 构造 rows × cols 的网格拓扑（每个路由器直连一个局域网，每条链路是一个链路网络），在离散事件仿真中收敛后，
+ * 先让若干路由器故障，再让若干路由器退出网络拓扑，分别统计耗时。
+ */
+public class RouterExitBenchmark {
+    /**
+     * 构造网格拓扑
+     *
+     * @param networkTopology 网络拓扑
+     * @param rows            行数
+     * @param cols            列数
+     * @return 网格中的路由器
+     */
+    private static List<Router> buildGrid(NetworkTopology networkTopology, int rows, int cols) {
+        Router[][] grid = new Router[rows][cols];
+        List<Router> routers = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Router router = new Router("R" + r + "-" + c);
+                grid[r][c] = router;
+                routers.add(router);
+                Network lan = new Network("局域网" + r + "-" + c);
+                networkTopology.joinNetwork(lan);
+                networkTopology.joinRouter(router);
+                networkTopology.attachNetwork(router, lan);
+                if (c > 0) {
+                    link(networkTopology, grid[r][c - 1], router);
+                }
+                if (r > 0) {
+                    link(networkTopology, grid[r - 1][c], router);
+                }
+            }
+        }
+        return routers;
+    } // end buildGrid()
+
+    /**
+     * 用一个链路网络连接两个路由器
+     */
+    private static void link(NetworkTopology networkTopology, Router router1, Router router2) {
+        Network network = new Network("链路" + router1.getRouterName() + "~" + router2.getRouterName());
+        networkTopology.joinNetwork(network);
+        router1.addNeighbor(router2);
+        router2.addNeighbor(router1);
+        networkTopology.attachNetwork(router1, network);
+        networkTopology.attachNetwork(router2, network);
+    } // end link()
+
+    /**
+     * @param args 行数、列数、故障路由器数、退出路由器数
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int failures = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int exits = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        SimulationEngine engine = new SimulationEngine();
+        NetworkTopology networkTopology = new NetworkTopology(engine);
+        List<Router> routers = buildGrid(networkTopology, rows, cols);
+        SimulationResult result = engine.runUntilConverged(3_600_000);
+        long routes = 0;
+        for (Router router : networkTopology.getRouters()) {
+            routes += router.getRoutingTableSnapshot().size();
+        }
+        System.out.printf("%d 个路由器，收敛：%s（%d ms），路由表项共 %d%n", networkTopology.getRouters().size(),
+                result.isConverged() ? "是" : "否", result.getConvergenceMillis(), routes);
+
+        Collections.shuffle(routers, new Random(42));
+        long start = System.nanoTime();
+        for (Router router : routers.subList(0, failures)) {
+            router.failure();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("路由器故障：%d 个，共 %.1f ms，平均 %.3f ms/个%n", failures, elapsed / 1e6,
+                elapsed / 1e6 / failures);
+
+        start = System.nanoTime();
+        for (Router router : routers.subList(failures, failures + exits)) {
+            networkTopology.exitRouter(router);
+        }
+        elapsed = System.nanoTime() - start;
+        System.out.printf("路由器退出：%d 个，共 %.1f ms，平均 %.3f ms/个%n", exits, elapsed / 1e6,
+                elapsed / 1e6 / exits);
+        networkTopology.shutdown();
+    } // end main()
+} // end class RouterExitBenchmark
@@ -0,0 +1,173 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 路由表并发压力测试（无界面运行）
+ * <p>
+ * 多个相邻路由器线程同时向一个中心路由器发送路由更新，同时多个读取线程打印、遍历中心路由器的路由表
+ * 并由中心路由器向外发送路由更新；结束后检查是否出现异常以及是否丢失更新。
+ * 各线程的异常收集后在结束时输出（最多 MAX_REPORTED_FAILURES 个），出现异常或丢失更新时以非零状态退出。
+ */
+public class RoutingTableStress {
+    private static final int MAX_REPORTED_FAILURES = 5; // 最多输出的异常数
+
+    /**
+     * @param args 相邻路由器数、每个相邻路由器的网络数、每个相邻路由器发送的更新次数、读取线程数
+     */
+    public static void main(String[] args) throws Exception {
+        int neighborCount = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int networksPerNeighbor = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int updatesPerNeighbor = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int readerCount = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        Router hub = new Router("Hub");
+        List<Router> neighbors = new ArrayList<>();
+        List<List<Network>> neighborNetworks = new ArrayList<>();
+        for (int i = 0; i < neighborCount; i++) {
+            Router neighbor = new Router("R" + i);
+            List<Network> networks = new ArrayList<>();
+            for (int j = 0; j < networksPerNeighbor; j++) {
+                networks.add(new Network("网" + i + "-" + j));
+            }
+            hub.addNeighbor(neighbor);
+            neighbor.addNeighbor(hub);
+            neighbors.add(neighbor);
+            neighborNetworks.add(networks);
+        }
+
+        AtomicLong errors = new AtomicLong();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>(); // 各线程抛出的异常
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(neighborCount + readerCount);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        /* 写入方：每个相邻路由器反复通告自己的网络，最后一次的跳数固定为 finalHops(i) */
+        for (int i = 0; i < neighborCount; i++) {
+            Router neighbor = neighbors.get(i);
+            List<Network> networks = neighborNetworks.get(i);
+            int finalHops = finalHops(i);
+            writers.add(executor.submit(() -> {
+                await(startLatch);
+                for (int k = 0; k < updatesPerNeighbor; k++) {
+                    int hops = k == updatesPerNeighbor - 1 ? finalHops : 1 + k % 14;
+                    Map<Network, RouteTableEntry> update = new HashMap<>();
+                    for (Network network : networks) {
+                        update.put(network, new RouteTableEntry(network, hops, neighbor));
+                    }
+                    try {
+                        hub.receiveUpdate(neighbor, update);
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+
+        /* 读取方：打印、遍历路由表，并向所有相邻路由器发送路由更新 */
+        volatileStop = false;
+        for (int i = 0; i < readerCount; i++) {
+            int readerIndex = i;
+            readers.add(executor.submit(() -> {
+                await(startLatch);
+                while (!volatileStop) {
+                    try {
+                        switch (readerIndex % 3) {
+                            case 0 -> hub.printRoutingTable();
+                            case 1 -> {
+                                int reachable = 0;
+                                for (RouteTableEntry entry : hub.getRoutingTable().values()) {
+                                    if (entry.getHops() < 16) {
+                                        reachable++;
+                                    }
+                                }
+                                if (reachable > hub.getRoutingTable().size()) {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                            default -> hub.sendUpdates();
+                        }
+                        reads.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        startLatch.countDown();
+        for (Future<?> writer : writers) {
+            awaitTask(writer, errors, failures);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        volatileStop = true;
+        for (Future<?> reader : readers) {
+            awaitTask(reader, errors, failures);
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        /* 检查是否丢失更新：每个网络的跳数必须是最后一次通告的跳数加1 */
+        long lostUpdates = 0;
+        Map<Network, RouteTableEntry> routingTable = hub.getRoutingTable();
+        for (int i = 0; i < neighborCount; i++) {
+            for (Network network : neighborNetworks.get(i)) {
+                RouteTableEntry entry = routingTable.get(network);
+                if (entry == null || entry.getHops() != finalHops(i) + 1 || entry.getNextHop() != neighbors.get(i)) {
+                    lostUpdates++;
+                }
+            }
+        }
+
+        long totalUpdates = (long) neighborCount * updatesPerNeighbor;
+        System.out.printf("写入 %d 次更新（%.0f 次/秒），读取 %d 次，异常 %d 个，丢失更新 %d 个%n",
+                totalUpdates, totalUpdates / (elapsedNanos / 1e9), reads.get(), errors.get(), lostUpdates);
+        int reported = 0;
+        for (Throwable failure : failures) {
+            if (reported++ == MAX_REPORTED_FAILURES) {
+                System.out.println("……其余 " + (failures.size() - MAX_REPORTED_FAILURES) + " 个异常未输出");
+                break;
+            }
+            failure.printStackTrace(System.out);
+        }
+        if (errors.get() != 0 || lostUpdates != 0) {
+            System.exit(1);
+        }
+    } // end main()
+
+    /**
+     * 等待写入或读取任务结束，任务因异常结束时收集该异常（未捕获的 Error 等）
+     *
+     * @param task     任务
+     * @param errors   异常数
+     * @param failures 收集的异常
+     */
+    private static void awaitTask(Future<?> task, AtomicLong errors, Queue<Throwable> failures)
+            throws InterruptedException {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            errors.incrementAndGet();
+            failures.add(e.getCause());
+        }
+    } // end awaitTask()
+
+    private static volatile boolean volatileStop; // 读取线程是否停止
+
+    private static int finalHops(int neighborIndex) {
+        return 1 + neighborIndex % 14;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} // end class RoutingTableStress
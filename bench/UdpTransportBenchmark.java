@@ -0,0 +1,138 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * UDP 传输层的基准
+ * <p>
+ * 先用直接调用把（固定种子生成的）拓扑收敛，再在稳态下由本线程反复让所有路由器发送完整路由表（路由表不再变化，
+ * 只有编码、收发、解码和比较的开销），分别测量：直接调用、UDP 异步投递（本线程限制在途报文数，避免接收缓冲区溢出）、
+ * UDP 同步投递。输出每秒报文数、每秒路由表项数，以及每个报文在发送线程、接收线程和整个 JVM 中分配的字节数，
+ * 并检查稳态下路由表没有变化。
+ * 参数：[拓扑类型] [拓扑参数...] [seconds=每项秒数] [threads=接收线程数] [window=在途报文数]
+ */
+public class UdpTransportBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(); // 线程分配统计
+
+    /**
+     * 接收线程已分配的字节数
+     */
+    private static long receiverAllocatedBytes() {
+        long bytes = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("rip-udp-receiver-")) {
+                bytes += THREADS.getThreadAllocatedBytes(thread.threadId());
+            }
+        }
+        return bytes;
+    } // end receiverAllocatedBytes()
+
+    private static long changeCount(NetworkTopology networkTopology) {
+        long changes = 0;
+        for (Router router : networkTopology.getRouters()) {
+            changes += router.getChangeCount();
+        }
+        return changes;
+    } // end changeCount()
+
+    /**
+     * 运行一项：在 seconds 秒内反复让所有路由器发送完整路由表
+     *
+     * @param name      名称
+     * @param transport UDP 传输层（null 表示直接调用）
+     * @param window    异步投递时最多在途的报文数
+     */
+    private static void run(String name, NetworkTopology networkTopology, UdpTransport transport, double seconds,
+                            int window) {
+        List<Router> routers = networkTopology.getRouters();
+        long changes = changeCount(networkTopology);
+        long entries = 0, messages = 0;
+        for (Router router : routers) {
+            entries -= router.getEntriesSent();
+            messages -= router.getUpdatesSent();
+        }
+        long received = transport == null ? 0 : transport.getPacketsReceived();
+        long lost = transport == null ? 0 : transport.getPacketsSent() - received;
+        long senderBytes = THREADS.getCurrentThreadAllocatedBytes();
+        long receiverBytes = receiverAllocatedBytes();
+        long totalBytes = THREADS.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + (long) (seconds * 1e9);
+        long rounds = 0;
+        do {
+            for (Router router : routers) {
+                router.sendUpdates();
+                if (transport != null && !transport.isSynchronousDelivery()) {
+                    while (transport.getPacketsSent() - transport.getPacketsReceived() > window) {
+                        Thread.yield(); // 在途报文过多时让出 CPU 给接收线程
+                    }
+                }
+            }
+            rounds++;
+        } while (System.nanoTime() < deadline);
+        if (transport != null) {
+            long sent = transport.getPacketsSent();
+            while (transport.getPacketsReceived() < sent && System.nanoTime() - deadline < 1_000_000_000L) {
+                Thread.yield(); // 等待在途的报文（最多 1 秒）
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        senderBytes = THREADS.getCurrentThreadAllocatedBytes() - senderBytes;
+        receiverBytes = receiverAllocatedBytes() - receiverBytes;
+        totalBytes = THREADS.getTotalThreadAllocatedBytes() - totalBytes;
+        for (Router router : routers) {
+            entries += router.getEntriesSent();
+            messages += router.getUpdatesSent();
+        }
+
+        String packets = "";
+        if (transport != null) {
+            received = transport.getPacketsReceived() - received;
+            lost = transport.getPacketsSent() - transport.getPacketsReceived() - lost;
+            packets = String.format("，接收报文 %d 个（丢失 %d 个，无效 %d 个），每报文分配：发送线程 %.1f B、接收线程 %.1f B",
+                    received, lost, transport.getInvalidPackets(), (double) senderBytes / messages,
+                    (double) receiverBytes / Math.max(1, received));
+        }
+        System.out.printf("%s：%d 轮，%.0f 报文/秒，%.0f 表项/秒，每报文分配（JVM 合计）%.1f B%s，路由表%s%n", name, rounds,
+                messages / elapsed, entries / elapsed, (double) totalBytes / messages, packets,
+                changeCount(networkTopology) == changes ? "未变化" : "发生变化");
+    } // end run()
+
+    public static void main(String[] args) throws Exception {
+        String type = "grid";
+        List<Double> paramList = new ArrayList<>();
+        double seconds = 5;
+        int threads = 1;
+        int window = 256;
+        for (String arg : args) {
+            if (arg.startsWith("seconds=")) {
+                seconds = Double.parseDouble(arg.substring(8));
+            } else if (arg.startsWith("threads=")) {
+                threads = Integer.parseInt(arg.substring(8));
+            } else if (arg.startsWith("window=")) {
+                window = Integer.parseInt(arg.substring(7));
+            } else if (Character.isDigit(arg.charAt(0))) {
+                paramList.add(Double.parseDouble(arg));
+            } else {
+                type = arg;
+            }
+        }
+        double[] params = paramList.isEmpty() ? new double[]{20, 20} : paramList.stream().mapToDouble(d -> d).toArray();
+
+        SimulationEngine engine = new SimulationEngine();
+        NetworkTopology networkTopology = new NetworkTopology(engine, false);
+        new TopologyGenerator(networkTopology, 1).generate(type, params);
+        System.out.println("拓扑：" + type + " " + paramList + "，路由器 " + networkTopology.getRouters().size()
+                + " 个，处理器数：" + Runtime.getRuntime().availableProcessors() + "，" + engine.runUntilConverged(36_000_000));
+
+        run("预热（直接调用）", networkTopology, null, seconds / 2, window);
+        run("直接调用", networkTopology, null, seconds, window);
+        UdpTransport transport = networkTopology.startUdpTransport(threads, false);
+        run("预热（UDP）", networkTopology, transport, seconds / 2, window);
+        run("UDP 异步投递", networkTopology, transport, seconds, window);
+        transport.setSynchronousDelivery(true);
+        run("UDP 同步投递", networkTopology, transport, seconds, window);
+        System.out.println("发送缓冲分配 " + transport.getBuffersAllocated() + " 个，发送失败 " + transport.getSendFailures() + " 个");
+        networkTopology.shutdown();
+    } // end main()
+} // end class UdpTransportBenchmark
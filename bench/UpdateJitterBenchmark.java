@@ -0,0 +1,139 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * 定时路由更新的相位、抖动和分批发送对负载平稳程度的影响
+ * <p>
+ * 对每种时间安排，在按真实时间运行的 {@link TimingWheelScheduler} 上重新生成同一拓扑（相位在路由器加入时生效），
+ * 预热 warmup 秒后按 window 毫秒的窗口采样 seconds 秒：调度器线程（时间轮线程和工作线程）的 CPU 时间和发送的路由更新报文数
+ * （线程 CPU 时间以纳秒计，进程 CPU 时间的精度只有 10 ms，不适合短窗口）。
+ * 输出每种安排下 CPU 和报文速率的平均值、峰值（最大的窗口）和峰均比，以及 99% 分位数。
+ * 默认每个周期都发送完整路由表（full=1），使每个周期的负载相同，峰均比只反映发送时刻的分布。
+ * 参数：[拓扑类型] [拓扑参数...] [interval=更新周期毫秒] [tick=刻度毫秒] [workers=工作线程数] [window=窗口毫秒]
+ * [warmup=预热秒数] [seconds=采样秒数] [full=完整路由表周期数] [batch=分批发送时每批的相邻路由器数]
+ */
+public class UpdateJitterBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(); // 线程 CPU 时间
+
+    /**
+     * 调度器线程的 CPU 时间之和（纳秒）
+     *
+     * @param threadIds 线程编号
+     */
+    private static long schedulerCpuTime(long[] threadIds) {
+        long nanos = 0;
+        for (long cpuTime : THREADS.getThreadCpuTime(threadIds)) {
+            nanos += Math.max(0, cpuTime);
+        }
+        return nanos;
+    } // end schedulerCpuTime()
+
+    /**
+     * 输出一组窗口采样的平均值、99% 分位数、峰值和峰均比
+     *
+     * @param name    名称
+     * @param samples 每个窗口的采样
+     * @param unit    单位
+     * @param scale   换算为单位的系数
+     */
+    private static String summary(String name, long[] samples, String unit, double scale) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(samples).average().orElse(0) * scale;
+        double p99 = sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] * scale;
+        double peak = sorted[sorted.length - 1] * scale;
+        return String.format("%s 平均 %.1f%s、P99 %.1f%s、峰值 %.1f%s、峰均比 %.2f", name, mean, unit, p99, unit, peak, unit,
+                mean == 0 ? 0 : peak / mean);
+    } // end summary()
+
+    public static void main(String[] args) throws InterruptedException {
+        String type = "scale-free";
+        List<Double> paramList = new ArrayList<>();
+        long interval = UpdateScheduler.UPDATE_INTERVAL_MILLIS;
+        long tick = 10;
+        int workers = Runtime.getRuntime().availableProcessors();
+        long window = 100;
+        double warmup = 10;
+        double seconds = 20;
+        int full = 1;
+        int batch = 1;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                if (Character.isDigit(arg.charAt(0))) {
+                    paramList.add(Double.parseDouble(arg));
+                } else {
+                    type = arg;
+                }
+                continue;
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "interval" -> interval = Long.parseLong(value);
+                case "tick" -> tick = Long.parseLong(value);
+                case "workers" -> workers = Integer.parseInt(value);
+                case "window" -> window = Long.parseLong(value);
+                case "warmup" -> warmup = Double.parseDouble(value);
+                case "seconds" -> seconds = Double.parseDouble(value);
+                case "full" -> full = Integer.parseInt(value);
+                case "batch" -> batch = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+        if (paramList.isEmpty()) {
+            paramList = List.of(2000.0, 2.0);
+        }
+        double[] params = paramList.stream().mapToDouble(d -> d).toArray();
+
+        Map<String, UpdateTiming> timings = new LinkedHashMap<>();
+        timings.put("同步", UpdateTiming.SYNCHRONIZED);
+        timings.put("随机相位", new UpdateTiming(true, 0, 0, 1));
+        timings.put("随机相位 + 抖动", new UpdateTiming(true, UpdateTiming.RFC_JITTER, 0, 1));
+        timings.put("随机相位 + 抖动 + 分批发送", new UpdateTiming(true, UpdateTiming.RFC_JITTER, batch, 1));
+        timings.put("同步 + 分批发送", new UpdateTiming(false, 0, batch, 1));
+
+        System.out.println("拓扑：" + type + " " + paramList + "，更新周期 " + interval + " ms，刻度 " + tick + " ms，工作线程 "
+                + workers + " 个，窗口 " + window + " ms，处理器数 " + Runtime.getRuntime().availableProcessors());
+        for (Map.Entry<String, UpdateTiming> entry : timings.entrySet()) {
+            TimingWheelScheduler scheduler = new TimingWheelScheduler(tick, interval, workers);
+            scheduler.setUpdateTiming(entry.getValue());
+            NetworkTopology networkTopology = new NetworkTopology(scheduler, false);
+            List<Router> routers = new TopologyGenerator(networkTopology, 1).generate(type, params);
+            for (Router router : routers) {
+                router.setFullUpdateCycles(full);
+            }
+            ConvergenceDetector detector = networkTopology.getConvergenceDetector();
+            Thread.sleep((long) (warmup * 1000));
+            long[] threadIds = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith("rip-update-worker-")
+                            || thread.getName().startsWith("rip-timing-wheel-"))
+                    .mapToLong(Thread::threadId).toArray();
+
+            int windows = (int) (seconds * 1000 / window);
+            long[] cpu = new long[windows];
+            long[] messages = new long[windows];
+            long start = System.nanoTime();
+            long lastCpu = schedulerCpuTime(threadIds);
+            long lastMessages = detector.getMessagesSent();
+            for (int i = 0; i < windows; i++) {
+                long sleepNanos = start + (i + 1) * window * 1_000_000L - System.nanoTime();
+                if (sleepNanos > 0) {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                }
+                long cpuTime = schedulerCpuTime(threadIds);
+                long messagesSent = detector.getMessagesSent();
+                cpu[i] = cpuTime - lastCpu;
+                messages[i] = messagesSent - lastMessages;
+                lastCpu = cpuTime;
+                lastMessages = messagesSent;
+            }
+            networkTopology.shutdown();
+
+            double windowNanos = window * 1e6;
+            System.out.println(entry.getKey() + "（" + entry.getValue() + "）：");
+            System.out.println("  " + summary("CPU", cpu, "%", 100 / windowNanos));
+            System.out.println("  " + summary("报文速率", messages, " 个/秒", 1000.0 / window));
+        }
+    } // end main()
+} // end class UpdateJitterBenchmark
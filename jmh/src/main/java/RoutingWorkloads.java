@@ -0,0 +1,214 @@
+import rip.jmh.Workload;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * 路由热点路径的被测操作（在默认包中构造，供 rip.jmh 中的 JMH 基准调用）
+ * <p>
+ * 路由表类（规模为路由表项数）：receiveUpdate.hit（路由表中已有相同的路由表项）、receiveUpdate.miss（每次操作前移除经由发送方的
+ * 路由表项，全部新增）、receiveUpdate.replace（下一跳是发送方，跳数交替变化，每个路由表项都被替换）、sendUpdates（向 8 个
+ * 已收敛的相邻路由器发送完整路由表）。
+ * 拓扑类（规模为路由器数，收敛后的网格拓扑，每条边一个链路网络）：printRoutingTable、printRoutingTable.appendable、
+ * getRoutingTablesInfo、printRoutingTables.writer、findRouter、findNetwork、exitNetwork（每次操作前把上次退出的链路网络重新加入）。
+ */
+public class RoutingWorkloads implements Workload.Factory {
+    private static final int NEIGHBOR_COUNT = 8; // sendUpdates 的相邻路由器数
+    private static int workloadCount; // 已构造的被测操作数（用于生成不重名的路由器和网络）
+    private final Map<Integer, NetworkTopology> grids = new HashMap<>(); // 路由器数 -> 收敛后的网格拓扑（同一规模的操作共用）
+
+    @Override
+    public Workload create(String name, int size) {
+        return switch (name) {
+            case "receiveUpdate.hit" -> receiveUpdateHit(size);
+            case "receiveUpdate.miss" -> receiveUpdateMiss(size);
+            case "receiveUpdate.replace" -> receiveUpdateReplace(size);
+            case "sendUpdates" -> sendUpdates(size);
+            case "printRoutingTable" -> {
+                Router router = middleRouter(grid(size));
+                yield router::printRoutingTable;
+            }
+            case "printRoutingTable.appendable" -> {
+                Router router = middleRouter(grid(size));
+                StringBuilder buffer = new StringBuilder(); // 复用的缓冲区
+                yield () -> {
+                    buffer.setLength(0);
+                    printQuietly(router::printRoutingTable, buffer);
+                    return buffer;
+                };
+            }
+            case "getRoutingTablesInfo" -> grid(size)::getRoutingTablesInfo;
+            case "printRoutingTables.writer" -> {
+                NetworkTopology networkTopology = grid(size);
+                Writer writer = Writer.nullWriter();
+                yield () -> {
+                    printQuietly(networkTopology::printRoutingTables, writer);
+                    return writer;
+                };
+            }
+            case "findRouter" -> {
+                NetworkTopology networkTopology = grid(size);
+                String[] names = networkTopology.getRouters().stream().map(Router::getRouterName).toArray(String[]::new);
+                int[] index = new int[1];
+                yield () -> networkTopology.findRouter(names[index[0]++ % names.length]);
+            }
+            case "findNetwork" -> {
+                NetworkTopology networkTopology = grid(size);
+                String[] names = networkTopology.getNetworks().stream().map(Network::getNetworkName).toArray(String[]::new);
+                int[] index = new int[1];
+                yield () -> networkTopology.findNetwork(names[index[0]++ % names.length]);
+            }
+            case "exitNetwork" -> exitNetwork(grid(size));
+            default -> throw new IllegalArgumentException("未知的被测操作：" + name);
+        };
+    } // end create()
+
+    /**
+     * 创建直连 tableSize 个网络的发送方路由器
+     */
+    private static Router sender(int tableSize) {
+        String prefix = "基准" + workloadCount++ + "-";
+        Router sender = new Router(prefix + "发送方");
+        for (int i = 0; i < tableSize; i++) {
+            sender.addDirectlyConnectedNetwork(new Network(prefix + "网" + i));
+        }
+        return sender;
+    } // end sender()
+
+    private static Workload receiveUpdateHit(int tableSize) {
+        Router sender = sender(tableSize);
+        Router receiver = new Router("接收方");
+        RouteAdvertisement advertisement = RouteAdvertisement.full(sender.getRoutingTableSnapshot(), SplitHorizonMode.NONE);
+        receiver.receiveUpdate(sender, advertisement);
+        return () -> {
+            receiver.receiveUpdate(sender, advertisement);
+            return receiver;
+        };
+    } // end receiveUpdateHit()
+
+    private static Workload receiveUpdateMiss(int tableSize) {
+        Router sender = sender(tableSize);
+        Router receiver = new Router("接收方");
+        RouteAdvertisement advertisement = RouteAdvertisement.full(sender.getRoutingTableSnapshot(), SplitHorizonMode.NONE);
+        return new Workload() {
+            @Override
+            public void prepare() {
+                receiver.removeEntriesForRouter(sender);
+            } // end prepare()
+
+            @Override
+            public Object run() {
+                receiver.receiveUpdate(sender, advertisement);
+                return receiver;
+            } // end run()
+        };
+    } // end receiveUpdateMiss()
+
+    private static Workload receiveUpdateReplace(int tableSize) {
+        Router sender = sender(tableSize);
+        Map<Network, RouteTableEntry> farther = new HashMap<>();
+        for (Map.Entry<Network, RouteTableEntry> entry : sender.getRoutingTable().entrySet()) {
+            farther.put(entry.getKey(), new RouteTableEntry(entry.getKey(), 3, sender));
+        }
+        Router fartherSender = sender(0);
+        fartherSender.setRoutingTable(farther);
+        RouteAdvertisement[] advertisements = {RouteAdvertisement.full(sender.getRoutingTableSnapshot(), SplitHorizonMode.NONE),
+                RouteAdvertisement.full(fartherSender.getRoutingTableSnapshot(), SplitHorizonMode.NONE)};
+        fartherSender.releaseRouterId();
+        Router receiver = new Router("接收方");
+        int[] round = new int[1];
+        return () -> {
+            receiver.receiveUpdate(sender, advertisements[round[0]++ & 1]);
+            return receiver;
+        };
+    } // end receiveUpdateReplace()
+
+    private static Workload sendUpdates(int tableSize) {
+        Router sender = sender(tableSize);
+        for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+            Router neighbor = new Router("相邻" + i);
+            sender.addNeighbor(neighbor);
+            neighbor.addNeighbor(sender);
+        }
+        sender.sendUpdates(); // 相邻路由器的路由表已收敛，之后只有接收、比较的开销
+        return () -> {
+            sender.sendUpdates();
+            return sender;
+        };
+    } // end sendUpdates()
+
+    /**
+     * 网络退出：每次操作前把上次退出的链路网络重新加入并直连原来的两个路由器
+     */
+    private static Workload exitNetwork(NetworkTopology networkTopology) {
+        List<Network> links = new ArrayList<>();
+        Map<Network, Router[]> ends = new HashMap<>();
+        for (Network network : networkTopology.getNetworks()) {
+            Set<Router> attached = networkTopology.getAttachedRouters(network);
+            if (attached.size() == 2) {
+                links.add(network);
+                ends.put(network, attached.toArray(new Router[0]));
+            }
+        }
+        return new Workload() {
+            private Network current; // 本次退出的链路网络
+            private int index; // 下一个退出的链路网络
+
+            @Override
+            public void prepare() {
+                if (current != null) {
+                    Router[] pair = ends.get(current);
+                    networkTopology.joinNetwork(current);
+                    pair[0].addNeighbor(pair[1]);
+                    pair[1].addNeighbor(pair[0]);
+                    networkTopology.attachNetwork(pair[0], current);
+                    networkTopology.attachNetwork(pair[1], current);
+                }
+                current = links.get(index++ % links.size());
+            } // end prepare()
+
+            @Override
+            public Object run() {
+                networkTopology.exitNetwork(current);
+                return current;
+            } // end run()
+        };
+    } // end exitNetwork()
+
+    /**
+     * 构造并收敛 n 个路由器的网格拓扑（每个路由器直连一个网络，每条边一个链路网络）
+     */
+    private NetworkTopology grid(int n) {
+        return grids.computeIfAbsent(n, key -> {
+            SimulationEngine engine = new SimulationEngine();
+            NetworkTopology networkTopology = new NetworkTopology(engine, false);
+            TopologyGenerator generator = new TopologyGenerator(networkTopology, 1);
+            generator.setLinkNetworks(true);
+            int cols = (int) Math.ceil(Math.sqrt(n));
+            generator.grid((n + cols - 1) / cols, cols);
+            engine.runUntilConverged(3_600_000);
+            return networkTopology;
+        });
+    } // end grid()
+
+    private static Router middleRouter(NetworkTopology networkTopology) {
+        List<Router> routers = networkTopology.getRouters();
+        return routers.get(routers.size() / 2);
+    } // end middleRouter()
+
+    /**
+     * 写入 Appendable 的打印操作
+     */
+    @FunctionalInterface
+    private interface PrintOperation {
+        void print(Appendable out) throws IOException;
+    } // end interface PrintOperation
+
+    private static void printQuietly(PrintOperation operation, Appendable out) {
+        try {
+            operation.print(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    } // end printQuietly()
+} // end class RoutingWorkloads
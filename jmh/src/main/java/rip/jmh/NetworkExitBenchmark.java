@@ -0,0 +1,36 @@
+package rip.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网络退出：收敛后的网格拓扑中轮流退出一个链路网络，每次操作前把上次退出的链路网络重新加入（不计时）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NetworkExitBenchmark {
+    @Param({"100", "1024"})
+    private int routers; // 路由器数
+
+    private Workload exitNetwork; // 被测操作
+
+    @Setup(Level.Trial)
+    public void setup() {
+        exitNetwork = Workloads.create("exitNetwork", routers);
+    } // end setup()
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        exitNetwork.prepare();
+    } // end prepare()
+
+    @Benchmark
+    public Object exitNetwork() {
+        return exitNetwork.run();
+    } // end exitNetwork()
+} // end class NetworkExitBenchmark
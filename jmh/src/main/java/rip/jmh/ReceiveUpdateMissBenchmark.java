@@ -0,0 +1,38 @@
+package rip.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接收路由更新（未命中）：每次操作前移除经由发送方的路由表项（不计时），收到的路由表项全部新增
+ * <p>
+ * 每次操作都有准备动作（{@link Level#Invocation}），与 {@link RouterBenchmark} 分开，不影响其他基准的计时方式。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceiveUpdateMissBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int tableSize; // 路由表项数
+
+    private Workload miss; // 被测操作
+
+    @Setup(Level.Trial)
+    public void setup() {
+        miss = Workloads.create("receiveUpdate.miss", tableSize);
+    } // end setup()
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        miss.prepare();
+    } // end prepare()
+
+    @Benchmark
+    public Object receiveUpdateMiss() {
+        return miss.run();
+    } // end receiveUpdateMiss()
+} // end class ReceiveUpdateMissBenchmark
@@ -0,0 +1,47 @@
+package rip.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个路由器的路由表热点路径：接收路由更新（命中、替换）和向 8 个相邻路由器发送完整路由表
+ * <p>
+ * 分配速率：{@code java -jar target/benchmarks.jar RouterBenchmark -prof gc}（gc.alloc.rate.norm 为每次操作分配的字节数）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouterBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int tableSize; // 路由表项数
+
+    private Workload hit; // 路由表中已有相同的路由表项，没有变化
+    private Workload replace; // 下一跳是发送方，跳数交替变化，每个路由表项都被替换
+    private Workload sendUpdates; // 向已收敛的相邻路由器发送完整路由表
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hit = Workloads.create("receiveUpdate.hit", tableSize);
+        replace = Workloads.create("receiveUpdate.replace", tableSize);
+        sendUpdates = Workloads.create("sendUpdates", tableSize);
+    } // end setup()
+
+    @Benchmark
+    public Object receiveUpdateHit() {
+        return hit.run();
+    } // end receiveUpdateHit()
+
+    @Benchmark
+    public Object receiveUpdateReplace() {
+        return replace.run();
+    } // end receiveUpdateReplace()
+
+    @Benchmark
+    public Object sendUpdates() {
+        return sendUpdates.run();
+    } // end sendUpdates()
+} // end class RouterBenchmark
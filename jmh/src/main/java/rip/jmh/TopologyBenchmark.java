@@ -0,0 +1,68 @@
+package rip.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网络拓扑的热点路径：打印路由表（字符串、写入 Appendable）、打印所有路由表（字符串、写入 Writer）、按名称查找路由器与网络
+ * <p>
+ * 拓扑为收敛后的网格（每个路由器直连一个网络，每条边一个链路网络），打印路由表取位于中间的路由器。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TopologyBenchmark {
+    @Param({"100", "1024"})
+    private int routers; // 路由器数
+
+    private Workload printRoutingTable; // 打印一个路由器的路由表（字符串）
+    private Workload printRoutingTableAppendable; // 打印一个路由器的路由表（写入复用的 StringBuilder）
+    private Workload getRoutingTablesInfo; // 打印所有路由表（字符串）
+    private Workload printRoutingTablesWriter; // 打印所有路由表（写入 Writer）
+    private Workload findRouter; // 按名称查找路由器
+    private Workload findNetwork; // 按名称查找网络
+
+    @Setup(Level.Trial)
+    public void setup() {
+        printRoutingTable = Workloads.create("printRoutingTable", routers);
+        printRoutingTableAppendable = Workloads.create("printRoutingTable.appendable", routers);
+        getRoutingTablesInfo = Workloads.create("getRoutingTablesInfo", routers);
+        printRoutingTablesWriter = Workloads.create("printRoutingTables.writer", routers);
+        findRouter = Workloads.create("findRouter", routers);
+        findNetwork = Workloads.create("findNetwork", routers);
+    } // end setup()
+
+    @Benchmark
+    public Object printRoutingTable() {
+        return printRoutingTable.run();
+    } // end printRoutingTable()
+
+    @Benchmark
+    public Object printRoutingTableAppendable() {
+        return printRoutingTableAppendable.run();
+    } // end printRoutingTableAppendable()
+
+    @Benchmark
+    public Object getRoutingTablesInfo() {
+        return getRoutingTablesInfo.run();
+    } // end getRoutingTablesInfo()
+
+    @Benchmark
+    public Object printRoutingTablesWriter() {
+        return printRoutingTablesWriter.run();
+    } // end printRoutingTablesWriter()
+
+    @Benchmark
+    public Object findRouter() {
+        return findRouter.run();
+    } // end findRouter()
+
+    @Benchmark
+    public Object findNetwork() {
+        return findNetwork.run();
+    } // end findNetwork()
+} // end class TopologyBenchmark
@@ -0,0 +1,36 @@
+package rip.jmh;
+
+/**
+ * 被测操作
+ * <p>
+ * JMH 要求基准类不在默认包中，而程序的类都在默认包中，具名包中的类不能直接引用它们；
+ * 因此被测操作由默认包中的 {@code RoutingWorkloads} 构造（见 {@link Workloads}），基准类只通过本接口调用。
+ */
+public interface Workload {
+    /**
+     * 每次操作前的准备（在 {@code Level.Invocation} 的 @Setup 中调用，不计入耗时）
+     */
+    default void prepare() {
+    } // end prepare()
+
+    /**
+     * 执行被测操作
+     *
+     * @return 操作结果（由基准方法返回，防止被 JIT 消除）
+     */
+    Object run();
+
+    /**
+     * 被测操作的工厂（由默认包中的 {@code RoutingWorkloads} 实现）
+     */
+    interface Factory {
+        /**
+         * 构造被测操作
+         *
+         * @param name 操作名称（见 {@code RoutingWorkloads}）
+         * @param size 规模（路由表项数或路由器数）
+         * @return 被测操作
+         */
+        Workload create(String name, int size);
+    } // end interface Factory
+} // end interface Workload
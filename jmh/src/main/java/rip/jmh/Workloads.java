@@ -0,0 +1,30 @@
+package rip.jmh;
+
+/**
+ * 按名称构造被测操作（通过反射加载默认包中的 {@code RoutingWorkloads}，只在 @Setup 中调用）
+ */
+public final class Workloads {
+    private static final Workload.Factory FACTORY = loadFactory(); // 默认包中的工厂
+
+    private Workloads() {
+    } // end Workloads()
+
+    /**
+     * 构造被测操作
+     *
+     * @param name 操作名称
+     * @param size 规模（路由表项数或路由器数）
+     * @return 被测操作
+     */
+    public static Workload create(String name, int size) {
+        return FACTORY.create(name, size);
+    } // end create()
+
+    private static Workload.Factory loadFactory() {
+        try {
+            return (Workload.Factory) Class.forName("RoutingWorkloads").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法加载默认包中的 RoutingWorkloads", e);
+        }
+    } // end loadFactory()
+} // end class Workloads
@@ -0,0 +1,260 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 收敛检测器（由网络拓扑持有，可注册监听器）
+ * <p>
+ * 按调度器时钟把时间划分为更新轮（每轮一个路由更新周期，每个路由器恰好发送一次路由更新），
+ * 路由器只累加计数器（变化的路由表项数、发送的报文数、路由表大小的峰值），不比较路由表：
+ * 连续 quietRoundsRequired 轮变化计数都没有增加即为收敛；拓扑变化（路由器故障、加入、退出，网络加入、退出）
+ * 或已收敛后路由表再次变化即为收敛被打破。更新轮在之后第一个路由器发送路由更新时结束，检测只增加常数开销。
+ * <p>
+ * 触发更新只发送变化的路由表项，没有变化的一轮之后，完整路由表仍可能带来新的路由（如故障后经由其它路径的路由），
+ * 因此要求的无变化轮数等于各路由器中最长的完整路由表周期数：这段时间内每个路由器都至少发送过一次完整路由表。
+ * 开启路由表项定时器时，静默故障要等路由表项超时才会被发现，要求的无变化轮数还要覆盖超时和垃圾回收
+ * （与 {@link SimulationEngine} 判定收敛的无变化时长相同，见 {@link #requiredQuietRounds()}）。
+ * 统计中的收敛时间截止到最后一个有变化的更新轮，不包含确认收敛的等待时间。
+ */
+public class ConvergenceDetector {
+    private final NetworkTopology networkTopology; // 网络拓扑
+    private final long intervalMillis; // 更新轮时长（毫秒）
+    private final LongAdder entriesChanged; // 变化的路由表项数（累计）
+    private final LongAdder messagesSent; // 发送的路由更新报文数（累计）
+    private final LongAccumulator peakTableSize; // 本次收敛过程中路由表项数的峰值
+    private final List<Listener> listeners; // 监听器
+    private volatile int quietRoundsRequired; // 判定收敛所需的连续无变化轮数
+
+    private volatile long roundStartTime; // 当前更新轮开始的时刻（毫秒）
+    private long roundStartChanges; // 当前更新轮开始时的变化计数
+    private boolean converged; // 是否已收敛
+    private int quietRounds; // 连续无变化的轮数
+    private int rounds; // 本次收敛过程中路由表发生变化的更新轮数
+    private long runStartTime; // 本次收敛过程开始的时刻（毫秒）
+    private long runStartNanos; // 本次收敛过程开始的实际时刻（纳秒）
+    private long runStartChanges; // 本次收敛过程开始时的变化计数
+    private long runStartMessages; // 本次收敛过程开始时的报文计数
+    private long lastChangeRoundEnd; // 最后一个有变化的更新轮结束的时刻（毫秒）
+    private ConvergenceMetrics lastMetrics; // 最近一次收敛的统计
+
+    public ConvergenceDetector(NetworkTopology networkTopology) {
+        this(networkTopology, UpdateScheduler.UPDATE_INTERVAL_MILLIS);
+    } // end ConvergenceDetector()
+
+    public ConvergenceDetector(NetworkTopology networkTopology, long intervalMillis) {
+        this.networkTopology = networkTopology;
+        this.intervalMillis = intervalMillis;
+        this.entriesChanged = new LongAdder();
+        this.messagesSent = new LongAdder();
+        this.peakTableSize = new LongAccumulator(Math::max, 0);
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.quietRoundsRequired = Router.DEFAULT_FULL_UPDATE_CYCLES;
+        this.roundStartTime = now();
+        startRun(roundStartTime);
+    } // end ConvergenceDetector()
+
+    /**
+     * 收敛监听器
+     */
+    public interface Listener {
+        /**
+         * 收敛（一个完整的更新轮内没有路由表项变化）
+         *
+         * @param metrics 本次收敛的统计
+         */
+        void onConverged(ConvergenceMetrics metrics);
+
+        /**
+         * 收敛被打破（拓扑变化或路由表再次变化）
+         *
+         * @param cause 原因
+         */
+        void onConvergenceBroken(String cause);
+    } // end interface Listener
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    } // end addListener()
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    } // end removeListener()
+
+    /**
+     * 记录一个路由表项变化（由路由器在新快照发布后调用）
+     *
+     * @param tableSize 变化后的路由表项数
+     */
+    public void recordChange(int tableSize) {
+        entriesChanged.increment();
+        peakTableSize.accumulate(tableSize);
+    } // end recordChange()
+
+    /**
+     * 记录发送的路由更新报文
+     *
+     * @param messages 报文数
+     */
+    public void recordMessages(int messages) {
+        messagesSent.add(messages);
+    } // end recordMessages()
+
+    /**
+     * 路由器完成一次定时路由更新：若当前更新轮已结束，则检查这一轮是否有路由表项变化
+     */
+    public void onUpdateCycle() {
+        long now = now();
+        if (now - roundStartTime < intervalMillis) {
+            return; // 绝大多数调用只比较一次时间
+        }
+
+        ConvergenceMetrics metrics = null;
+        boolean broken = false;
+        synchronized (this) {
+            if (now - roundStartTime < intervalMillis) {
+                return;
+            }
+            long changes = entriesChanged.sum();
+            if (changes == roundStartChanges) {
+                if (!converged && ++quietRounds >= requiredQuietRounds()) {
+                    converged = true;
+                    metrics = new ConvergenceMetrics(rounds, Math.max(0, lastChangeRoundEnd - runStartTime),
+                            System.nanoTime() - runStartNanos, messagesSent.sum() - runStartMessages,
+                            changes - runStartChanges, (int) peakTableSize.get());
+                    lastMetrics = metrics;
+                }
+            } else {
+                if (converged) {
+                    converged = false;
+                    broken = true;
+                    long peak = peakTableSize.get(); // 本轮的变化属于新的收敛过程
+                    startRun(roundStartTime);
+                    runStartChanges = roundStartChanges;
+                    peakTableSize.accumulate(peak);
+                }
+                quietRounds = 0;
+                rounds++;
+                lastChangeRoundEnd = now;
+            }
+            roundStartTime = now;
+            roundStartChanges = changes;
+        }
+
+        if (metrics != null) {
+            for (Listener listener : listeners) {
+                listener.onConverged(metrics);
+            }
+        } else if (broken) {
+            for (Listener listener : listeners) {
+                listener.onConvergenceBroken("路由表发生变化");
+            }
+        }
+    } // end onUpdateCycle()
+
+    /**
+     * 拓扑变化（路由器故障、加入、退出，网络加入、退出）：若已收敛，则收敛被打破，开始新的收敛过程
+     *
+     * @param cause 原因
+     */
+    public void topologyChanged(String cause) {
+        synchronized (this) {
+            quietRounds = 0;
+            if (!converged) {
+                return; // 仍在收敛过程中，继续累计
+            }
+            converged = false;
+            startRun(now());
+        }
+        for (Listener listener : listeners) {
+            listener.onConvergenceBroken(cause);
+        }
+    } // end topologyChanged()
+
+    /**
+     * 重置检测器（网络拓扑重置时调用）：清空计数器和统计，从调度器的当前时刻开始新的收敛过程，保留监听器和无变化轮数
+     */
+    public synchronized void reset() {
+        entriesChanged.reset();
+        messagesSent.reset();
+        converged = false;
+        quietRounds = 0;
+        lastMetrics = null;
+        roundStartTime = now();
+        roundStartChanges = 0;
+        startRun(roundStartTime);
+    } // end reset()
+
+    /**
+     * 按网络拓扑中所有路由器最长的完整路由表周期数更新所需的连续无变化轮数（与 {@link SimulationEngine} 相同），
+     * 路由器加入、退出或修改完整路由表周期数时调用；没有路由器时为默认的完整路由表周期数
+     */
+    public void updateQuietRoundsRequired() {
+        List<Router> routers = networkTopology.getRouters();
+        int fullUpdateCycles = routers.isEmpty() ? Router.DEFAULT_FULL_UPDATE_CYCLES : 1;
+        for (Router router : routers) {
+            fullUpdateCycles = Math.max(fullUpdateCycles, router.getFullUpdateCycles());
+        }
+        setQuietRoundsRequired(fullUpdateCycles);
+    } // end updateQuietRoundsRequired()
+
+    /**
+     * 开始新的收敛过程
+     *
+     * @param time 开始的时刻（毫秒）
+     */
+    private void startRun(long time) {
+        rounds = 0;
+        runStartTime = time;
+        runStartNanos = System.nanoTime();
+        runStartChanges = entriesChanged.sum();
+        runStartMessages = messagesSent.sum();
+        lastChangeRoundEnd = time;
+        peakTableSize.reset();
+    } // end startRun()
+
+    /**
+     * 判定收敛所需的连续无变化轮数：完整路由表周期数，开启路由表项定时器时不少于覆盖超时（或垃圾回收）、
+     * 一个刻度和处理超时的那次定时路由更新（在路由器下一次定时路由更新开始时处理）的轮数
+     *
+     * @return 轮数
+     */
+    private int requiredQuietRounds() {
+        int required = quietRoundsRequired;
+        RouteTimers timers = networkTopology.getRouteTimers();
+        if (timers != null) {
+            long timerMillis = Math.max(timers.getTimeoutMillis(), timers.getGarbageCollectionMillis())
+                    + timers.getTickMillis();
+            required = (int) Math.max(required, (timerMillis + intervalMillis - 1) / intervalMillis + 1);
+        }
+        return required;
+    } // end requiredQuietRounds()
+
+    private long now() {
+        return networkTopology.getUpdateScheduler().currentTimeMillis();
+    } // end now()
+
+    public int getQuietRoundsRequired() {
+        return quietRoundsRequired;
+    }
+
+    public void setQuietRoundsRequired(int quietRoundsRequired) {
+        this.quietRoundsRequired = Math.max(1, quietRoundsRequired);
+    }
+
+    public synchronized boolean isConverged() {
+        return converged;
+    }
+
+    public synchronized ConvergenceMetrics getLastMetrics() {
+        return lastMetrics;
+    }
+
+    public long getEntriesChanged() {
+        return entriesChanged.sum();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+} // end class ConvergenceDetector
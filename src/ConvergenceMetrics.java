@@ -0,0 +1,55 @@
+/**
+ * 一次收敛的统计类（从拓扑变化到路由表稳定）
+ */
+public class ConvergenceMetrics {
+    private final int rounds; // 路由表发生变化的更新轮数
+    private final long convergenceMillis; // 收敛时间（调度器时钟，毫秒，从拓扑变化到最后一个有变化的更新轮结束）
+    private final long wallNanos; // 实际耗时（纳秒，从拓扑变化到检测到收敛）
+    private final long messagesSent; // 发送的路由更新报文数
+    private final long entriesChanged; // 变化的路由表项数
+    private final int peakTableSize; // 路由表项数的峰值（所有路由器中最大的路由表）
+
+    public ConvergenceMetrics(int rounds, long convergenceMillis, long wallNanos, long messagesSent,
+                              long entriesChanged, int peakTableSize) {
+        this.rounds = rounds;
+        this.convergenceMillis = convergenceMillis;
+        this.wallNanos = wallNanos;
+        this.messagesSent = messagesSent;
+        this.entriesChanged = entriesChanged;
+        this.peakTableSize = peakTableSize;
+    } // end ConvergenceMetrics()
+
+    @Override
+    public String toString() {
+        return "更新轮数：" + rounds
+                + "，收敛时间：" + convergenceMillis + " ms"
+                + "，实际耗时：" + String.format("%.3f", wallNanos / 1e6) + " ms"
+                + "，报文数：" + messagesSent
+                + "，变化表项数：" + entriesChanged
+                + "，路由表峰值：" + peakTableSize;
+    } // end toString()
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public long getConvergenceMillis() {
+        return convergenceMillis;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public long getEntriesChanged() {
+        return entriesChanged;
+    }
+
+    public int getPeakTableSize() {
+        return peakTableSize;
+    }
+} // end class ConvergenceMetrics
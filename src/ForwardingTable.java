@@ -0,0 +1,363 @@
+import java.util.*;
+
+/**
+ * 转发表（由路由表编译的不可变最长前缀匹配结构，按目的 IPv4 地址查找下一跳路由器）
+ * <p>
+ * 采用 Poptrie 式的压缩多位 trie：地址的高 16 位直接索引 65536 项的一级数组，其余位按每级 6 位（最后一级补 2 个 0 位）
+ * 逐级查找，最多再查 3 级。每个节点只有 3 个 long：
+ * <ul>
+ * <li>vector：64 个子位置中哪些是下级节点，下级节点连续存放，以 popcount 计算下标；</li>
+ * <li>leafvec：叶子（下一跳）按值压缩，只在值变化的子位置置位（下级节点所在的位置跳过），叶子同样以 popcount 计算下标；</li>
+ * <li>叶子起始下标（高 32 位）和下级节点起始下标（低 32 位）。</li>
+ * </ul>
+ * 编译时把较短前缀的下一跳推入较长前缀覆盖不到的位置（叶子下推），查找时不回溯。一级数组的项为非负数时是节点下标，
+ * 为负数时是叶子（~(下一跳 + 1)）。
+ * <p>
+ * 跳数小于 16 且网络有前缀的路由表项参与编译；直连网络的下一跳是路由器自身（直接交付），没有匹配的路由时下一跳为 -1。
+ * 多个网络前缀相同时，网络编号大的生效。
+ * <p>
+ * 转发表编译后不再修改，路由器以一次 volatile 引用替换发布新的转发表，查找方无需加锁（见 {@link Router#getForwardingTable()}）；
+ * 转发表保留编译所用的路由表快照（快照不可变，与路由表共享），用于判断一次路由表项变化是否影响转发（见 {@link #affects}）。
+ */
+public final class ForwardingTable {
+    public static final ForwardingTable EMPTY = compile(-1, new int[0], new int[0], new int[0], 0); // 空转发表（任何路由表项变化都影响它）
+
+    private static final int DIRECT_BITS = 16; // 一级数组索引的地址位数
+    private static final int STRIDE = 6; // 每级节点索引的地址位数
+
+    private final int[] direct; // 一级数组（节点下标，或 ~(下一跳 + 1)）
+    private final long[] nodes; // 节点（每个节点 3 个 long：vector、leafvec、叶子起始下标 << 32 | 下级节点起始下标）
+    private final int[] leaves; // 叶子（下一跳路由器编号）
+    private final int routeCount; // 参与编译的路由数
+    private final long version; // 编译时路由表的版本号
+    private final RoutingTable.Snapshot source; // 编译所用的路由表快照（由路由列表编译时为 null）
+
+    private ForwardingTable(int[] direct, long[] nodes, int[] leaves, int routeCount, long version,
+                            RoutingTable.Snapshot source) {
+        this.direct = direct;
+        this.nodes = nodes;
+        this.leaves = leaves;
+        this.routeCount = routeCount;
+        this.version = version;
+        this.source = source;
+    } // end ForwardingTable()
+
+    /**
+     * 由路由表快照编译转发表
+     *
+     * @param snapshot 路由表快照
+     * @param version  快照对应的路由表版本号
+     * @return 转发表
+     */
+    public static ForwardingTable compile(RoutingTable.Snapshot snapshot, long version) {
+        int[] addresses = new int[snapshot.size()];
+        int[] lengths = new int[addresses.length];
+        int[] nextHops = new int[addresses.length];
+        int count = 0;
+        for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+            Network network = Network.byId(networkId);
+            if (snapshot.hops(networkId) >= RoutingTable.UNREACHABLE || network == null || !network.hasPrefix()) {
+                continue;
+            }
+            addresses[count] = network.getPrefixAddress();
+            lengths[count] = network.getPrefixLength();
+            nextHops[count] = snapshot.nextHop(networkId);
+            count++;
+        }
+        return compile(snapshot, version, addresses, lengths, nextHops, count);
+    } // end compile()
+
+    /**
+     * 由路由列表编译转发表
+     *
+     * @param version   路由表版本号
+     * @param addresses 前缀地址（主机位为 0）
+     * @param lengths   前缀长度（0～32）
+     * @param nextHops  下一跳路由器编号
+     * @param count     路由数（前缀相同时后面的路由生效）
+     * @return 转发表
+     */
+    public static ForwardingTable compile(long version, int[] addresses, int[] lengths, int[] nextHops, int count) {
+        return compile(null, version, addresses, lengths, nextHops, count);
+    } // end compile()
+
+    /**
+     * 编译转发表（source 为编译所用的路由表快照，由路由列表编译时为 null）
+     */
+    private static ForwardingTable compile(RoutingTable.Snapshot source, long version, int[] addresses, int[] lengths,
+                                           int[] nextHops, int count) {
+        /* 按前缀长度计数排序（稳定），较长的前缀后写入，覆盖较短前缀的下一跳 */
+        int[] order = new int[count];
+        int[] starts = new int[35];
+        for (int i = 0; i < count; i++) {
+            starts[lengths[i] + 2]++;
+        }
+        for (int length = 0; length < 34; length++) {
+            starts[length + 1] += starts[length];
+        }
+        for (int i = 0; i < count; i++) {
+            order[starts[lengths[i] + 1]++] = i;
+        }
+
+        Builder builder = new Builder(addresses, lengths, nextHops);
+        int[] direct = new int[1 << DIRECT_BITS];
+        Arrays.fill(direct, ~0);
+        int longCount = 0;
+        for (int route : order) {
+            int length = lengths[route];
+            if (length > DIRECT_BITS) {
+                order[longCount++] = route; // 较长的前缀放到下级节点，保持长度顺序
+                continue;
+            }
+            int from = addresses[route] >>> DIRECT_BITS;
+            Arrays.fill(direct, from, from + (1 << (DIRECT_BITS - length)), ~(nextHops[route] + 1));
+        }
+
+        /* 较长的前缀按高 16 位分组（稳定），每组编译为一个节点 */
+        int[] groupStarts = new int[(1 << DIRECT_BITS) + 1];
+        for (int i = 0; i < longCount; i++) {
+            groupStarts[(addresses[order[i]] >>> DIRECT_BITS) + 1]++;
+        }
+        for (int i = 0; i < 1 << DIRECT_BITS; i++) {
+            groupStarts[i + 1] += groupStarts[i];
+        }
+        int[] grouped = new int[longCount];
+        int[] positions = Arrays.copyOf(groupStarts, 1 << DIRECT_BITS);
+        for (int i = 0; i < longCount; i++) {
+            int route = order[i];
+            grouped[positions[addresses[route] >>> DIRECT_BITS]++] = route;
+        }
+        for (int index = 0; index < 1 << DIRECT_BITS; index++) {
+            if (groupStarts[index] < groupStarts[index + 1]) {
+                int node = builder.allocate(1);
+                builder.build(node, grouped, groupStarts[index], groupStarts[index + 1], DIRECT_BITS, ~direct[index] - 1);
+                direct[index] = node;
+            }
+        }
+        return new ForwardingTable(direct, Arrays.copyOf(builder.nodes, builder.nodeCount * 3),
+                Arrays.copyOf(builder.leaves, builder.leafCount), count, version, source);
+    } // end compile()
+
+    /**
+     * 取地址从第 offset 位（自高位起）开始的 6 位（地址末尾补 2 个 0 位，使最后一级也是 6 位）
+     */
+    private static int chunk(int address, int offset) {
+        return (int) (Integer.toUnsignedLong(address) << 2 >>> (28 - offset)) & 63;
+    } // end chunk()
+
+    /**
+     * 查找目的地址的下一跳（最长前缀匹配）
+     *
+     * @param address 目的 IPv4 地址
+     * @return 下一跳路由器编号（直连网络为路由器自身，没有匹配的路由时为 -1）
+     */
+    public int lookup(int address) {
+        int entry = direct[address >>> DIRECT_BITS];
+        if (entry < 0) {
+            return ~entry - 1;
+        }
+        long[] nodes = this.nodes;
+        long extended = Integer.toUnsignedLong(address) << 2;
+        for (int shift = 28 - DIRECT_BITS; ; shift -= STRIDE) {
+            int base = entry * 3;
+            long bit = 1L << (extended >>> shift); // 移位距离只取低 6 位，即本级的 6 个地址位
+            long vector = nodes[base];
+            if ((vector & bit) == 0) {
+                int leaf = (int) (nodes[base + 2] >>> 32) + Long.bitCount(nodes[base + 1] & ((bit << 1) - 1)) - 1;
+                return leaves[leaf];
+            }
+            entry = (int) nodes[base + 2] + Long.bitCount(vector & (bit - 1));
+        }
+    } // end lookup()
+
+    /**
+     * 批量查找（先取出一批地址的一级数组项，再逐个向下查找，使多个访存可以同时进行）
+     *
+     * @param addresses 目的 IPv4 地址
+     * @param nextHops  下一跳路由器编号（输出，含义同 {@link #lookup(int)}）
+     * @param count     地址数
+     */
+    public void lookup(int[] addresses, int[] nextHops, int count) {
+        int[] direct = this.direct;
+        for (int i = 0; i < count; i++) {
+            nextHops[i] = direct[addresses[i] >>> DIRECT_BITS];
+        }
+        long[] nodes = this.nodes;
+        int[] leaves = this.leaves;
+        for (int i = 0; i < count; i++) {
+            int entry = nextHops[i];
+            if (entry < 0) {
+                nextHops[i] = ~entry - 1;
+                continue;
+            }
+            long extended = Integer.toUnsignedLong(addresses[i]) << 2;
+            for (int shift = 28 - DIRECT_BITS; ; shift -= STRIDE) {
+                int base = entry * 3;
+                long bit = 1L << (extended >>> shift);
+                long vector = nodes[base];
+                if ((vector & bit) == 0) {
+                    nextHops[i] = leaves[(int) (nodes[base + 2] >>> 32) + Long.bitCount(nodes[base + 1] & ((bit << 1) - 1)) - 1];
+                    break;
+                }
+                entry = (int) nodes[base + 2] + Long.bitCount(vector & (bit - 1));
+            }
+        }
+    } // end lookup()
+
+    /**
+     * 判断路由表项变化是否影响转发：可达性或下一跳与编译所用的快照不同时影响（只有跳数变化不影响）
+     *
+     * @param snapshot  变化后的路由表快照
+     * @param networkId 变化的网络编号
+     * @return 判断结果（不是由路由表快照编译时总是 true）
+     */
+    public boolean affects(RoutingTable.Snapshot snapshot, int networkId) {
+        return source == null || forwardingHop(source, networkId) != forwardingHop(snapshot, networkId);
+    } // end affects()
+
+    /**
+     * 路由表项在转发表中的下一跳
+     *
+     * @return 下一跳路由器编号（不可达或无此路由表项时为 -1）
+     */
+    private static int forwardingHop(RoutingTable.Snapshot snapshot, int networkId) {
+        int hops = snapshot.hops(networkId);
+        return hops == 0 || hops >= RoutingTable.UNREACHABLE ? -1 : snapshot.nextHop(networkId);
+    } // end forwardingHop()
+
+    /**
+     * 占用的内存（字节，只计数组内容）
+     *
+     * @return 字节数
+     */
+    public long memoryBytes() {
+        return direct.length * 4L + nodes.length * 8L + leaves.length * 4L;
+    } // end memoryBytes()
+
+    @Override
+    public String toString() {
+        return String.format("路由 %d 条，节点 %d 个，叶子 %d 个，%.1f KB", routeCount, nodes.length / 3, leaves.length,
+                memoryBytes() / 1024.0);
+    } // end toString()
+
+    public int getRouteCount() {
+        return routeCount;
+    }
+
+    public int getNodeCount() {
+        return nodes.length / 3;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 节点编译器（节点、叶子数组按需扩容）
+     */
+    private static final class Builder {
+        private final int[] addresses; // 前缀地址
+        private final int[] lengths; // 前缀长度
+        private final int[] nextHops; // 下一跳路由器编号
+        private long[] nodes = new long[3 * 64]; // 节点
+        private int nodeCount; // 节点数
+        private int[] leaves = new int[256]; // 叶子
+        private int leafCount; // 叶子数
+
+        private Builder(int[] addresses, int[] lengths, int[] nextHops) {
+            this.addresses = addresses;
+            this.lengths = lengths;
+            this.nextHops = nextHops;
+        } // end Builder()
+
+        /**
+         * 分配连续的节点
+         *
+         * @param count 节点数
+         * @return 第一个节点的下标
+         */
+        private int allocate(int count) {
+            if ((nodeCount + count) * 3 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, (nodeCount + count) * 3));
+            }
+            int first = nodeCount;
+            nodeCount += count;
+            return first;
+        } // end allocate()
+
+        /**
+         * 编译一个节点
+         *
+         * @param node        节点下标（已分配）
+         * @param routes      路由下标（[from, to) 内按前缀长度升序，且都长于 offset 位）
+         * @param from        起始位置
+         * @param to          结束位置
+         * @param offset      节点索引的地址位起点（自高位起）
+         * @param inheritedHop 从较短前缀下推的下一跳（-1 表示没有）
+         */
+        private void build(int node, int[] routes, int from, int to, int offset, int inheritedHop) {
+            int[] hops = new int[64];
+            Arrays.fill(hops, inheritedHop);
+            long vector = 0;
+            int[] childCounts = new int[64];
+            for (int i = from; i < to; i++) {
+                int route = routes[i];
+                int position = chunk(addresses[route], offset);
+                int span = offset + STRIDE - lengths[route]; // 覆盖 2^span 个子位置（小于 0 时由下级节点处理）
+                if (span >= 0) {
+                    int start = position & -(1 << span);
+                    Arrays.fill(hops, start, start + (1 << span), nextHops[route]);
+                } else {
+                    vector |= 1L << position;
+                    childCounts[position]++;
+                }
+            }
+
+            /* 叶子：只在下一跳变化的位置追加，跳过下级节点所在的位置 */
+            long leafvec = 0;
+            int leafBase = leafCount;
+            int lastHop = 0;
+            for (int position = 0; position < 64; position++) {
+                if ((vector & 1L << position) != 0) {
+                    continue;
+                }
+                if (leafCount == leafBase || hops[position] != lastHop) {
+                    if (leafCount == leaves.length) {
+                        leaves = Arrays.copyOf(leaves, leaves.length * 2);
+                    }
+                    leaves[leafCount++] = lastHop = hops[position];
+                    leafvec |= 1L << position;
+                }
+            }
+
+            int childBase = allocate(Long.bitCount(vector));
+            nodes[node * 3] = vector;
+            nodes[node * 3 + 1] = leafvec;
+            nodes[node * 3 + 2] = (long) leafBase << 32 | childBase;
+            if (vector == 0) {
+                return;
+            }
+
+            /* 下级节点的路由按子位置分组（稳定，保持长度顺序） */
+            int[] childStarts = new int[65];
+            for (int position = 0; position < 64; position++) {
+                childStarts[position + 1] = childStarts[position] + childCounts[position];
+            }
+            int[] grouped = new int[childStarts[64]];
+            int[] positions = Arrays.copyOf(childStarts, 64);
+            for (int i = from; i < to; i++) {
+                int route = routes[i];
+                int position = chunk(addresses[route], offset);
+                if (offset + STRIDE - lengths[route] < 0) {
+                    grouped[positions[position]++] = route;
+                }
+            }
+            int child = childBase;
+            for (int position = 0; position < 64; position++) {
+                if ((vector & 1L << position) != 0) {
+                    build(child++, grouped, childStarts[position], childStarts[position + 1], offset + STRIDE, hops[position]);
+                }
+            }
+        } // end build()
+    } // end class Builder
+} // end class ForwardingTable
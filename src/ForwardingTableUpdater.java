@@ -0,0 +1,154 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 转发表更新器（在后台线程上合并重建路由器的转发表，见 {@link Router#getForwardingTable()}）
+ * <p>
+ * 路由表项变化影响转发时，路由器在修改路由表的线程上把自己记入待重建集合（已在集合中或已标记过期时不重复记入），
+ * 不在修改路由表的线程上编译。后台线程在第一个请求到达后等待 coalesceMillis 毫秒，使一阵连续的变化（如一次拓扑变化引发的
+ * 触发更新）只重建一次，再逐个由最新的路由表快照编译转发表并以 volatile 引用替换发布；重建期间到达的变化留待下一轮。
+ * 后台线程空闲 1 秒后退出，下次请求时重新创建，不用的网络拓扑不占线程。
+ * 重建某个路由器的转发表抛出异常时，异常交给后台线程的未捕获异常处理器，继续重建这一批的其他路由器
+ * （该路由器的转发表保持过期，由 {@link Router#awaitForwardingTable()} 重建）；后台线程无论如何退出都会清除引用，
+ * 之后的请求重新创建线程。
+ */
+public class ForwardingTableUpdater {
+    public static final long DEFAULT_COALESCE_MILLIS = 20; // 默认合并窗口（毫秒）
+    private static final long IDLE_MILLIS = 1000; // 后台线程空闲多久后退出（毫秒）
+
+    private final long coalesceMillis; // 合并窗口（毫秒）
+    private final Set<Router> pending; // 待重建的路由器（由 this 加锁）
+    private Thread worker; // 后台线程（空闲退出后为 null，由 this 加锁）
+    private boolean shutdown; // 是否已关闭（由 this 加锁）
+    private final LongAdder requests; // 请求重建的次数
+    private final LongAdder rebuilds; // 后台线程重建的次数
+    private final LongAdder rebuildNanos; // 后台线程重建的总耗时（纳秒）
+    private final LongAdder failures; // 重建时抛出异常的次数
+
+    public ForwardingTableUpdater() {
+        this(DEFAULT_COALESCE_MILLIS);
+    } // end ForwardingTableUpdater()
+
+    /**
+     * @param coalesceMillis 合并窗口（毫秒，0 表示不等待）
+     */
+    public ForwardingTableUpdater(long coalesceMillis) {
+        this.coalesceMillis = Math.max(0, coalesceMillis);
+        this.pending = new LinkedHashSet<>();
+        this.requests = new LongAdder();
+        this.rebuilds = new LongAdder();
+        this.rebuildNanos = new LongAdder();
+        this.failures = new LongAdder();
+    } // end ForwardingTableUpdater()
+
+    /**
+     * 请求重建路由器的转发表（由路由器在修改路由表的线程上调用，不阻塞）
+     *
+     * @param router 路由器
+     */
+    public synchronized void schedule(Router router) {
+        if (shutdown || !pending.add(router)) {
+            return;
+        }
+        requests.increment();
+        if (worker == null) {
+            worker = new Thread(this::run, "rip-fib-updater");
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            notifyAll();
+        }
+    } // end schedule()
+
+    /**
+     * 后台线程：等待请求，等待合并窗口，再重建这一批路由器的转发表
+     */
+    private void run() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    long idleDeadline = System.currentTimeMillis() + IDLE_MILLIS;
+                    while (pending.isEmpty() && !shutdown) {
+                        long waitMillis = idleDeadline - System.currentTimeMillis();
+                        if (waitMillis <= 0) {
+                            worker = null; // 之后的请求创建新线程
+                            return;
+                        }
+                        wait(waitMillis);
+                    }
+                    if (shutdown) {
+                        return;
+                    }
+                }
+                if (coalesceMillis > 0) {
+                    Thread.sleep(coalesceMillis); // 合并窗口内的请求由这一轮一起处理
+                }
+                Router[] batch;
+                synchronized (this) {
+                    batch = pending.toArray(new Router[0]);
+                    pending.clear();
+                }
+                for (Router router : batch) {
+                    long start = System.nanoTime();
+                    try {
+                        if (router.rebuildForwardingTable()) {
+                            rebuilds.increment();
+                            rebuildNanos.add(System.nanoTime() - start);
+                        }
+                    } catch (RuntimeException e) {
+                        failures.increment();
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e); // 继续重建其他路由器
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 关闭
+        } finally {
+            synchronized (this) {
+                if (worker == Thread.currentThread()) {
+                    worker = null; // 因 Error 等意外退出时，之后的请求创建新线程
+                }
+            }
+        }
+    } // end run()
+
+    /**
+     * 关闭：后台线程退出，之后的请求被忽略（已标记过期的转发表由 {@link Router#awaitForwardingTable()} 重建）
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            shutdown = true;
+            pending.clear();
+            thread = worker;
+            worker = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    } // end shutdown()
+
+    @Override
+    public String toString() {
+        long count = rebuilds.sum();
+        return String.format("转发表：请求重建 %d 次，后台重建 %d 次（合并窗口 %d ms，平均 %.2f ms），出错 %d 次", requests.sum(),
+                count, coalesceMillis, count == 0 ? 0 : rebuildNanos.sum() / 1e6 / count, failures.sum());
+    } // end toString()
+
+    public long getCoalesceMillis() {
+        return coalesceMillis;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+} // end class ForwardingTableUpdater
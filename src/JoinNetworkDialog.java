@@ -77,7 +77,7 @@ public class JoinNetworkDialog extends JDialog {
                         findRouter1.addNeighbor(findRouter);
                     }
                 }
-                findRouter.addDirectlyConnectedNetwork(newNetwork); // 路由器存在，则直连到网络
+                networkTopology.attachNetwork(findRouter, newNetwork); // 路由器存在，则直连到网络
             }
         } else return;
 
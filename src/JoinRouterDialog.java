@@ -69,7 +69,7 @@ public class JoinRouterDialog extends JDialog {
             return;
         }
 
-        Router newRouter = new Router(routerName);
+        Router newRouter = Router.obtain(routerName);
         networkTopology.joinRouter(newRouter);
         String[] neighborNames = neighbors.split(",");
         String[] networkNames = networks.split(",");
@@ -81,7 +81,7 @@ public class JoinRouterDialog extends JDialog {
             }
             for (String networkName : networkNames) {
                 Network findNetwork = networkTopology.findNetwork(networkName.trim());
-                newRouter.addDirectlyConnectedNetwork(findNetwork); // 网络存在，则直连到路由器
+                networkTopology.attachNetwork(newRouter, findNetwork); // 网络存在，则直连到路由器
             }
         } else return;
 
@@ -1,21 +1,298 @@
+import java.util.*;
+
 /**
  * 网络类
+ * <p>
+ * 每个网络有一个 IPv4 前缀（用于按目的地址转发，见 {@link ForwardingTable}），未指定时按网络编号分配默认前缀：
+ * 前 65536 个网络依次为 10.0.0.0/8 中的 /24，其后 262144 个网络依次为 100.64.0.0/10 中的 /28，再往后的网络没有前缀。
+ * 前缀属于网络编号（同名网络共用），可以重叠（如汇总前缀与其中的子网），转发时按最长前缀匹配。
+ * <p>
+ * 网络编号由引用它的网络拓扑持有（{@link #retainNetworkId()}），所有网络拓扑都释放（{@link #releaseNetworkId()}，
+ * 见 {@link NetworkTopology#reset()}、{@link NetworkTopology#shutdown()}）后回收，之后分配给新的网络名称，前缀恢复为默认前缀。
+ * 编号回收后不能再使用原来的网络对象；只被从未加入网络拓扑的网络使用的编号不回收。
  *
  * @author wzy
  * @date 2024-03-03 15:02:36
  */
 public class Network {
-    private String networkName; // 网络名称
+    private static final Map<String, Integer> NETWORK_IDS = new HashMap<>(); // 网络名称 -> 网络编号（只含未回收的编号）
+    private static volatile Network[] networksById = new Network[64]; // 网络编号 -> 网络（已回收的编号为 null）
+    private static int[] referenceCounts = new int[64]; // 网络编号 -> 持有该编号的网络拓扑数
+    private static int[] freeNetworkIds = new int[16]; // 已回收、可重新分配的网络编号
+    private static int freeNetworkIdCount; // 已回收的网络编号数
+    private static int networkIdCount; // 已分配过的网络编号数
+    private static final int DEFAULT_PREFIX_24_COUNT = 1 << 16; // 10.0.0.0/8 中的默认 /24 前缀数
+    private static final int DEFAULT_PREFIX_28_COUNT = 1 << 18; // 100.64.0.0/10 中的默认 /28 前缀数
+    private static final long NO_PREFIX = -1; // 没有前缀
+
+    private final int networkId; // 网络编号（按名称分配的稠密编号，同名网络编号相同）
+    private final String networkName; // 网络名称（网络编号按名称分配，创建后不能修改）
+    private volatile long prefix; // IPv4 前缀（高 32 位为前缀地址，低 8 位为前缀长度，NO_PREFIX 表示没有；只在编号对应的网络上有效）
 
     public Network(String networkName) {
         this.networkName = networkName;
+        this.networkId = intern(this);
+    } // end Network()
+
+    /**
+     * @param networkName 网络名称
+     * @param prefix      IPv4 前缀（如 "192.168.1.0/24"，同名网络共用，覆盖原有的前缀）
+     */
+    public Network(String networkName, String prefix) {
+        this(networkName);
+        setPrefix(prefix);
     } // end Network()
 
+    /**
+     * 为网络分配编号（同名网络共用一个编号，新名称优先复用已回收的编号）
+     *
+     * @param network 网络
+     * @return 网络编号
+     */
+    private static synchronized int intern(Network network) {
+        Integer networkId = NETWORK_IDS.get(network.networkName);
+        if (networkId != null) {
+            return networkId;
+        }
+
+        networkId = freeNetworkIdCount > 0 ? freeNetworkIds[--freeNetworkIdCount] : networkIdCount++;
+        NETWORK_IDS.put(network.networkName, networkId);
+        Network[] networks = networksById;
+        if (networkId >= networks.length) {
+            networks = Arrays.copyOf(networks, networks.length * 2);
+            referenceCounts = Arrays.copyOf(referenceCounts, networks.length);
+        }
+        network.prefix = defaultPrefix(networkId);
+        networks[networkId] = network;
+        networksById = networks; // volatile 写，发布新网络
+        return networkId;
+    } // end intern()
+
+    /**
+     * 持有网络编号（网络拓扑第一次引用该网络时调用，与 {@link #releaseNetworkId()} 成对）
+     */
+    public void retainNetworkId() {
+        synchronized (Network.class) {
+            if (!isRegistered()) {
+                throw new IllegalStateException("网络编号已回收：" + networkName);
+            }
+            referenceCounts[networkId]++;
+        }
+    } // end retainNetworkId()
+
+    /**
+     * 释放网络编号（网络拓扑不再引用该网络、其路由器的路由表中也不再有该网络之后调用），所有持有方都释放后回收
+     */
+    public void releaseNetworkId() {
+        synchronized (Network.class) {
+            if (!isRegistered() || referenceCounts[networkId] == 0 || --referenceCounts[networkId] > 0) {
+                return;
+            }
+            NETWORK_IDS.remove(networkName);
+            Network[] networks = networksById;
+            networks[networkId] = null;
+            networksById = networks;
+            if (freeNetworkIdCount == freeNetworkIds.length) {
+                freeNetworkIds = Arrays.copyOf(freeNetworkIds, freeNetworkIds.length * 2);
+            }
+            freeNetworkIds[freeNetworkIdCount++] = networkId;
+        }
+    } // end releaseNetworkId()
+
+    /**
+     * 判断网络编号是否仍属于该网络名称（未被回收）
+     */
+    private boolean isRegistered() {
+        Network network = networksById[networkId];
+        return network != null && network.networkName.equals(networkName);
+    } // end isRegistered()
+
+    /**
+     * 按编号查找网络
+     *
+     * @param networkId 网络编号
+     * @return 网络
+     */
+    public static Network byId(int networkId) {
+        Network[] networks = networksById;
+        return networkId >= 0 && networkId < networks.length ? networks[networkId] : null;
+    } // end byId()
+
+    /**
+     * 按网络编号分配的默认前缀
+     *
+     * @param networkId 网络编号
+     * @return 前缀（NO_PREFIX 表示没有）
+     */
+    private static long defaultPrefix(int networkId) {
+        if (networkId < DEFAULT_PREFIX_24_COUNT) {
+            return encodePrefix(0x0A000000 | networkId << 8, 24);
+        }
+        if (networkId - DEFAULT_PREFIX_24_COUNT < DEFAULT_PREFIX_28_COUNT) {
+            return encodePrefix(0x64400000 | (networkId - DEFAULT_PREFIX_24_COUNT) << 4, 28);
+        }
+        return NO_PREFIX;
+    } // end defaultPrefix()
+
+    private static long encodePrefix(int address, int length) {
+        return (long) address << 32 | length;
+    } // end encodePrefix()
+
+    /**
+     * 解析点分十进制的 IPv4 地址
+     *
+     * @param address 地址（如 "10.0.1.2"）
+     * @return 地址
+     */
+    public static int parseAddress(String address) {
+        String[] octets = address.trim().split("\\.", -1);
+        if (octets.length != 4) {
+            throw new IllegalArgumentException("无效的 IPv4 地址：" + address);
+        }
+        int value = 0;
+        for (String octet : octets) {
+            int part;
+            try {
+                part = Integer.parseInt(octet);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的 IPv4 地址：" + address);
+            }
+            if (part < 0 || part > 255) {
+                throw new IllegalArgumentException("无效的 IPv4 地址：" + address);
+            }
+            value = value << 8 | part;
+        }
+        return value;
+    } // end parseAddress()
+
+    /**
+     * 格式化为点分十进制的 IPv4 地址
+     *
+     * @param address 地址
+     * @return 点分十进制字符串
+     */
+    public static String formatAddress(int address) {
+        return (address >>> 24) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+    } // end formatAddress()
+
+    /**
+     * 前缀长度对应的子网掩码
+     *
+     * @param length 前缀长度（0～32）
+     * @return 子网掩码
+     */
+    public static int mask(int length) {
+        return length == 0 ? 0 : -1 << (32 - length);
+    } // end mask()
+
+    /**
+     * 获取已分配过的网络编号数（网络编号的上界，包括已回收的编号）
+     *
+     * @return 网络编号数
+     */
+    public static synchronized int networkIdCount() {
+        return networkIdCount;
+    } // end networkIdCount()
+
+    /**
+     * 同名网络是同一个网络（网络编号按名称分配）
+     *
+     * @param o 比较对象
+     * @return 比较结果
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Network network && networkId == network.networkId);
+    } // end equals()
+
+    @Override
+    public int hashCode() {
+        return networkId;
+    } // end hashCode()
+
+    @Override
+    public String toString() {
+        return networkName;
+    } // end toString()
+
+    /**
+     * 判断地址是否属于网络的前缀
+     *
+     * @param address IPv4 地址
+     * @return 判断结果（没有前缀时为 false）
+     */
+    public boolean contains(int address) {
+        long prefix = byId(networkId).prefix;
+        return prefix != NO_PREFIX && ((address ^ (int) (prefix >>> 32)) & mask((int) prefix)) == 0;
+    } // end contains()
+
+    public int getNetworkId() {
+        return networkId;
+    }
+
     public String getNetworkName() {
         return networkName;
     } // end getNetworkName()
 
-    public void setNetworkName(String networkName) {
-        this.networkName = networkName;
-    } // end setNetworkName()
+    public boolean hasPrefix() {
+        return byId(networkId).prefix != NO_PREFIX;
+    }
+
+    /**
+     * 获取前缀地址（主机位为 0）
+     *
+     * @return 前缀地址（没有前缀时为 0）
+     */
+    public int getPrefixAddress() {
+        long prefix = byId(networkId).prefix;
+        return prefix == NO_PREFIX ? 0 : (int) (prefix >>> 32);
+    } // end getPrefixAddress()
+
+    /**
+     * 获取前缀长度
+     *
+     * @return 前缀长度（没有前缀时为 -1）
+     */
+    public int getPrefixLength() {
+        long prefix = byId(networkId).prefix;
+        return prefix == NO_PREFIX ? -1 : (int) prefix;
+    } // end getPrefixLength()
+
+    /**
+     * 获取前缀
+     *
+     * @return 前缀（如 "10.0.1.0/24"，没有前缀时为空字符串）
+     */
+    public String getPrefix() {
+        return hasPrefix() ? formatAddress(getPrefixAddress()) + "/" + getPrefixLength() : "";
+    } // end getPrefix()
+
+    /**
+     * 设置前缀（主机位清零；同名网络共用，已计算的转发表不受影响）
+     *
+     * @param address 前缀地址
+     * @param length  前缀长度（0～32）
+     */
+    public void setPrefix(int address, int length) {
+        if (length < 0 || length > 32) {
+            throw new IllegalArgumentException("无效的前缀长度：" + length);
+        }
+        byId(networkId).prefix = encodePrefix(address & mask(length), length);
+    } // end setPrefix()
+
+    /**
+     * 设置前缀
+     *
+     * @param prefix 前缀（如 "192.168.1.0/24"，省略长度时为 /32）
+     */
+    public void setPrefix(String prefix) {
+        int slash = prefix.indexOf('/');
+        int length;
+        try {
+            length = slash < 0 ? 32 : Integer.parseInt(prefix.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的前缀：" + prefix);
+        }
+        setPrefix(parseAddress(slash < 0 ? prefix : prefix.substring(0, slash)), length);
+    } // end setPrefix()
 } // end class Network
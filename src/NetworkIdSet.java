@@ -0,0 +1,78 @@
+import java.util.*;
+
+/**
+ * 网络编号集合（按块分配的稀疏位图）
+ * <p>
+ * 与 {@link BitSet} 不同，只为包含元素的块（每块 256 个网络编号）分配位图，
+ * 因此网络编号很大、元素很少时（如大规模拓扑中只有少数路由表项变化）占用的内存与元素所在的块数成正比。
+ * 非线程安全，由调用方同步。
+ */
+public class NetworkIdSet {
+    private static final int CHUNK_SHIFT = 8; // 每块 256 个网络编号
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_SHIFT) / Long.SIZE; // 每块的 long 数
+
+    private long[][] chunks = new long[0][]; // 位图（按块存储，null 表示整块为空）
+    private int size; // 元素数
+
+    /**
+     * 添加网络编号
+     *
+     * @param networkId 网络编号
+     */
+    public void add(int networkId) {
+        int chunk = networkId >>> CHUNK_SHIFT;
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunk + 1));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new long[WORDS_PER_CHUNK];
+        }
+        int word = (networkId >>> 6) & (WORDS_PER_CHUNK - 1);
+        long bit = 1L << networkId;
+        if ((chunks[chunk][word] & bit) == 0) {
+            chunks[chunk][word] |= bit;
+            size++;
+        }
+    } // end add()
+
+    /**
+     * 按升序取出所有网络编号并清空集合
+     *
+     * @return 网络编号
+     */
+    public int[] drain() {
+        int[] networkIds = new int[size];
+        int count = 0;
+        for (int chunk = 0; chunk < chunks.length && count < size; chunk++) {
+            long[] words = chunks[chunk];
+            if (words == null) {
+                continue;
+            }
+            for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+                for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                    networkIds[count++] = (chunk << CHUNK_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+        clear();
+        return networkIds;
+    } // end drain()
+
+    /**
+     * 清空集合（释放位图）
+     */
+    public void clear() {
+        if (chunks.length > 0) {
+            chunks = new long[0][];
+        }
+        size = 0;
+    } // end clear()
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+} // end class NetworkIdSet
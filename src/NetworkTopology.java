@@ -1,5 +1,7 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.*;
 
 /**
  * 网络拓扑类
@@ -13,25 +15,57 @@ public class NetworkTopology {
 
     private List<Router> routers; // 路由器列表
     private List<Network> networks; // 网络列表
-    private StringBuilder routingTablesInfo; // 所有路由表信息
+    private Map<String, Router> routersByName; // 路由器名称 -> 路由器（与路由器列表保持一致）
+    private Map<String, Network> networksByName; // 网络名称 -> 网络（与网络列表保持一致）
+    private Map<Network, Set<Router>> attachedRouters; // 网络 -> 直连该网络的路由器（路由器一侧见 Router.getDirectlyConnectedNetworks()）
+    private final Set<Network> retainedNetworks; // 持有网络编号的网络（退出的网络仍可能出现在路由表中，reset()、shutdown() 时才释放）
+    private UpdateScheduler updateScheduler; // 路由更新调度器（驱动所有路由器的定时路由更新）
+    private SplitHorizonMode splitHorizonMode; // 水平分割模式
+    private ConvergenceDetector convergenceDetector; // 收敛检测器
+    private volatile Router.RouteChangeListener routeChangeListener; // 路由表项变化监听器（可为 null）
+    private volatile TraceRecorder traceRecorder; // 事件记录器（只在开启记录时不为 null）
+    private UdpTransport udpTransport; // UDP 传输层（只在开启时不为 null）
+    private RouterActorSystem actorSystem; // actor 模式（只在开启时不为 null）
+    private RouteTimers routeTimers; // 路由表项定时器（只在开启时不为 null）
+    private ForwardingTableUpdater forwardingTableUpdater; // 转发表更新器（只在开启时不为 null）
 
     public NetworkTopology() {
+        this(new TimingWheelScheduler());
+    } // end NetworkTopology()
+
+    public NetworkTopology(UpdateScheduler updateScheduler) {
+        this(updateScheduler, true);
+    } // end NetworkTopology()
+
+    /**
+     * @param updateScheduler 路由更新调度器
+     * @param defaultTopology 是否初始化默认网络拓扑（false 表示空网络拓扑，由调用方自行构造）
+     */
+    public NetworkTopology(UpdateScheduler updateScheduler, boolean defaultTopology) {
         this.routers = new ArrayList<>();
         this.networks = new ArrayList<>();
-        this.routingTablesInfo = new StringBuilder();
-        initNetworkTopology();
+        this.routersByName = new HashMap<>();
+        this.networksByName = new HashMap<>();
+        this.attachedRouters = new HashMap<>();
+        this.retainedNetworks = new HashSet<>();
+        this.updateScheduler = updateScheduler;
+        this.splitHorizonMode = SplitHorizonMode.NONE;
+        this.convergenceDetector = new ConvergenceDetector(this);
+        if (defaultTopology) {
+            initNetworkTopology();
+        }
     } // end NetworkTopology()
 
     /**
      * 初始化网络拓扑
      */
     public void initNetworkTopology() {
-        Router routerA = new Router("A");
-        Router routerB = new Router("B");
-        Router routerC = new Router("C");
-        Router routerD = new Router("D");
-        Router routerE = new Router("E");
-        Router routerF = new Router("F");
+        Router routerA = Router.obtain("A");
+        Router routerB = Router.obtain("B");
+        Router routerC = Router.obtain("C");
+        Router routerD = Router.obtain("D");
+        Router routerE = Router.obtain("E");
+        Router routerF = Router.obtain("F");
 
         Network network1 = new Network("网1");
         Network network2 = new Network("网2");
@@ -103,6 +137,36 @@ public class NetworkTopology {
      */
     public void joinRouter(Router router) {
         routers.add(router);
+        routersByName.put(router.getRouterName(), router);
+        for (Network network : router.getDirectlyConnectedNetworks()) {
+            retainNetwork(network);
+            attachedRouters.computeIfAbsent(network, key -> new LinkedHashSet<>()).add(router);
+        }
+        router.setSplitHorizonMode(splitHorizonMode);
+        convergenceDetector.updateQuietRoundsRequired();
+        convergenceDetector.topologyChanged("路由器" + router.getRouterName() + "加入");
+        router.setConvergenceDetector(convergenceDetector);
+        router.setRouteChangeListener(routeChangeListener);
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            router.setTraceRecorder(recorder, TraceEvent.Type.ROUTER_JOIN);
+        }
+        if (udpTransport != null) {
+            try {
+                udpTransport.attach(router);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (actorSystem != null) {
+            actorSystem.start(router);
+        }
+        if (routeTimers != null) {
+            router.setRouteTimers(routeTimers);
+        }
+        router.setForwardingTableUpdater(forwardingTableUpdater);
+        router.startUpdates(updateScheduler);
+        notifyRoutersChanged();
     } // end joinRouter()
 
     /**
@@ -111,22 +175,63 @@ public class NetworkTopology {
      * @param router 路由器
      */
     public void exitRouter(Router router) {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordRouterExit(router.getRouterId());
+            router.setTraceRecorder(null, null);
+        }
         routers.remove(router);
+        routersByName.remove(router.getRouterName(), router);
+        for (Network network : router.getDirectlyConnectedNetworks()) {
+            Set<Router> attached = attachedRouters.get(network);
+            if (attached != null) {
+                attached.remove(router);
+            }
+        }
+        convergenceDetector.updateQuietRoundsRequired();
+        convergenceDetector.topologyChanged("路由器" + router.getRouterName() + "退出");
+        router.stopUpdates();
+        updateScheduler.awaitQuiescence(); // 与 reset() 相同：等待工作线程上已开始的路由更新结束，之后才移除路由表项、释放编号
+        router.setConvergenceDetector(null);
+        router.setRouteChangeListener(null);
+        router.setForwardingTableUpdater(null);
+        if (udpTransport != null) {
+            udpTransport.detach(router);
+        }
+        if (actorSystem != null) {
+            actorSystem.stop(router); // 等待正在处理的批次结束，之后才移除以该路由器为下一跳的路由表项
+        }
+        notifyRoutersChanged();
 
         for (Router router1 : routers) {
             router.removeNeighbor(router1);
             router1.removeNeighbor(router);
             router1.removeEntriesForRouter(router);
         }
+        router.releaseRouterId(); // 其它路由器的路由表中已不再引用该路由器
     } // end exitRouter()
 
+    private void notifyRoutersChanged() {
+        Router.RouteChangeListener listener = routeChangeListener;
+        if (listener != null) {
+            listener.onRoutersChanged();
+        }
+    } // end notifyRoutersChanged()
+
     /**
      * 网络加入
      *
      * @param network 网络
      */
     public void joinNetwork(Network network) {
+        retainNetwork(network);
         networks.add(network);
+        networksByName.put(network.getNetworkName(), network);
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordNetworkJoin(network.getNetworkId());
+        }
+        convergenceDetector.topologyChanged("网络" + network.getNetworkName() + "加入");
     } // end joinNetwork()
 
     /**
@@ -136,21 +241,327 @@ public class NetworkTopology {
      */
     public void exitNetwork(Network network) {
         networks.remove(network);
+        networksByName.remove(network.getNetworkName(), network);
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordNetworkExit(network.getNetworkId());
+        }
+        convergenceDetector.topologyChanged("网络" + network.getNetworkName() + "退出");
+        Set<Router> attached = attachedRouters.remove(network);
+        if (attached == null) {
+            attached = Collections.emptySet();
+        }
 
-        for (Router router : routers) {
-            /* 直连同一网路的路由器移除相邻关系 */
-            if (router.isDirectlyConnectedNetwork(network)) {
-                for (Router router1 : routers) {
-                    if (!router1.equals(router) && router1.isDirectlyConnectedNetwork(network)) {
-                        router.removeNeighbor(router1);
-                        router1.removeNeighbor(router);
-                    }
+        /* 只有直连该网络的路由器及其相邻路由器的路由表项可能以直连路由器为下一跳 */
+        Set<Router> affectedRouters = new HashSet<>(attached);
+        for (Router router : attached) {
+            affectedRouters.addAll(router.getNeighbors());
+        }
+
+        /* 直连同一网路的路由器移除相邻关系 */
+        for (Router router : attached) {
+            for (Router router1 : attached) {
+                if (!router1.equals(router)) {
+                    router.removeNeighbor(router1);
                 }
             }
-            router.removeEntriesForNetwork(network);
+        }
+
+        for (Router router : affectedRouters) {
+            router.removeEntriesForNetwork(network, attached);
+        }
+        for (Router router : routers) {
+            if (!affectedRouters.contains(router)) {
+                router.setNetworkUnreachable(network); // 其它路由器只需把到该网络的路由表项设置为不可达
+            }
         }
     } // end exitNetwork()
 
+    /**
+     * 路由器直连网络（同时维护网络与直连路由器的索引）
+     *
+     * @param router  路由器
+     * @param network 网络
+     */
+    public void attachNetwork(Router router, Network network) {
+        convergenceDetector.topologyChanged("路由器" + router.getRouterName() + "直连网络" + network.getNetworkName());
+        router.addDirectlyConnectedNetwork(network);
+        if (router.equals(routersByName.get(router.getRouterName()))) { // 尚未加入网络拓扑的路由器在 joinRouter() 时加入索引
+            retainNetwork(network);
+            attachedRouters.computeIfAbsent(network, key -> new LinkedHashSet<>()).add(router);
+        }
+    } // end attachNetwork()
+
+    /**
+     * 持有网络的编号（同一网络只持有一次）：加入、直连或出现在恢复的路由表中的网络，编号在 reset()、shutdown() 之前不会被回收
+     *
+     * @param network 网络
+     */
+    public void retainNetwork(Network network) {
+        if (!retainedNetworks.contains(network)) {
+            network.retainNetworkId(); // 编号已回收时抛出异常，不加入集合
+            retainedNetworks.add(network);
+        }
+    } // end retainNetwork()
+
+    /**
+     * 释放持有的所有网络编号（路由器的路由表已清空或不再使用之后调用）
+     */
+    private void releaseNetworks() {
+        for (Network network : retainedNetworks) {
+            network.releaseNetworkId();
+        }
+        retainedNetworks.clear();
+    } // end releaseNetworks()
+
+    /**
+     * 获取直连网络的路由器
+     *
+     * @param network 网络
+     * @return 直连该网络的路由器
+     */
+    public Set<Router> getAttachedRouters(Network network) {
+        return Collections.unmodifiableSet(attachedRouters.getOrDefault(network, Collections.emptySet()));
+    } // end getAttachedRouters()
+
+    /**
+     * 在进程内重置网络拓扑（不重启 JVM，已编译的代码和调度器的线程继续使用）
+     * <p>
+     * 先停止所有路由器的定时路由更新，并等待已开始的路由更新执行完毕，再把路由器回收到对象池
+     * （之后 initNetworkTopology()、{@link Router#obtain(String)} 重新取用），最后清空路由器、网络及索引，并释放网络编号
+     * （没有其它网络拓扑持有的编号被回收，重置后同名网络重新分配编号和默认前缀）。
+     * 路由更新调度器、水平分割模式、收敛检测器的监听器和路由表项变化监听器保留。
+     */
+    public void reset() {
+        for (Router router : routers) {
+            router.stopUpdates();
+        }
+        updateScheduler.awaitQuiescence();
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordReset();
+        }
+
+        List<Router> oldRouters = routers;
+        routers = new ArrayList<>(); // 列表可能由 setRouters()、setNetworks() 传入，不直接清空
+        networks = new ArrayList<>();
+        routersByName.clear();
+        networksByName.clear();
+        attachedRouters.clear();
+        for (Router router : oldRouters) {
+            if (udpTransport != null) {
+                udpTransport.detach(router);
+            }
+            if (actorSystem != null) {
+                actorSystem.stop(router);
+            }
+            router.recycle();
+        }
+        releaseNetworks(); // 路由器已回收，路由表中不再引用这些网络
+        convergenceDetector.updateQuietRoundsRequired();
+        convergenceDetector.reset();
+        notifyRoutersChanged();
+    } // end reset()
+
+    /**
+     * 开始记录路由事件（已在记录时先停止原来的记录）
+     * <p>
+     * 先记录已在网络拓扑中的网络、路由器及其当前的所有路由表项作为重放的起点，之后的事件见 {@link TraceRecorder}。
+     *
+     * @param file 日志文件
+     * @return 事件记录器
+     * @throws IOException 创建日志文件失败
+     */
+    public TraceRecorder startTrace(Path file) throws IOException {
+        stopTrace();
+        TraceRecorder recorder = new TraceRecorder(file, updateScheduler);
+        traceRecorder = recorder;
+        for (Network network : networks) {
+            recorder.recordNetworkJoin(network.getNetworkId());
+        }
+        for (Router router : routers) {
+            router.setTraceRecorder(recorder, TraceEvent.Type.ROUTER_NAME);
+        }
+        return recorder;
+    } // end startTrace()
+
+    /**
+     * 停止记录路由事件，等待已记录的事件写入日志文件
+     *
+     * @return 已停止的事件记录器（未在记录时为 null）
+     * @throws IOException 写入失败
+     */
+    public TraceRecorder stopTrace() throws IOException {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder == null) {
+            return null;
+        }
+        traceRecorder = null;
+        for (Router router : routers) {
+            router.setTraceRecorder(null, null);
+        }
+        recorder.close();
+        return recorder;
+    } // end stopTrace()
+
+    /**
+     * 开启 UDP 传输：所有路由器（包括之后加入的路由器）经回环 UDP 交换 RIPv2 报文（已开启时先关闭原来的传输层）
+     *
+     * @param receiverThreads     接收线程数
+     * @param synchronousDelivery 是否同步投递（在调用方线程上推进的调度器应为 true，见 {@link UdpTransport}）
+     * @return 传输层
+     * @throws IOException 打开通道失败
+     */
+    public UdpTransport startUdpTransport(int receiverThreads, boolean synchronousDelivery) throws IOException {
+        stopUdpTransport();
+        UdpTransport transport = new UdpTransport(receiverThreads, synchronousDelivery);
+        udpTransport = transport;
+        try {
+            for (Router router : routers) {
+                transport.attach(router);
+            }
+        } catch (IOException e) {
+            stopUdpTransport();
+            throw e;
+        }
+        return transport;
+    } // end startUdpTransport()
+
+    /**
+     * 关闭 UDP 传输，路由器之间恢复直接调用
+     *
+     * @return 已关闭的传输层（未开启时为 null）
+     */
+    public UdpTransport stopUdpTransport() {
+        UdpTransport transport = udpTransport;
+        if (transport == null) {
+            return null;
+        }
+        udpTransport = null;
+        transport.close(); // 断开所有路由器
+        return transport;
+    } // end stopUdpTransport()
+
+    /**
+     * 开启 actor 模式：每个路由器（包括之后加入的路由器）在自己的虚拟线程上处理邮箱中的路由通告（已开启时先关闭原来的 actor）
+     *
+     * @param mailboxCapacity     邮箱容量
+     * @param synchronousDelivery 是否同步投递（在调用方线程上推进的调度器应为 true，见 {@link RouterActorSystem}）
+     * @return actor 系统
+     */
+    public RouterActorSystem startActors(int mailboxCapacity, boolean synchronousDelivery) {
+        stopActors();
+        RouterActorSystem system = new RouterActorSystem(mailboxCapacity, synchronousDelivery);
+        actorSystem = system;
+        for (Router router : routers) {
+            system.start(router);
+        }
+        return system;
+    } // end startActors()
+
+    /**
+     * 关闭 actor 模式，路由器之间恢复直接调用（邮箱中未处理的通告被丢弃，由之后的定时路由更新弥补）
+     *
+     * @return 已关闭的 actor 系统（未开启时为 null）
+     */
+    public RouterActorSystem stopActors() {
+        RouterActorSystem system = actorSystem;
+        if (system == null) {
+            return null;
+        }
+        actorSystem = null;
+        system.close();
+        return system;
+    } // end stopActors()
+
+    /**
+     * 开启路由表项的超时与垃圾回收定时器：所有路由器（包括之后加入的路由器）的路由表项从当前时刻开始计时，
+     * 见 {@link RouteTimers}（已开启时先关闭原来的定时器）
+     *
+     * @param timeoutMillis           超时时间（毫秒）
+     * @param garbageCollectionMillis 垃圾回收时间（毫秒）
+     * @return 路由表项定时器
+     */
+    public RouteTimers startRouteTimers(long timeoutMillis, long garbageCollectionMillis) {
+        stopRouteTimers();
+        RouteTimers timers = new RouteTimers(updateScheduler, timeoutMillis, garbageCollectionMillis);
+        routeTimers = timers;
+        for (Router router : routers) {
+            router.setRouteTimers(timers);
+        }
+        return timers;
+    } // end startRouteTimers()
+
+    /**
+     * 关闭路由表项定时器（路由表项不再过期，已设置为不可达的路由表项保留）
+     *
+     * @return 已关闭的路由表项定时器（未开启时为 null）
+     */
+    public RouteTimers stopRouteTimers() {
+        RouteTimers timers = routeTimers;
+        if (timers == null) {
+            return null;
+        }
+        routeTimers = null;
+        for (Router router : routers) {
+            router.setRouteTimers(null);
+        }
+        return timers;
+    } // end stopRouteTimers()
+
+    /**
+     * 开启转发表的后台重建：路由表项变化影响转发时，所有路由器（包括之后加入的路由器）的转发表由后台线程合并重建并发布，
+     * 见 {@link ForwardingTableUpdater}（已开启时先关闭原来的更新器）。未开启时转发表只标记过期，
+     * 由 {@link Router#awaitForwardingTable()} 按需重建
+     *
+     * @param coalesceMillis 合并窗口（毫秒）
+     * @return 转发表更新器
+     */
+    public ForwardingTableUpdater startForwardingTables(long coalesceMillis) {
+        stopForwardingTables();
+        ForwardingTableUpdater updater = new ForwardingTableUpdater(coalesceMillis);
+        forwardingTableUpdater = updater;
+        for (Router router : routers) {
+            router.setForwardingTableUpdater(updater); // 已过期的转发表立即请求重建
+        }
+        return updater;
+    } // end startForwardingTables()
+
+    /**
+     * 关闭转发表的后台重建（已发布的转发表保留）
+     *
+     * @return 已关闭的转发表更新器（未开启时为 null）
+     */
+    public ForwardingTableUpdater stopForwardingTables() {
+        ForwardingTableUpdater updater = forwardingTableUpdater;
+        if (updater == null) {
+            return null;
+        }
+        forwardingTableUpdater = null;
+        for (Router router : routers) {
+            router.setForwardingTableUpdater(null);
+        }
+        updater.shutdown();
+        return updater;
+    } // end stopForwardingTables()
+
+    /**
+     * 停止所有路由器的定时路由更新，关闭路由更新调度器、UDP 传输层、actor、转发表更新器，并释放路由器编号和网络编号
+     */
+    public void shutdown() {
+        for (Router router : routers) {
+            router.stopUpdates();
+        }
+        updateScheduler.shutdown();
+        stopUdpTransport();
+        stopActors();
+        stopForwardingTables();
+        for (Router router : routers) {
+            router.releaseRouterId();
+        }
+        releaseNetworks();
+    } // end shutdown()
+
     /**
      * 查找路由器
      *
@@ -158,10 +569,7 @@ public class NetworkTopology {
      * @return 查找结果
      */
     public Router findRouter(String routerName) {
-        return routers.stream()
-                .filter(router -> routerName.equals(router.getRouterName()))
-                .findFirst()
-                .orElse(null);
+        return routersByName.get(routerName);
     } // end findRouter()
 
     /**
@@ -171,32 +579,42 @@ public class NetworkTopology {
      * @return 查找结果
      */
     public Network findNetwork(String networkName) {
-        return networks.stream()
-                .filter(network -> networkName.equals(network.getNetworkName()))
-                .findFirst()
-                .orElse(null);
+        return networksByName.get(networkName);
     } // end findNetwork()
 
     /**
      * 获取最新的路由表信息
      */
     public String getRoutingTablesInfo() {
+        StringBuilder routingTablesInfo = new StringBuilder(); // 局部变量，多个线程可同时获取
+        try {
+            printRoutingTables(routingTablesInfo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder 不会抛出
+        }
+        return routingTablesInfo.toString();
+    } // end getRoutingTablesInfo()
+
+    /**
+     * 把所有路由器的路由表信息依次写入调用方提供的输出（格式与 getRoutingTablesInfo() 相同，不拼接整个字符串）
+     *
+     * @param out 输出（如 BufferedWriter、PrintStream）
+     * @throws IOException 写入失败
+     */
+    public void printRoutingTables(Appendable out) throws IOException {
         int index = 0;
         int size = routers.size();
-        routingTablesInfo = new StringBuilder();
 
-        routingTablesInfo.append(SEPARATOR1);
+        out.append(SEPARATOR1);
 
         for (Router router : routers) {
-            routingTablesInfo.append(router.printRoutingTable());
+            router.printRoutingTable(out);
             if (index != size - 1) {
-                routingTablesInfo.append(SEPARATOR2);
+                out.append(SEPARATOR2);
             }
             index++;
         }
-
-        return routingTablesInfo.toString();
-    } // end getRoutingTablesInfo()
+    } // end printRoutingTables()
 
     public List<Router> getRouters() {
         return routers;
@@ -204,6 +622,20 @@ public class NetworkTopology {
 
     public void setRouters(List<Router> routers) {
         this.routers = routers;
+        this.routersByName = new HashMap<>();
+        this.attachedRouters = new HashMap<>();
+        for (Router router : routers) {
+            routersByName.put(router.getRouterName(), router);
+            router.setConvergenceDetector(convergenceDetector);
+            router.setRouteChangeListener(routeChangeListener);
+            router.setForwardingTableUpdater(forwardingTableUpdater);
+            for (Network network : router.getDirectlyConnectedNetworks()) {
+                retainNetwork(network);
+                attachedRouters.computeIfAbsent(network, key -> new LinkedHashSet<>()).add(router);
+            }
+        }
+        convergenceDetector.updateQuietRoundsRequired();
+        notifyRoutersChanged();
     }
 
     public List<Network> getNetworks() {
@@ -212,5 +644,66 @@ public class NetworkTopology {
 
     public void setNetworks(List<Network> networks) {
         this.networks = networks;
+        this.networksByName = new HashMap<>();
+        for (Network network : networks) {
+            retainNetwork(network);
+            networksByName.put(network.getNetworkName(), network);
+        }
+    }
+
+    public ConvergenceDetector getConvergenceDetector() {
+        return convergenceDetector;
+    }
+
+    public Router.RouteChangeListener getRouteChangeListener() {
+        return routeChangeListener;
+    }
+
+    /**
+     * 设置路由表项变化监听器（同时设置给已加入的路由器，之后加入的路由器在 joinRouter() 时设置）
+     *
+     * @param routeChangeListener 监听器（null 表示移除）
+     */
+    public void setRouteChangeListener(Router.RouteChangeListener routeChangeListener) {
+        this.routeChangeListener = routeChangeListener;
+        for (Router router : routers) {
+            router.setRouteChangeListener(routeChangeListener);
+        }
+        notifyRoutersChanged();
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    public UdpTransport getUdpTransport() {
+        return udpTransport;
+    }
+
+    public RouterActorSystem getActorSystem() {
+        return actorSystem;
+    }
+
+    public RouteTimers getRouteTimers() {
+        return routeTimers;
+    }
+
+    public ForwardingTableUpdater getForwardingTableUpdater() {
+        return forwardingTableUpdater;
+    }
+
+    public UpdateScheduler getUpdateScheduler() {
+        return updateScheduler;
+    }
+
+    public SplitHorizonMode getSplitHorizonMode() {
+        return splitHorizonMode;
+    }
+
+    public void setSplitHorizonMode(SplitHorizonMode splitHorizonMode) {
+        this.splitHorizonMode = splitHorizonMode;
+        for (Router router : routers) {
+            router.setSplitHorizonMode(splitHorizonMode);
+        }
     }
 } // end class NetworkTopology
@@ -1,10 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.concurrent.*;
+import java.util.*;
 
 /**
  * RIP 主界面
@@ -13,7 +10,8 @@ import java.util.concurrent.*;
  * @date 2024-03-04 18:47:42
  */
 public class RIPGUI extends JFrame {
-    private static final String ROUTING_TABLE_INFO = "【路由表信息】\n";
+    private static final String TITLE = "内部网关协议 RIP 模拟程序"; // 窗口标题
+    private static final String ROUTING_TABLE_INFO = "【路由表信息】";
 
     private JPanel mainPanel, leftPanel, rightPanel; // 主面板、右部面板
     private JButton initNetworkTopologyBtn, resetNetworkTopologyBtn; // 网络拓扑功能按钮
@@ -24,18 +22,18 @@ public class RIPGUI extends JFrame {
     private JoinNetworkDialog joinNetworkDialog; // "网络加入”对话框
     private ExitNetworkDialog exitNetworkDialog; // “网络退出”对话框
     private FailureRouterDialog failureRouterDialog; // “路由器故障”对话框
-    private JTextArea routingTablesInfoTextArea; // 路由表信息文本框
+    private JTable routingTablesInfoTable; // 路由表信息表格（只渲染可见行）
+    private JTextField routerFilterTextField; // 路由器筛选输入框
+    private RoutingTableModel routingTableModel; // 路由表的表格模型
     private NetworkTopology networkTopology; // 网络拓扑
-    private ScheduledExecutorService scheduler; // 定时器
 
     public RIPGUI() {
-        super("内部网关协议 RIP 模拟程序");
+        super(TITLE);
         this.setExtendedState(this.getExtendedState() | JFrame.MAXIMIZED_BOTH); // 窗口全屏显示
         setLocationRelativeTo(null); // 窗口居中显示
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // 设置"关闭"按钮操作
 
         mainPanel = new JPanel(new GridLayout(1, 2));
-        scheduler = Executors.newScheduledThreadPool(1);
         initLeftComponents();
         initRightComponents();
         add(mainPanel, BorderLayout.CENTER);
@@ -75,12 +73,7 @@ public class RIPGUI extends JFrame {
         failureRouterBtn.addActionListener(e -> failureRouter());
 
         /* 在网络拓扑还未初始化时，禁止面板除初始化以外的所有操作 */
-        resetNetworkTopologyBtn.setEnabled(false);
-        joinNetworkBtn.setEnabled(false);
-        exitNetworkBtn.setEnabled(false);
-        joinRouterBtn.setEnabled(false);
-        exitRouterBtn.setEnabled(false);
-        failureRouterBtn.setEnabled(false);
+        setTopologyButtonsEnabled(false);
 
         /* 设置按钮水平垂直居中 */
         GridBagConstraints gbc = new GridBagConstraints();
@@ -105,63 +98,97 @@ public class RIPGUI extends JFrame {
      */
     private void initRightComponents() {
         rightPanel = new JPanel(new BorderLayout());
-        routingTablesInfoTextArea = new JTextArea();
-        JScrollPane scrollPane = new JScrollPane(routingTablesInfoTextArea);
+        routingTablesInfoTable = new JTable();
+        JScrollPane scrollPane = new JScrollPane(routingTablesInfoTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(ROUTING_TABLE_INFO));
 
-        routingTablesInfoTextArea.setEditable(false);
-        routingTablesInfoTextArea.setFont(new Font("Serif", Font.PLAIN, 15));
-        routingTablesInfoTextArea.append(ROUTING_TABLE_INFO);
+        routingTablesInfoTable.setFont(new Font("Serif", Font.PLAIN, 15));
+        routingTablesInfoTable.setRowHeight(22);
+        routingTablesInfoTable.setDefaultEditor(Object.class, null); // 只读
 
-        rightPanel.add(scrollPane);
+        /* 按路由器筛选（多个路由器以逗号分隔，留空显示所有路由器） */
+        JPanel filterPanel = new JPanel(new BorderLayout());
+        routerFilterTextField = new JTextField();
+        routerFilterTextField.addActionListener(e -> filterRouters());
+        filterPanel.add(new JLabel("路由器筛选（以逗号分隔，回车确认）："), BorderLayout.WEST);
+        filterPanel.add(routerFilterTextField, BorderLayout.CENTER);
+
+        rightPanel.add(filterPanel, BorderLayout.NORTH);
+        rightPanel.add(scrollPane, BorderLayout.CENTER);
 
         mainPanel.add(rightPanel);
     } // end initRightComponents()
 
     /**
-     * 初始化网络拓扑
+     * 初始化网络拓扑（重置后再次初始化时复用同一个网络拓扑、调度器和表格模型，路由器从对象池取用）
      */
     private void initNetworkTopology() {
-        networkTopology = new NetworkTopology();
+        if (networkTopology == null) {
+            networkTopology = new NetworkTopology();
+
+            /* 路由表项变化时由路由器通知表格模型，合并后在 EDT 上只重绘变化的行 */
+            routingTableModel = new RoutingTableModel(networkTopology);
+            routingTablesInfoTable.setModel(routingTableModel);
+            filterRouters();
+
+            /* 在标题栏显示收敛状态 */
+            networkTopology.getConvergenceDetector().addListener(new ConvergenceDetector.Listener() {
+                @Override
+                public void onConverged(ConvergenceMetrics metrics) {
+                    SwingUtilities.invokeLater(() -> setTitle(TITLE + " —— 已收敛（" + metrics + "）"));
+                } // end onConverged()
+
+                @Override
+                public void onConvergenceBroken(String cause) {
+                    SwingUtilities.invokeLater(() -> setTitle(TITLE + " —— 收敛中（" + cause + "）"));
+                } // end onConvergenceBroken()
+            });
+        } else {
+            networkTopology.initNetworkTopology();
+        }
 
         /* 在网络拓扑初始化后，恢复面板的除初始化的其它操作 */
-        initNetworkTopologyBtn.setEnabled(false);
-        resetNetworkTopologyBtn.setEnabled(true);
-        joinNetworkBtn.setEnabled(true);
-        exitNetworkBtn.setEnabled(true);
-        joinRouterBtn.setEnabled(true);
-        exitRouterBtn.setEnabled(true);
-        failureRouterBtn.setEnabled(true);
-
-        Runnable printTask = () -> {
-            routingTablesInfoTextArea.setText(ROUTING_TABLE_INFO);
-            routingTablesInfoTextArea.append(networkTopology.getRoutingTablesInfo());
-        };
-
-        scheduler.scheduleAtFixedRate(printTask, 0, 2, TimeUnit.SECONDS);
+        setTopologyButtonsEnabled(true);
     } // end initNetworkTopology()
 
     /**
-     * 重置网络拓扑
+     * 设置网络拓扑功能按钮的可用状态（初始化按钮与其它按钮相反）
+     *
+     * @param initialized 网络拓扑是否已初始化
      */
-    private void resetNetworkTopology() {
-        try {
-            /* 获取当前 Java 应用的启动命令 */
-            String java = System.getProperty("java.home") + "/bin/java";
-            String classpath = System.getProperty("java.class.path");
-            String mainClass = "RIPGUI"; // 这里需要替换为你的主类名
+    private void setTopologyButtonsEnabled(boolean initialized) {
+        initNetworkTopologyBtn.setEnabled(!initialized);
+        resetNetworkTopologyBtn.setEnabled(initialized);
+        joinNetworkBtn.setEnabled(initialized);
+        exitNetworkBtn.setEnabled(initialized);
+        joinRouterBtn.setEnabled(initialized);
+        exitRouterBtn.setEnabled(initialized);
+        failureRouterBtn.setEnabled(initialized);
+    } // end setTopologyButtonsEnabled()
 
-            /* 构建命令和参数 */
-            List<String> command = new ArrayList<>();
-            command.add(java);
-            command.addAll(Arrays.asList("-cp", classpath, mainClass));
-
-            new ProcessBuilder(command).start(); // 启动一个新的进程来运行命令
-
-            dispose();
-            System.exit(0); // 停止当前应用
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * 按输入的路由器名称筛选路由表信息
+     */
+    private void filterRouters() {
+        if (routingTableModel == null) {
+            return;
+        }
+        Set<String> routerNames = new HashSet<>();
+        for (String routerName : routerFilterTextField.getText().split(",")) { // 使用逗号分割路由器名称
+            if (!routerName.isBlank()) {
+                routerNames.add(routerName.trim());
+            }
         }
+        routingTableModel.setRouterFilter(routerNames);
+    } // end filterRouters()
+
+    /**
+     * 重置网络拓扑（在进程内停止所有路由更新并清空网络拓扑，回到初始化之前的状态，不重启 JVM）
+     */
+    private void resetNetworkTopology() {
+        networkTopology.reset();
+        setTitle(TITLE);
+        setTopologyButtonsEnabled(false);
     } // end resetNetworkTopology()
 
     /**
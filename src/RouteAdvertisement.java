@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * 路由通告类（发送给相邻路由器的路由更新）
+ * <p>
+ * 直接引用发送方的不可变路由表快照，不复制路由表项：完整通告遍历整个快照，触发更新只遍历变化的网络编号。
+ * 水平分割由接收方按发送方的模式处理，因此同一个通告对象可以发给所有相邻路由器。
+ */
+public class RouteAdvertisement {
+    private final RoutingTable.Snapshot routes; // 发送方的路由表快照
+    private final int[] networkIds; // 通告的网络编号（null 表示通告整个快照）
+    private final SplitHorizonMode splitHorizonMode; // 发送方的水平分割模式
+
+    private RouteAdvertisement(RoutingTable.Snapshot routes, int[] networkIds, SplitHorizonMode splitHorizonMode) {
+        this.routes = routes;
+        this.networkIds = networkIds;
+        this.splitHorizonMode = splitHorizonMode;
+    } // end RouteAdvertisement()
+
+    /**
+     * 创建完整路由表通告
+     *
+     * @param routes           发送方的路由表快照
+     * @param splitHorizonMode 发送方的水平分割模式
+     * @return 路由通告
+     */
+    public static RouteAdvertisement full(RoutingTable.Snapshot routes, SplitHorizonMode splitHorizonMode) {
+        return new RouteAdvertisement(routes, null, splitHorizonMode);
+    } // end full()
+
+    /**
+     * 创建只包含指定网络的路由通告（触发更新）
+     *
+     * @param routes           发送方的路由表快照
+     * @param networkIds       网络编号（升序）
+     * @param splitHorizonMode 发送方的水平分割模式
+     * @return 路由通告
+     */
+    public static RouteAdvertisement partial(RoutingTable.Snapshot routes, int[] networkIds,
+                                             SplitHorizonMode splitHorizonMode) {
+        return new RouteAdvertisement(routes, networkIds, splitHorizonMode);
+    } // end partial()
+
+    /**
+     * 按水平分割模式遍历发给指定接收方的路由表项
+     *
+     * @param receiverId 接收方路由器编号
+     * @param consumer   路由表项处理器
+     * @return 通告的路由表项数
+     */
+    public int forEachRoute(int receiverId, RouteConsumer consumer) {
+        int count = 0;
+        if (networkIds == null) {
+            for (int networkId = routes.nextNetworkId(0); networkId >= 0; networkId = routes.nextNetworkId(networkId + 1)) {
+                count += accept(networkId, receiverId, consumer);
+            }
+        } else {
+            for (int networkId : networkIds) {
+                count += accept(networkId, receiverId, consumer);
+            }
+        }
+        return count;
+    } // end forEachRoute()
+
+    /**
+     * 处理一个路由表项
+     *
+     * @param networkId  网络编号
+     * @param receiverId 接收方路由器编号
+     * @param consumer   路由表项处理器
+     * @return 是否通告（1 或 0）
+     */
+    private int accept(int networkId, int receiverId, RouteConsumer consumer) {
+        int hops = routes.hops(networkId);
+        if (hops == 0) { // 已被移除的路由表项无需通告
+            return 0;
+        }
+        if (splitHorizonMode != SplitHorizonMode.NONE && routes.nextHop(networkId) == receiverId) {
+            if (splitHorizonMode == SplitHorizonMode.SPLIT_HORIZON) {
+                return 0; // 水平分割：经由接收方学到的路由不通告回去
+            }
+            hops = RoutingTable.UNREACHABLE; // 毒性逆转：经由接收方学到的路由以16（不可达）通告回去
+        }
+        consumer.accept(networkId, hops);
+        return 1;
+    } // end accept()
+
+    /**
+     * 与同一发送方较早的通告合并（当前通告较新）：较新的快照覆盖较旧的快照，完整通告覆盖触发更新，触发更新的网络编号取并集
+     *
+     * @param older 较早的通告
+     * @return 合并后的通告
+     */
+    public RouteAdvertisement coalesce(RouteAdvertisement older) {
+        if (networkIds == null) {
+            return this;
+        }
+        if (older.networkIds == null) {
+            return full(routes, splitHorizonMode);
+        }
+        int[] merged = new int[networkIds.length + older.networkIds.length]; // 两者均为升序，归并去重
+        int i = 0, j = 0, k = 0;
+        while (i < networkIds.length || j < older.networkIds.length) {
+            int next;
+            if (j == older.networkIds.length || (i < networkIds.length && networkIds[i] <= older.networkIds[j])) {
+                next = networkIds[i++];
+            } else {
+                next = older.networkIds[j++];
+            }
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+        return partial(routes, Arrays.copyOf(merged, k), splitHorizonMode);
+    } // end coalesce()
+
+    /**
+     * 是否为完整路由表通告
+     */
+    public boolean isFull() {
+        return networkIds == null;
+    } // end isFull()
+
+    public RoutingTable.Snapshot getRoutes() {
+        return routes;
+    }
+
+    public SplitHorizonMode getSplitHorizonMode() {
+        return splitHorizonMode;
+    }
+
+    /**
+     * 路由表项处理器
+     */
+    @FunctionalInterface
+    public interface RouteConsumer {
+        void accept(int networkId, int hops);
+    } // end interface RouteConsumer
+} // end class RouteAdvertisement
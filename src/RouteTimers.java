@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由表项的超时定时器与垃圾回收定时器（RIP 的 timeout、garbage-collection 定时器，可选开启，
+ * 见 {@link NetworkTopology#startRouteTimers(long, long)}）
+ * <p>
+ * 从相邻路由器学到的路由表项每次被下一跳通告（跳数不变也算）时刷新超时定时器；超过超时时间（默认 180 秒）未刷新时
+ * 设置为不可达并开始垃圾回收，再经过垃圾回收时间（默认 120 秒）后从路由表中移除。路由表项因其它原因变为不可达
+ * （收到下一跳的 16 跳通告、相邻路由器故障、网络退出）时同样开始垃圾回收，已不可达时不重新开始。
+ * 两者都在路由表的修改批次中执行，变化经触发更新通告相邻路由器，因此相邻路由器静默故障（见 {@link Router#silentFailure()}）
+ * 也能被发现。开启后不再为路由表中没有的目的网络添加不可达的路由表项（RFC 2453 3.9.2），
+ * 否则被移除的路由表项会被尚未移除它的相邻路由器的不可达通告反复加回。超时时间应为完整路由表周期的数倍（RIP 中为 6 倍），
+ * 否则正常的路由表项也会在两次完整路由表之间超时。
+ * <p>
+ * 每个路由器一个散列时间轮（{@link Wheel}）：定时器状态按网络编号分块存放在数组中，槽内以网络编号组成双向链表，
+ * 不为定时器创建对象。刷新只改写截止时刻（O(1)，不移动链表节点）；时间轮转到节点所在的槽时才检查截止时刻，
+ * 未到期的节点移到截止时刻所在的槽（惰性重排），每 30 秒刷新一次的路由表项大约每转一圈才被访问一次。
+ * 时间轮在路由器的更新周期到达时推进（离散事件仿真中按仿真时刻），到期最多推迟一个刻度加一个更新周期。
+ * 时间轮只在路由表写锁内访问。
+ */
+public class RouteTimers {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 180_000; // 默认超时时间（毫秒）
+    public static final long DEFAULT_GARBAGE_COLLECTION_MILLIS = 120_000; // 默认垃圾回收时间（毫秒）
+    private static final long MAX_TICK_MILLIS = 1000; // 最大刻度（毫秒）
+    private static final int WHEEL_SLOTS = 64; // 每个时间轮的槽数
+    private static final int SLOT_MASK = WHEEL_SLOTS - 1; // 槽下标掩码
+    private static final int CHUNK_SHIFT = 8; // 每块 256 个网络编号
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 块大小
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1; // 块内下标掩码
+    private static final byte TIMEOUT = 1; // 状态：超时定时器运行中
+    private static final byte GARBAGE_COLLECTION = 2; // 状态：垃圾回收定时器运行中
+    private static final byte PHASE_MASK = 3; // 状态中的定时器类型
+    private static final byte LINKED = 4; // 状态：节点在某个槽的链表中
+
+    private final UpdateScheduler clock; // 时钟（离散事件仿真中为仿真时刻）
+    private final long timeoutMillis; // 超时时间（毫秒）
+    private final long garbageCollectionMillis; // 垃圾回收时间（毫秒）
+    private final long tickMillis; // 刻度（毫秒）
+    private final LongAdder refreshes; // 刷新次数
+    private final LongAdder timeouts; // 超时的路由表项数
+    private final LongAdder collected; // 垃圾回收移除的路由表项数
+    private final LongAdder requeued; // 未到期、移到后面的槽的节点数（惰性重排）
+
+    /**
+     * @param clock                   时钟
+     * @param timeoutMillis           超时时间（毫秒）
+     * @param garbageCollectionMillis 垃圾回收时间（毫秒）
+     */
+    public RouteTimers(UpdateScheduler clock, long timeoutMillis, long garbageCollectionMillis) {
+        this.clock = clock;
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.garbageCollectionMillis = Math.max(1, garbageCollectionMillis);
+        this.tickMillis = Math.max(1, Math.min(MAX_TICK_MILLIS,
+                Math.min(this.timeoutMillis, this.garbageCollectionMillis) / 8)); // 较短的定时器至少跨 8 个刻度
+        this.refreshes = new LongAdder();
+        this.timeouts = new LongAdder();
+        this.collected = new LongAdder();
+        this.requeued = new LongAdder();
+    } // end RouteTimers()
+
+    /**
+     * 为路由器创建时间轮
+     *
+     * @return 时间轮
+     */
+    public Wheel newWheel() {
+        return new Wheel();
+    } // end newWheel()
+
+    /**
+     * 当前时刻
+     *
+     * @return 时刻（毫秒）
+     */
+    public long now() {
+        return clock.currentTimeMillis();
+    } // end now()
+
+    @Override
+    public String toString() {
+        return "超时 " + timeoutMillis / 1000.0 + " 秒，垃圾回收 " + garbageCollectionMillis / 1000.0 + " 秒，刻度 "
+                + tickMillis + " ms，刷新 " + refreshes.sum() + " 次，超时 " + timeouts.sum() + " 项，移除 " + collected.sum()
+                + " 项，惰性重排 " + requeued.sum() + " 次";
+    } // end toString()
+
+    /**
+     * 到期处理（在路由表修改批次中回调）
+     */
+    public interface ExpiryHandler {
+        /**
+         * 定时器到期
+         *
+         * @param networkId         网络编号
+         * @param garbageCollection 是否为垃圾回收定时器（否则为超时定时器）
+         */
+        void onExpired(int networkId, boolean garbageCollection);
+    } // end interface ExpiryHandler
+
+    /**
+     * 一个路由器的散列时间轮
+     */
+    public final class Wheel {
+        private long[][] deadlines = new long[0][]; // 网络编号 -> 截止时刻（按块存储）
+        private int[][] nextChunks = new int[0][]; // 网络编号 -> 同一槽中的后继网络编号 + 1（按块存储）
+        private int[][] prevChunks = new int[0][]; // 网络编号 -> 同一槽中的前驱网络编号 + 1（链表头为 -(槽 + 1)，按块存储）
+        private byte[][] states = new byte[0][]; // 网络编号 -> 定时器状态（按块存储）
+        private final int[] heads = new int[WHEEL_SLOTS]; // 槽 -> 链表头的网络编号 + 1（0 表示空槽）
+        private volatile long processedTick; // 已处理到的刻度
+        private int linkedCount; // 链表中的节点数
+
+        private Wheel() {
+            this.processedTick = now() / tickMillis - 1;
+        } // end Wheel()
+
+        public RouteTimers getTimers() {
+            return RouteTimers.this;
+        }
+
+        /**
+         * 当前时刻
+         *
+         * @return 时刻（毫秒）
+         */
+        public long now() {
+            return clock.currentTimeMillis();
+        } // end now()
+
+        /**
+         * 刷新超时定时器（路由表项被下一跳通告或换了更好的路由；垃圾回收中的路由表项恢复为超时定时器）
+         *
+         * @param networkId 网络编号
+         * @param now       当前时刻（毫秒）
+         */
+        public void refresh(int networkId, long now) {
+            refreshes.increment();
+            arm(networkId, TIMEOUT, now + timeoutMillis);
+        } // end refresh()
+
+        /**
+         * 开始垃圾回收（路由表项刚变为不可达）
+         *
+         * @param networkId 网络编号
+         * @param now       当前时刻（毫秒）
+         */
+        public void startGarbageCollection(int networkId, long now) {
+            arm(networkId, GARBAGE_COLLECTION, now + garbageCollectionMillis);
+        } // end startGarbageCollection()
+
+        /**
+         * 取消定时器（节点留在链表中，转到它所在的槽时再移除）
+         *
+         * @param networkId 网络编号
+         */
+        public void cancel(int networkId) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk < states.length && states[chunk] != null) {
+                states[chunk][networkId & CHUNK_MASK] &= LINKED;
+            }
+        } // end cancel()
+
+        /**
+         * 清除所有定时器
+         */
+        public void clear() {
+            deadlines = new long[0][];
+            nextChunks = new int[0][];
+            prevChunks = new int[0][];
+            states = new byte[0][];
+            Arrays.fill(heads, 0);
+            linkedCount = 0;
+        } // end clear()
+
+        /**
+         * 是否有到期需要处理的槽（不加锁的快速检查）
+         *
+         * @param now 当前时刻（毫秒）
+         * @return 判断结果
+         */
+        public boolean isDue(long now) {
+            return now / tickMillis - 1 > processedTick;
+        } // end isDue()
+
+        /**
+         * 推进时间轮到当前时刻：处理已经过的刻度的槽，到期的定时器回调 handler（回调中只能设置到期的网络编号的定时器），
+         * 未到期的节点移到截止时刻所在的槽
+         *
+         * @param now     当前时刻（毫秒）
+         * @param handler 到期处理
+         */
+        public void advance(long now, ExpiryHandler handler) {
+            long lastTick = now / tickMillis - 1; // 截止时刻在本刻度内的节点可能尚未到期，下次再处理
+            if (linkedCount == 0 || lastTick - processedTick > WHEEL_SLOTS) {
+                processedTick = Math.max(processedTick, lastTick - (linkedCount == 0 ? 0 : WHEEL_SLOTS)); // 每个槽最多处理一次
+            }
+            while (processedTick < lastTick) {
+                long tick = processedTick + 1;
+                processedTick = tick; // 先推进，节点重新加入时不会放回正在处理的刻度之前
+                int slot = (int) (tick & SLOT_MASK);
+                int node = heads[slot];
+                heads[slot] = 0; // 取下整个链表，重新加入的节点进入新链表
+                while (node != 0) {
+                    int networkId = node - 1;
+                    int chunk = networkId >>> CHUNK_SHIFT;
+                    int index = networkId & CHUNK_MASK;
+                    node = nextChunks[chunk][index];
+                    byte state = (byte) (states[chunk][index] & PHASE_MASK); // 节点已离开链表
+                    states[chunk][index] = state;
+                    linkedCount--;
+                    if (state == 0) {
+                        continue; // 已取消
+                    }
+                    long deadline = deadlines[chunk][index];
+                    if (deadline > now) {
+                        requeued.increment();
+                        link(networkId, deadline);
+                        continue;
+                    }
+                    states[chunk][index] = 0;
+                    if (state == TIMEOUT) {
+                        timeouts.increment();
+                    } else {
+                        collected.increment();
+                    }
+                    handler.onExpired(networkId, state == GARBAGE_COLLECTION);
+                }
+            }
+        } // end advance()
+
+        /**
+         * 设置定时器：截止时刻不早于节点所在的槽时不移动节点（刷新只推迟截止时刻），否则移到新截止时刻所在的槽
+         */
+        private void arm(int networkId, byte phase, long deadline) {
+            int chunk = writableChunk(networkId);
+            int index = networkId & CHUNK_MASK;
+            byte state = states[chunk][index];
+            if ((state & LINKED) != 0 && deadline < deadlines[chunk][index]) {
+                unlink(networkId);
+                state = 0;
+            }
+            deadlines[chunk][index] = deadline;
+            states[chunk][index] = (byte) ((state & LINKED) | phase);
+            if ((state & LINKED) == 0) {
+                link(networkId, deadline);
+            }
+        } // end arm()
+
+        /**
+         * 把节点加入截止时刻所在的槽的链表头（截止时刻在已处理的刻度内时加入下一个刻度的槽）
+         */
+        private void link(int networkId, long deadline) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            int index = networkId & CHUNK_MASK;
+            int slot = (int) (Math.max(deadline / tickMillis, processedTick + 1) & SLOT_MASK);
+            int head = heads[slot];
+            nextChunks[chunk][index] = head;
+            prevChunks[chunk][index] = -(slot + 1);
+            if (head != 0) {
+                prevChunks[(head - 1) >>> CHUNK_SHIFT][(head - 1) & CHUNK_MASK] = networkId + 1;
+            }
+            heads[slot] = networkId + 1;
+            states[chunk][index] |= LINKED;
+            linkedCount++;
+        } // end link()
+
+        /**
+         * 把节点从所在的槽的链表中移除
+         */
+        private void unlink(int networkId) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            int index = networkId & CHUNK_MASK;
+            int next = nextChunks[chunk][index];
+            int prev = prevChunks[chunk][index];
+            if (prev > 0) {
+                nextChunks[(prev - 1) >>> CHUNK_SHIFT][(prev - 1) & CHUNK_MASK] = next;
+            } else {
+                heads[-prev - 1] = next;
+            }
+            if (next != 0) {
+                prevChunks[(next - 1) >>> CHUNK_SHIFT][(next - 1) & CHUNK_MASK] = prev; // 成为链表头时继承槽号
+            }
+            states[chunk][index] &= PHASE_MASK;
+            linkedCount--;
+        } // end unlink()
+
+        /**
+         * 获取可写的块（首次使用时分配）
+         *
+         * @param networkId 网络编号
+         * @return 块下标
+         */
+        private int writableChunk(int networkId) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk >= states.length) {
+                int length = Math.max(states.length * 2, chunk + 1);
+                deadlines = Arrays.copyOf(deadlines, length);
+                nextChunks = Arrays.copyOf(nextChunks, length);
+                prevChunks = Arrays.copyOf(prevChunks, length);
+                states = Arrays.copyOf(states, length);
+            }
+            if (states[chunk] == null) {
+                deadlines[chunk] = new long[CHUNK_SIZE];
+                nextChunks[chunk] = new int[CHUNK_SIZE];
+                prevChunks[chunk] = new int[CHUNK_SIZE];
+                states[chunk] = new byte[CHUNK_SIZE];
+            }
+            return chunk;
+        } // end writableChunk()
+    } // end class Wheel
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getGarbageCollectionMillis() {
+        return garbageCollectionMillis;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getCollected() {
+        return collected.sum();
+    }
+
+    public long getRequeued() {
+        return requeued.sum();
+    }
+} // end class RouteTimers
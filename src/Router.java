@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -8,20 +11,180 @@ import java.util.concurrent.*;
  * @date 2024-03-04 18:50:54
  */
 public class Router {
+    public static final int DEFAULT_FULL_UPDATE_CYCLES = 15; // 默认每 15 个更新周期（30 秒）发送一次完整路由表
+    private static final int RIP_HEADER_BYTES = 4; // RIPv2 报文头部字节数
+    private static final int RIP_ENTRY_BYTES = 20; // RIPv2 路由表项字节数
+    private static final int RIP_MAX_ENTRIES = 25; // 每个 RIPv2 报文最多包含的路由表项数
+    private static final int MAX_POOLED_ROUTERS = 1 << 16; // 对象池最多保留的路由器数
+
+    private static final Object ROUTER_ID_LOCK = new Object(); // 路由器编号分配锁
+    private static volatile Router[] routersById = new Router[64]; // 路由器编号 -> 路由器
+    private static int[] freeRouterIds = new int[16]; // 已释放、可重新分配的路由器编号
+    private static int freeRouterIdCount; // 已释放的路由器编号数
+    private static int routerIdCount; // 已分配过的路由器编号数
+    private static Router[] pooledRouters = new Router[16]; // 已回收、可重新取用的路由器（由 ROUTER_ID_LOCK 保护）
+    private static int pooledRouterCount; // 已回收的路由器数
+
+    private int routerId; // 路由器编号（稠密编号，路由表中以编号表示下一跳；回收后重新取用时重新分配）
+    private boolean pooled; // 是否在对象池中（由 ROUTER_ID_LOCK 保护）
     private String routerName; // 路由器名称
-    private Map<Network, RouteTableEntry> routingTable; // 路由表
+    private RoutingTable routingTable; // 路由表（写时复制，读取方只读取不可变快照）
     private List<Router> neighbors; // 相邻路由器列表
-    private ScheduledExecutorService scheduler; // 定时器
-    private StringBuilder routingTableInfo; // 路由表信息
+    private Set<Network> directlyConnectedNetworks; // 直连网络
+    private UpdateScheduler updateScheduler; // 路由更新调度器（由网络拓扑持有）
+    private volatile ConvergenceDetector convergenceDetector; // 收敛检测器（由网络拓扑持有）
+    private volatile RouteChangeListener routeChangeListener; // 路由表项变化监听器（由网络拓扑设置）
+    private volatile TraceRecorder traceRecorder; // 事件记录器（只在开启记录时不为 null）
+    private volatile UdpTransport.Endpoint udpEndpoint; // UDP 传输层端点（只在开启 UDP 传输时不为 null）
+    private volatile RouterActorSystem.Actor actor; // actor（只在开启 actor 模式时不为 null，路由通告放入它的邮箱）
+    private volatile RouteTimers.Wheel routeTimers; // 路由表项定时器（只在开启时不为 null，只在路由表写锁内访问）
+    private volatile ForwardingTable forwardingTable = ForwardingTable.EMPTY; // 已发布的转发表（不可变，整体替换）
+    private volatile boolean forwardingTableStale; // 已发布的转发表是否落后于路由表（影响转发的变化尚未重建）
+    private volatile ForwardingTableUpdater forwardingTableUpdater; // 转发表更新器（由网络拓扑设置，为 null 时只标记过期）
+    private final Object forwardingTableLock = new Object(); // 转发表重建锁（只串行化重建，查找方不加锁）
+    private volatile long changeCount; // 路由表项变化次数（用于检测收敛）
+    private final NetworkIdSet changedNetworks; // 自上次发送路由更新以来发生变化的网络编号（用于触发更新）
+    private int fullUpdateCycles; // 每隔多少个更新周期发送一次完整路由表
+    private int cyclesSinceFullUpdate; // 距离上次发送完整路由表的更新周期数
+    private volatile boolean fullUpdatePending; // 是否需要在下个更新周期发送完整路由表
+    private SplitHorizonMode splitHorizonMode; // 水平分割模式
+    private RouteAdvertisement pendingAdvertisement; // 本更新周期尚未发给所有相邻路由器的路由通告（分批发送时）
+    private int pendingNeighborIndex; // 下一个要发送的相邻路由器下标（分批发送时）
+    private long updatesSent; // 已发送的路由更新报文数
+    private long entriesSent; // 已发送的路由表项数
+    private long bytesSent; // 已发送的字节数（按 RIPv2 报文格式计算）
 
     public Router(String routerName) {
         this.routerName = routerName;
-        this.routingTable = new HashMap<>();
-        this.neighbors = new ArrayList<>();
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(this::sendUpdates, 0, 2, TimeUnit.SECONDS);
+        this.routerId = allocateRouterId(this);
+        this.routingTable = new RoutingTable(this::onRouteChanged);
+        this.neighbors = new CopyOnWriteArrayList<>();
+        this.directlyConnectedNetworks = ConcurrentHashMap.newKeySet();
+        this.changedNetworks = new NetworkIdSet();
+        this.fullUpdateCycles = DEFAULT_FULL_UPDATE_CYCLES;
+        this.fullUpdatePending = true;
+        this.splitHorizonMode = SplitHorizonMode.NONE;
     } // end Router()
 
+    /**
+     * 为路由器分配编号（优先复用已释放的编号）
+     *
+     * @param router 路由器
+     * @return 路由器编号
+     */
+    private static int allocateRouterId(Router router) {
+        synchronized (ROUTER_ID_LOCK) {
+            int routerId = freeRouterIdCount > 0 ? freeRouterIds[--freeRouterIdCount] : routerIdCount++;
+            Router[] routers = routersById;
+            if (routerId >= routers.length) {
+                routers = Arrays.copyOf(routers, routers.length * 2);
+            }
+            routers[routerId] = router;
+            routersById = routers; // volatile 写，发布新路由器
+            return routerId;
+        }
+    } // end allocateRouterId()
+
+    /**
+     * 释放路由器编号（路由器退出网络拓扑、其它路由器的路由表中已不再引用它之后调用）
+     */
+    public void releaseRouterId() {
+        synchronized (ROUTER_ID_LOCK) {
+            Router[] routers = routersById;
+            if (routers[routerId] != this) {
+                return;
+            }
+            routers[routerId] = null;
+            routersById = routers;
+            if (freeRouterIdCount == freeRouterIds.length) {
+                freeRouterIds = Arrays.copyOf(freeRouterIds, freeRouterIds.length * 2);
+            }
+            freeRouterIds[freeRouterIdCount++] = routerId;
+        }
+    } // end releaseRouterId()
+
+    /**
+     * 获取路由器：优先从对象池取用已回收的路由器（保留路由表、相邻路由器列表等已分配的内部结构），否则新建
+     *
+     * @param routerName 路由器名称
+     * @return 状态与新建的路由器相同的路由器
+     */
+    public static Router obtain(String routerName) {
+        synchronized (ROUTER_ID_LOCK) {
+            if (pooledRouterCount == 0) {
+                return new Router(routerName);
+            }
+            Router router = pooledRouters[--pooledRouterCount];
+            pooledRouters[pooledRouterCount] = null;
+            router.pooled = false;
+            router.routerName = routerName;
+            router.routerId = allocateRouterId(router);
+            return router;
+        }
+    } // end obtain()
+
+    /**
+     * 回收路由器：停止定时路由更新，清空路由表、相邻路由器、直连网络和统计，释放路由器编号，放入对象池
+     * <p>
+     * 只能在路由器已不属于任何网络拓扑、且其它路由器不再向它发送路由更新之后调用（见 {@link NetworkTopology#reset()}），
+     * 回收后不能再使用该引用。
+     */
+    public void recycle() {
+        stopUpdates();
+        convergenceDetector = null;
+        routeChangeListener = null;
+        traceRecorder = null;
+        udpEndpoint = null;
+        actor = null;
+        routeTimers = null;
+        forwardingTableUpdater = null;
+        neighbors.clear();
+        directlyConnectedNetworks.clear();
+        routingTable.reset();
+        synchronized (changedNetworks) {
+            changedNetworks.clear();
+        }
+        changeCount = 0;
+        fullUpdateCycles = DEFAULT_FULL_UPDATE_CYCLES;
+        cyclesSinceFullUpdate = 0;
+        fullUpdatePending = true;
+        splitHorizonMode = SplitHorizonMode.NONE;
+        pendingAdvertisement = null;
+        pendingNeighborIndex = 0;
+        updatesSent = 0;
+        entriesSent = 0;
+        bytesSent = 0;
+        synchronized (forwardingTableLock) {
+            forwardingTable = ForwardingTable.EMPTY;
+            forwardingTableStale = false;
+        }
+
+        synchronized (ROUTER_ID_LOCK) {
+            if (pooled) {
+                return; // 重复回收
+            }
+            releaseRouterId();
+            if (pooledRouterCount < MAX_POOLED_ROUTERS) {
+                if (pooledRouterCount == pooledRouters.length) {
+                    pooledRouters = Arrays.copyOf(pooledRouters, pooledRouterCount * 2);
+                }
+                pooledRouters[pooledRouterCount++] = this;
+                pooled = true;
+            }
+        }
+    } // end recycle()
+
+    /**
+     * 按编号查找路由器
+     *
+     * @param routerId 路由器编号
+     * @return 路由器
+     */
+    public static Router byId(int routerId) {
+        Router[] routers = routersById;
+        return routerId >= 0 && routerId < routers.length ? routers[routerId] : null;
+    } // end byId()
+
     /**
      * 添加相邻路由器
      *
@@ -29,6 +192,7 @@ public class Router {
      */
     public void addNeighbor(Router neighbor) {
         neighbors.add(neighbor);
+        fullUpdatePending = true; // 新的相邻路由器需要收到完整路由表
     } // end addNeighbor()
 
     /**
@@ -46,16 +210,11 @@ public class Router {
      * @param network 直连网络
      */
     public void addDirectlyConnectedNetwork(Network network) {
-        /* 使用 Iterator 来避免在遍历时修改集合，避免 ConcurrentModificationException 异常 */
-        Iterator<Map.Entry<Network, RouteTableEntry>> it = routingTable.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Network, RouteTableEntry> entry = it.next();
-            if (entry.getKey().getNetworkName().equals(network.getNetworkName())) {
-                it.remove();
-            }
-        }
-        RouteTableEntry entry = new RouteTableEntry(network, 1, this);
-        routingTable.put(network, entry);
+        directlyConnectedNetworks.add(network);
+        routingTable.update(table -> {
+            table.put(network.getNetworkId(), 1, routerId); // 同名网络编号相同，直接替换原有的路由表项
+            table.markChanged(network.getNetworkId());
+        });
     } // end addDirectlyConnectedNetwork()
 
     /**
@@ -65,29 +224,411 @@ public class Router {
      * @return 判断结果
      */
     public boolean isDirectlyConnectedNetwork(Network network) {
-        /* 使用 Iterator 来避免在遍历时修改集合，避免 ConcurrentModificationException 异常 */
-        Iterator<Map.Entry<Network, RouteTableEntry>> it = routingTable.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Network, RouteTableEntry> entry = it.next();
-            if (entry.getKey().equals(network)
-                    && (entry.getValue().getHops() == 1 || entry.getValue().getHops() == 16)
-                    && entry.getValue().getNextHop().equals(this)) {
-                return true;
-            }
-        }
+        return isDirectlyConnectedNetwork(network.getNetworkId());
+    } // end isDirectlyConnectedNetwork()
 
-        return false;
+    /**
+     * 判断路由器是否直连网路
+     *
+     * @param networkId 网络编号
+     * @return 判断结果
+     */
+    private boolean isDirectlyConnectedNetwork(int networkId) {
+        RoutingTable.Snapshot snapshot = routingTable.snapshot();
+        int hops = snapshot.hops(networkId);
+        return (hops == 1 || hops == RoutingTable.UNREACHABLE) && snapshot.nextHop(networkId) == routerId;
     } // end isDirectlyConnectedNetwork()
 
     /**
-     * 定时向所有相邻路由器发送路由更新
+     * 路由表项变化监听器（在路由表新快照发布后、于修改路由表的线程上调用，实现方不应阻塞）
+     */
+    public interface RouteChangeListener {
+        /**
+         * 路由表项变化（新增、替换或移除）
+         *
+         * @param router    路由器
+         * @param networkId 目的网络编号
+         */
+        void onRouteChanged(Router router, int networkId);
+
+        /**
+         * 网络拓扑中的路由器发生变化（加入、退出）
+         */
+        void onRoutersChanged();
+    } // end interface RouteChangeListener
+
+    /**
+     * 更新周期到达：先处理到期的路由表项定时器，再每隔 fullUpdateCycles 个周期发送一次完整路由表，
+     * 其余周期只发送变化的路由表项（触发更新）
+     */
+    public void onUpdateTimer() {
+        onUpdateTimer(Integer.MAX_VALUE);
+    } // end onUpdateTimer()
+
+    /**
+     * 更新周期到达，分批发送：路由通告在周期开始时生成，只发给前 batchSize 个相邻路由器，
+     * 其余由调度器在本周期内分批调用 {@link #sendPendingUpdates(int)} 发送（上一周期未发完的先发完）
+     *
+     * @param batchSize 每批的相邻路由器数
+     * @return 本周期尚未发送的相邻路由器数
+     */
+    public int onUpdateTimer(int batchSize) {
+        sendPendingUpdates(Integer.MAX_VALUE);
+        expireRoutes();
+        RouteAdvertisement advertisement = fullUpdatePending || ++cyclesSinceFullUpdate >= fullUpdateCycles
+                ? prepareFullUpdate() : prepareTriggeredUpdate();
+        int remaining = 0;
+        if (advertisement != null) {
+            pendingAdvertisement = advertisement;
+            pendingNeighborIndex = 0;
+            remaining = sendPendingUpdates(batchSize);
+        }
+
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.onUpdateCycle();
+        }
+        return remaining;
+    } // end onUpdateTimer()
+
+    /**
+     * 把本周期的路由通告发给接下来的 batchSize 个相邻路由器（期间相邻路由器列表变化时，本周期可能漏发或重发一个相邻路由器，
+     * 由下个周期弥补）
+     *
+     * @param batchSize 每批的相邻路由器数
+     * @return 本周期尚未发送的相邻路由器数
+     */
+    public int sendPendingUpdates(int batchSize) {
+        RouteAdvertisement advertisement = pendingAdvertisement;
+        if (advertisement == null) {
+            return 0;
+        }
+        int end = (int) Math.min(neighbors.size(), (long) pendingNeighborIndex + batchSize);
+        for (int i = pendingNeighborIndex; i < end; i++) {
+            sendUpdate(neighbors.get(i), advertisement);
+        }
+        pendingNeighborIndex = Math.max(pendingNeighborIndex, end);
+        awaitDelivery();
+        int remaining = neighbors.size() - pendingNeighborIndex;
+        if (remaining <= 0) {
+            pendingAdvertisement = null;
+            return 0;
+        }
+        return remaining;
+    } // end sendPendingUpdates()
+
+    /**
+     * 向所有相邻路由器发送完整路由表
      */
     public void sendUpdates() {
+        RouteAdvertisement advertisement = prepareFullUpdate();
         for (Router neighbor : neighbors) {
-            neighbor.receiveUpdate(this, new HashMap<>(this.routingTable));
+            sendUpdate(neighbor, advertisement);
         }
+        awaitDelivery();
     } // end sendUpdates()
 
+    /**
+     * 向所有相邻路由器只发送自上次路由更新以来变化的路由表项
+     */
+    public void sendTriggeredUpdates() {
+        RouteAdvertisement advertisement = prepareTriggeredUpdate();
+        if (advertisement == null) {
+            return;
+        }
+        for (Router neighbor : neighbors) {
+            sendUpdate(neighbor, advertisement);
+        }
+        awaitDelivery();
+    } // end sendTriggeredUpdates()
+
+    /**
+     * 生成完整路由表的通告（通告直接引用不可变快照，可发给所有相邻路由器）
+     *
+     * @return 路由通告
+     */
+    private RouteAdvertisement prepareFullUpdate() {
+        fullUpdatePending = false;
+        cyclesSinceFullUpdate = 0;
+        synchronized (changedNetworks) {
+            changedNetworks.clear();
+        }
+        return RouteAdvertisement.full(routingTable.snapshot(), splitHorizonMode);
+    } // end prepareFullUpdate()
+
+    /**
+     * 生成自上次路由更新以来变化的路由表项的通告
+     *
+     * @return 路由通告（没有变化时为 null）
+     */
+    private RouteAdvertisement prepareTriggeredUpdate() {
+        int[] changedNetworkIds;
+        synchronized (changedNetworks) {
+            if (changedNetworks.isEmpty()) {
+                return null;
+            }
+            changedNetworkIds = changedNetworks.drain();
+        }
+        return RouteAdvertisement.partial(routingTable.snapshot(), changedNetworkIds, splitHorizonMode);
+    } // end prepareTriggeredUpdate()
+
+    /**
+     * 向相邻路由器发送路由更新，并统计发送量（开启 UDP 传输时编码为 RIPv2 报文发送；相邻路由器有 actor 时放入其邮箱，
+     * 由 actor 处理后统计；否则直接调用相邻路由器）
+     *
+     * @param neighbor      相邻路由器
+     * @param advertisement 路由通告
+     */
+    private void sendUpdate(Router neighbor, RouteAdvertisement advertisement) {
+        UdpTransport.Endpoint endpoint = udpEndpoint;
+        int entryCount = endpoint == null ? -1 : endpoint.send(neighbor, advertisement);
+        if (entryCount < 0) {
+            RouterActorSystem.Actor neighborActor = neighbor.actor;
+            if (neighborActor != null && neighborActor.post(this, advertisement)) {
+                return;
+            }
+            entryCount = neighbor.receiveUpdate(this, advertisement);
+        }
+        recordSent(entryCount);
+    } // end sendUpdate()
+
+    /**
+     * 统计发往一个相邻路由器的路由更新（actor 模式下由接收方的 actor 线程调用，因此加锁）
+     *
+     * @param entryCount 路由表项数
+     */
+    public synchronized void recordSent(int entryCount) {
+        if (entryCount == 0) {
+            return;
+        }
+
+        int messageCount = (entryCount + RIP_MAX_ENTRIES - 1) / RIP_MAX_ENTRIES;
+        updatesSent += messageCount;
+        entriesSent += entryCount;
+        bytesSent += (long) messageCount * RIP_HEADER_BYTES + (long) entryCount * RIP_ENTRY_BYTES;
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.recordMessages(messageCount);
+        }
+    } // end recordSent()
+
+    /**
+     * 开启 UDP 或 actor 同步投递时，等待本轮发出的路由更新全部被相邻路由器处理
+     */
+    private void awaitDelivery() {
+        UdpTransport.Endpoint endpoint = udpEndpoint;
+        if (endpoint != null) {
+            endpoint.getTransport().awaitDelivery();
+        }
+        RouterActorSystem.Actor ownActor = actor;
+        if (ownActor != null) {
+            ownActor.getSystem().awaitDelivery();
+        }
+    } // end awaitDelivery()
+
+    /**
+     * 推进路由表项定时器：超时的路由表项设置为不可达并开始垃圾回收，垃圾回收到期的路由表项被移除
+     * （由更新周期驱动；不经过 onUpdateTimer() 的调度器在每轮开始时调用）
+     */
+    public void expireRoutes() {
+        RouteTimers.Wheel timers = routeTimers;
+        if (timers == null || !timers.isDue(timers.now())) {
+            return;
+        }
+        routingTable.update(table -> {
+            if (routeTimers != timers) {
+                return; // 已关闭或换了定时器
+            }
+            long now = timers.now();
+            timers.advance(now, (networkId, garbageCollection) -> {
+                int hops = table.hops(networkId);
+                if (hops == 0 || (hops == 1 && table.nextHop(networkId) == routerId)) {
+                    return; // 已被移除，或已换成直连网络
+                }
+                if (garbageCollection) {
+                    table.remove(networkId);
+                    table.markChanged(networkId);
+                } else if (hops < RoutingTable.UNREACHABLE) {
+                    setUnreachable(table, networkId); // 同时开始垃圾回收
+                } else {
+                    timers.startGarbageCollection(networkId, now);
+                }
+            });
+        });
+    } // end expireRoutes()
+
+    /**
+     * 路由表项变化（新快照发布后由路由表回调）
+     *
+     * @param networkId 网络编号
+     */
+    private void onRouteChanged(int networkId) {
+        changeCount++;
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) { // 仍持有写锁，同一路由器的事件按发生顺序记录
+            RoutingTable.Snapshot snapshot = routingTable.snapshot();
+            recorder.recordRoute(routerId, networkId, snapshot.hops(networkId), snapshot.nextHop(networkId));
+        }
+        synchronized (changedNetworks) {
+            changedNetworks.add(networkId);
+        }
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.recordChange(routingTable.size());
+        }
+        RouteChangeListener listener = routeChangeListener;
+        if (listener != null) {
+            listener.onRouteChanged(this, networkId);
+        }
+        if (!forwardingTableStale && forwardingTable.affects(routingTable.snapshot(), networkId)) {
+            markForwardingTableStale();
+        }
+    } // end onRouteChanged()
+
+    /**
+     * 标记转发表过期，并请求转发表更新器重建
+     */
+    private void markForwardingTableStale() {
+        forwardingTableStale = true;
+        ForwardingTableUpdater updater = forwardingTableUpdater;
+        if (updater != null) {
+            updater.schedule(this);
+        }
+    } // end markForwardingTableStale()
+
+    /**
+     * 转发表过期时由最新的路由表快照重新编译并发布（由转发表更新器调用；重建串行进行，查找方继续读取已发布的转发表）
+     * <p>
+     * 先清除过期标记再取快照：之后发布的变化会重新标记过期，不会丢失；编译抛出异常时恢复过期标记。
+     *
+     * @return 是否重建（转发表未过期时不重建）
+     */
+    public boolean rebuildForwardingTable() {
+        synchronized (forwardingTableLock) {
+            if (!forwardingTableStale) {
+                return false;
+            }
+            forwardingTableStale = false;
+            long version = routingTable.getVersion();
+            try {
+                forwardingTable = ForwardingTable.compile(routingTable.snapshot(), version); // volatile 写，发布新的转发表
+            } catch (RuntimeException e) {
+                forwardingTableStale = true; // 编译失败：已发布的转发表仍落后于路由表
+                throw e;
+            }
+            return true;
+        }
+    } // end rebuildForwardingTable()
+
+    /**
+     * 获取与当前路由表一致的转发表：转发表过期时在调用线程上重建（等待正在进行的重建结束），
+     * 用于需要确定结果的调用方（如场景文件中的查找），以及不属于网络拓扑、没有转发表更新器的路由器
+     *
+     * @return 转发表
+     */
+    public ForwardingTable awaitForwardingTable() {
+        rebuildForwardingTable();
+        return forwardingTable;
+    } // end awaitForwardingTable()
+
+    /**
+     * 接收来自相邻路由器的路由通告
+     *
+     * @param sender        相邻路由器
+     * @param advertisement 路由通告
+     * @return 收到的路由表项数
+     */
+    public int receiveUpdate(Router sender, RouteAdvertisement advertisement) {
+        int[] entryCount = new int[1];
+        routingTable.update(table -> {
+            RouteTimers.Wheel timers = routeTimers;
+            long now = timers == null ? 0 : timers.now();
+            entryCount[0] = advertisement.forEachRoute(routerId,
+                    (networkId, hops) -> applyRoute(table, timers, now, sender.routerId, networkId, hops));
+            traceAdvertisement(sender, advertisement.isFull(), entryCount[0]);
+        });
+        return entryCount[0];
+    } // end receiveUpdate()
+
+    /**
+     * 在一个修改批次中依次接收多个相邻路由器的路由通告（结果与按顺序逐个调用 receiveUpdate 相同，只发布一次快照）
+     *
+     * @param senders        相邻路由器
+     * @param advertisements 路由通告（与相邻路由器一一对应）
+     * @param count          路由通告数
+     * @return 收到的路由表项数
+     */
+    public long receiveUpdates(Router[] senders, RouteAdvertisement[] advertisements, int count) {
+        return receiveUpdates(senders, advertisements, count, null);
+    } // end receiveUpdates()
+
+    /**
+     * 在一个修改批次中依次接收多个相邻路由器的路由通告，并返回每个通告的路由表项数
+     *
+     * @param senders        相邻路由器
+     * @param advertisements 路由通告（与相邻路由器一一对应）
+     * @param count          路由通告数
+     * @param entryCounts    各通告的路由表项数（输出，可为 null）
+     * @return 收到的路由表项数
+     */
+    public long receiveUpdates(Router[] senders, RouteAdvertisement[] advertisements, int count, int[] entryCounts) {
+        long[] entryCount = new long[1];
+        routingTable.update(table -> {
+            RouteTimers.Wheel timers = routeTimers;
+            long now = timers == null ? 0 : timers.now();
+            for (int i = 0; i < count; i++) {
+                int senderId = senders[i].routerId;
+                int entries = advertisements[i].forEachRoute(routerId,
+                        (networkId, hops) -> applyRoute(table, timers, now, senderId, networkId, hops));
+                traceAdvertisement(senders[i], advertisements[i].isFull(), entries);
+                entryCount[0] += entries;
+                if (entryCounts != null) {
+                    entryCounts[i] = entries;
+                }
+            }
+        });
+        return entryCount[0];
+    } // end receiveUpdates()
+
+    /**
+     * 记录收到的路由通告（在路由表写锁内、由它引起的路由表项变化之前记录）
+     */
+    private void traceAdvertisement(Router sender, boolean full, int entryCount) {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordAdvertisement(routerId, sender.routerId, entryCount, full);
+        }
+    } // end traceAdvertisement()
+
+    /**
+     * 接收来自相邻路由器的 RIPv2 响应报文（由 UDP 传输层的接收线程调用，一个报文一个修改批次）
+     * <p>
+     * 地址族、掩码、下一跳或度量无效的路由表项，以及不存在的网络被忽略；报文不区分完整路由表和触发更新，记录为触发更新。
+     *
+     * @param sender 相邻路由器（按 UDP 源端口确定）
+     * @param packet 报文（position 到 limit 为 UDP 载荷，不修改 position）
+     * @return 报文中的路由表项数（报文头部或长度无效时为 -1）
+     */
+    public int receivePacket(Router sender, ByteBuffer packet) {
+        int entryCount = UdpTransport.entryCount(packet);
+        if (entryCount < 0) {
+            return -1;
+        }
+        routingTable.update(table -> {
+            RouteTimers.Wheel timers = routeTimers;
+            long now = timers == null ? 0 : timers.now();
+            for (int i = 0; i < entryCount; i++) {
+                int networkId = UdpTransport.entryNetworkId(packet, i);
+                int metric = UdpTransport.entryMetric(packet, i);
+                if (networkId >= 0 && metric >= 1 && metric <= RoutingTable.UNREACHABLE && Network.byId(networkId) != null) {
+                    applyRoute(table, timers, now, sender.routerId, networkId, metric);
+                }
+            }
+            traceAdvertisement(sender, false, entryCount);
+        });
+        return entryCount;
+    } // end receivePacket()
+
     /**
      * 接收来自相邻路由器的路由更新
      *
@@ -95,28 +636,149 @@ public class Router {
      * @param receivedRoutingTable 路由更新表
      */
     public void receiveUpdate(Router sender, Map<Network, RouteTableEntry> receivedRoutingTable) {
-        for (Map.Entry<Network, RouteTableEntry> entry : receivedRoutingTable.entrySet()) {
-            Network destination = entry.getKey(); // 目的网络
-            RouteTableEntry receivedEntry = entry.getValue(); // 路由表项
-            int newHops = receivedEntry.getHops() + 1; // 计算新的跳数
-            newHops = Math.min(newHops, 16); // 如果收到的跳数已经是16，或者加1后变为16，则直接使用16作为跳数
-
-            RouteTableEntry currentEntry = routingTable.get(destination); // 原来的路由表项
-
-            if (currentEntry == null) {
-                // 原来的路由表中没有目的网络 destination，则把该项目添加到原来的路由表中
-                routingTable.put(destination, new RouteTableEntry(destination, newHops, sender));
-            } else { // 在原来的路由表中有目的网络 destination
-                if (currentEntry.getNextHop().equals(sender)) {
-                    // 若下一跳路由器是 sender，则把收到的项目替换原路由表中的项目
-                    routingTable.put(destination, new RouteTableEntry(destination, newHops, sender));
-                } else if (newHops < currentEntry.getHops()) { // 若下一跳不是 sender
-                    // 若收到的项目中的跳数<原来的路由表中的跳数，则进行更新
-                    routingTable.put(destination, new RouteTableEntry(destination, newHops, sender));
+        routingTable.update(table -> {
+            RouteTimers.Wheel timers = routeTimers;
+            long now = timers == null ? 0 : timers.now();
+            for (Map.Entry<Network, RouteTableEntry> entry : receivedRoutingTable.entrySet()) {
+                applyRoute(table, timers, now, sender.routerId, entry.getKey().getNetworkId(), entry.getValue().getHops());
+            }
+        });
+    } // end receiveUpdate()
+
+    /**
+     * 按距离向量算法处理收到的一个路由表项
+     * <p>
+     * 开启路由表项定时器时：被下一跳通告的路由表项刷新超时定时器，下一跳通告不可达时开始垃圾回收，
+     * 不为路由表中没有的目的网络添加不可达的路由表项。
+     *
+     * @param table        路由表修改批次
+     * @param timers       路由表项定时器（未开启时为 null）
+     * @param now          当前时刻（毫秒，未开启定时器时不使用）
+     * @param senderId     相邻路由器编号
+     * @param networkId    目的网络编号
+     * @param receivedHops 收到的跳数
+     */
+    private void applyRoute(RoutingTable.Editor table, RouteTimers.Wheel timers, long now, int senderId, int networkId,
+                            int receivedHops) {
+        int newHops = receivedHops + 1; // 计算新的跳数
+        newHops = Math.min(newHops, RoutingTable.UNREACHABLE); // 如果收到的跳数已经是16，或者加1后变为16，则直接使用16作为跳数
+
+        int currentHops = table.hops(networkId); // 原来的路由表项的跳数
+
+        if (currentHops == 0) {
+            if (timers != null) {
+                if (newHops == RoutingTable.UNREACHABLE) {
+                    return; // 不添加不可达的路由表项
+                }
+                timers.refresh(networkId, now);
+            }
+            // 原来的路由表中没有目的网络，则把该项目添加到原来的路由表中
+            table.put(networkId, newHops, senderId);
+            table.markChanged(networkId);
+        } else { // 在原来的路由表中有目的网络
+            if (table.nextHop(networkId) == senderId) {
+                // 若下一跳路由器是 sender，则把收到的项目替换原路由表中的项目（跳数不变时无需替换）
+                if (timers != null) {
+                    if (newHops < RoutingTable.UNREACHABLE) {
+                        timers.refresh(networkId, now);
+                    } else if (currentHops != RoutingTable.UNREACHABLE) {
+                        timers.startGarbageCollection(networkId, now);
+                    }
                 }
+                if (currentHops != newHops) {
+                    table.put(networkId, newHops, senderId);
+                    table.markChanged(networkId);
+                }
+            } else if (newHops < currentHops) { // 若下一跳不是 sender
+                // 若收到的项目中的跳数<原来的路由表中的跳数，则进行更新
+                if (timers != null) {
+                    timers.refresh(networkId, now);
+                }
+                table.put(networkId, newHops, senderId);
+                table.markChanged(networkId);
             }
         }
-    } // end receiveUpdate()
+    } // end applyRoute()
+
+    /**
+     * 从检查点恢复整个路由表（替换原有的路由表项，不触发路由更新，也不通知监听器）
+     *
+     * @param networkIds 目的网络编号
+     * @param hops       跳数
+     * @param nextHopIds 下一跳路由器编号
+     * @param count      路由表项数
+     */
+    public void restoreRoutingTable(int[] networkIds, byte[] hops, int[] nextHopIds, int count) {
+        routingTable.load(networkIds, hops, nextHopIds, count);
+        rearmRouteTimers();
+        markForwardingTableStale(); // 整表载入不通知变化
+    } // end restoreRoutingTable()
+
+    /**
+     * 恢复为之前取得的路由表快照（用于重放时回到关键帧，不触发路由更新，也不通知监听器）
+     *
+     * @param snapshot 快照（下一跳编号必须仍指向同一批路由器）
+     */
+    public void restoreRoutingTable(RoutingTable.Snapshot snapshot) {
+        routingTable.load(snapshot);
+        rearmRouteTimers();
+        markForwardingTableStale();
+    } // end restoreRoutingTable()
+
+    /**
+     * 整表载入后重新设置路由表项定时器（从当前时刻开始计时）
+     */
+    private void rearmRouteTimers() {
+        if (routeTimers == null) {
+            return;
+        }
+        routingTable.update(table -> {
+            RouteTimers.Wheel timers = routeTimers;
+            if (timers != null) {
+                timers.clear();
+                armRouteTimers(table.base(), timers);
+            }
+        });
+    } // end rearmRouteTimers()
+
+    /**
+     * 为路由表中的所有路由表项设置定时器：学到的可达路由表项开始超时计时，不可达的路由表项开始垃圾回收，直连网络不计时
+     *
+     * @param snapshot 路由表快照
+     * @param timers   路由表项定时器
+     */
+    private void armRouteTimers(RoutingTable.Snapshot snapshot, RouteTimers.Wheel timers) {
+        long now = timers.now();
+        for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+            int hops = snapshot.hops(networkId);
+            if (hops == RoutingTable.UNREACHABLE) {
+                timers.startGarbageCollection(networkId, now);
+            } else if (snapshot.nextHop(networkId) != routerId) {
+                timers.refresh(networkId, now);
+            }
+        }
+    } // end armRouteTimers()
+
+    /**
+     * 重放记录的路由表项变化（不按距离向量算法计算，直接设置为记录的结果）
+     *
+     * @param networkId 网络编号
+     * @param hops      跳数（0 表示移除）
+     * @param nextHopId 下一跳路由器编号
+     */
+    public void replayRoute(int networkId, int hops, int nextHopId) {
+        routingTable.update(table -> {
+            if (hops == 0) {
+                if (table.hops(networkId) != 0) {
+                    table.remove(networkId);
+                    table.markChanged(networkId);
+                }
+            } else if (table.hops(networkId) != hops || table.nextHop(networkId) != nextHopId) {
+                table.put(networkId, hops, nextHopId);
+                table.markChanged(networkId);
+            }
+        });
+    } // end replayRoute()
 
     /**
      * 从路由表中移除指定路由器的所有条目
@@ -124,14 +786,12 @@ public class Router {
      * @param router 路由器
      */
     public void removeEntriesForRouter(Router router) {
-        /* 使用 Iterator 来避免在遍历时修改集合，避免 ConcurrentModificationException 异常 */
-        Iterator<Map.Entry<Network, RouteTableEntry>> it = routingTable.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Network, RouteTableEntry> entry = it.next();
-            if (entry.getValue().getNextHop().equals(router)) {
-                it.remove(); // 移除该条目
+        routingTable.update(table -> {
+            for (int networkId : table.networksVia(router.routerId)) { // 只处理以该路由器为下一跳的条目
+                table.remove(networkId); // 移除该条目
+                table.markChanged(networkId);
             }
-        }
+        });
     } // end removeEntriesForRouter()
 
     /**
@@ -140,32 +800,99 @@ public class Router {
      * @param network 网络
      */
     public void removeEntriesForNetwork(Network network) {
-        /* 使用 Iterator 来避免在遍历时修改集合，避免 ConcurrentModificationException 异常 */
-        Iterator<Map.Entry<Network, RouteTableEntry>> it = routingTable.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Network, RouteTableEntry> entry = it.next();
-            Router nextHop = entry.getValue().getNextHop();
-            if (entry.getKey().equals(network)) {
-                entry.getValue().setHops(16);
-            } else if (!nextHop.equals(this) && nextHop.isDirectlyConnectedNetwork(network)) {
-                entry.getValue().setHops(16);
+        int removedNetworkId = network.getNetworkId();
+        routingTable.update(table -> {
+            RoutingTable.Snapshot base = table.base();
+            for (int networkId = base.nextNetworkId(0); networkId >= 0; networkId = base.nextNetworkId(networkId + 1)) {
+                Router nextHop = byId(base.nextHop(networkId));
+                if (networkId == removedNetworkId
+                        || (nextHop != null && nextHop != this && nextHop.isDirectlyConnectedNetwork(removedNetworkId))) {
+                    setUnreachable(table, networkId);
+                }
             }
-        }
+        });
+    } // end removeEntriesForNetwork()
+
+    /**
+     * 网络退出时更新路由表：到该网络的路由表项，以及下一跳直连该网络的路由表项均设置为不可达
+     *
+     * @param network         退出的网络
+     * @param attachedRouters 直连该网络的路由器
+     */
+    public void removeEntriesForNetwork(Network network, Set<Router> attachedRouters) {
+        int removedNetworkId = network.getNetworkId();
+        directlyConnectedNetworks.remove(network);
+        routingTable.update(table -> {
+            if (table.hops(removedNetworkId) != 0) {
+                setUnreachable(table, removedNetworkId);
+            }
+            for (Router attachedRouter : attachedRouters) {
+                if (attachedRouter != this) {
+                    for (int networkId : table.networksVia(attachedRouter.routerId)) {
+                        setUnreachable(table, networkId);
+                    }
+                }
+            }
+        });
     } // end removeEntriesForNetwork()
 
+    /**
+     * 把到指定网络的路由表项设置为不可达（不遍历路由表）
+     *
+     * @param network 网络
+     */
+    public void setNetworkUnreachable(Network network) {
+        int networkId = network.getNetworkId();
+        if (routingTable.snapshot().hops(networkId) == 0) {
+            return;
+        }
+        routingTable.update(table -> {
+            if (table.hops(networkId) != 0) {
+                setUnreachable(table, networkId);
+            }
+        });
+    } // end setNetworkUnreachable()
+
     /**
      * 路由器故障
      */
     public void failure() {
-        stopScheduler();
-
-        for (RouteTableEntry entry : new ArrayList<>(routingTable.values())) {
-            entry.setHops(16); // 使用16表示不可达
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordFailure(routerId);
         }
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.topologyChanged("路由器" + routerName + "故障");
+        }
+        stopUpdates();
+
+        routingTable.update(table -> {
+            RoutingTable.Snapshot base = table.base();
+            for (int networkId = base.nextNetworkId(0); networkId >= 0; networkId = base.nextNetworkId(networkId + 1)) {
+                setUnreachable(table, networkId); // 使用16表示不可达
+            }
+        });
 
         notifyNeighborsForFailure(); // 通知所有相邻路由器当前路由器故障
     } // end failure()
 
+    /**
+     * 路由器静默故障：只停止发送路由更新，不修改路由表，也不通知相邻路由器
+     * （相邻路由器只能在路由表项超时后发现，见 {@link RouteTimers}）
+     */
+    public void silentFailure() {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordFailure(routerId);
+        }
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.topologyChanged("路由器" + routerName + "静默故障");
+        }
+        stopUpdates();
+    } // end silentFailure()
+
     /**
      * 通知所有相邻路由器当前路由器故障
      */
@@ -182,21 +909,50 @@ public class Router {
      * @param failedRouter 故障路由器
      */
     public void updateRoutingTableForFailedRouter(Router failedRouter) {
-        for (RouteTableEntry entry : new ArrayList<>(routingTable.values())) {
-            if (entry.getNextHop().equals(failedRouter)) {
-                entry.setHops(16); // 使用16表示不可达
+        routingTable.update(table -> {
+            for (int networkId : table.networksVia(failedRouter.routerId)) { // 只处理以故障路由器为下一跳的条目
+                setUnreachable(table, networkId); // 使用16表示不可达
             }
-        }
+        });
     } // end updateRoutingTableForFailedRouter()
 
     /**
-     * 停止定时器
+     * 把路由表项设置为不可达（跳数为16），开启路由表项定时器时开始垃圾回收
+     *
+     * @param table     路由表修改批次
+     * @param networkId 网络编号
      */
-    public void stopScheduler() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown(); // 停止发送路由更新
+    private void setUnreachable(RoutingTable.Editor table, int networkId) {
+        if (table.hops(networkId) != RoutingTable.UNREACHABLE) {
+            table.put(networkId, RoutingTable.UNREACHABLE, table.nextHop(networkId));
+            table.markChanged(networkId);
+            RouteTimers.Wheel timers = routeTimers;
+            if (timers != null) {
+                timers.startGarbageCollection(networkId, timers.now());
+            }
         }
-    } // end stopScheduler()
+    } // end setUnreachable()
+
+    /**
+     * 开始定时发送路由更新
+     *
+     * @param updateScheduler 路由更新调度器
+     */
+    public void startUpdates(UpdateScheduler updateScheduler) {
+        stopUpdates();
+        this.updateScheduler = updateScheduler;
+        updateScheduler.start(this);
+    } // end startUpdates()
+
+    /**
+     * 停止定时发送路由更新
+     */
+    public void stopUpdates() {
+        if (updateScheduler != null) {
+            updateScheduler.stop(this); // 停止发送路由更新
+            updateScheduler = null;
+        }
+    } // end stopUpdates()
 
     /**
      * 打印路由表信息
@@ -204,42 +960,77 @@ public class Router {
      * @return 路由表信息
      */
     public String printRoutingTable() {
-        routingTableInfo = new StringBuilder();
-
-        routingTableInfo.append(routerName).append("的路由表：\n");
-        routingTableInfo.append("目的网络\t\t跳数\t\t下一跳\n");
+        StringBuilder routingTableInfo = new StringBuilder(); // 路由表信息（局部变量，多个线程可同时打印）
+        try {
+            printRoutingTable(routingTableInfo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder 不会抛出
+        }
+        return routingTableInfo.toString();
+    } // end printRoutingTable()
 
-        /* 保证路由表无重复项 */
-        Set<String> networkNames = new HashSet<>();
-        Iterator<Map.Entry<Network, RouteTableEntry>> it = routingTable.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Network, RouteTableEntry> entry = it.next();
-            RouteTableEntry routeEntry = entry.getValue();
+    /**
+     * 把路由表信息逐行写入调用方提供的输出（格式与 printRoutingTable() 相同）
+     * <p>
+     * 只读取不可变快照，不修改路由表；只追加已有的名称和常量字符，不创建中间字符串，占用的内存与路由表大小无关。
+     *
+     * @param out 输出（如 StringBuilder、Writer、PrintStream）
+     * @throws IOException 写入失败
+     */
+    public void printRoutingTable(Appendable out) throws IOException {
+        out.append(routerName).append("的路由表：\n");
+        out.append("目的网络\t\t跳数\t\t下一跳\n");
 
-            String networkName = routeEntry.getDestination().getNetworkName();
-            if (networkNames.contains(networkName) && routeEntry.getHops() == 16) {
-                it.remove();
-            } else {
-                networkNames.add(networkName);
+        /* 同名网络编号相同，路由表中不会有重复项 */
+        RoutingTable.Snapshot snapshot = routingTable.snapshot();
+        for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+            int hops = snapshot.hops(networkId);
+            out.append(Network.byId(networkId).getNetworkName()).append("\t\t");
+            if (hops >= 10) {
+                out.append((char) ('0' + hops / 10)); // 跳数不超过16，逐位写入
             }
-        }
-
-        for (RouteTableEntry entry : routingTable.values()) {
-            routingTableInfo.append(entry.getDestination().getNetworkName()).append("\t\t")
-                    .append(entry.getHops()).append("\t\t");
-            int hops = entry.getHops();
+            out.append((char) ('0' + hops % 10)).append("\t\t");
+            Router nextHop = byId(snapshot.nextHop(networkId));
             if (hops == 1) {
-                routingTableInfo.append("直接交付\n");
-            } else if (hops < 16) {
-                routingTableInfo.append(entry.getNextHop().getRouterName()).append("\n");
+                out.append("直接交付\n");
+            } else if (hops < RoutingTable.UNREACHABLE && nextHop != null) {
+                out.append(nextHop.getRouterName()).append('\n');
             } else {
-                routingTableInfo.append("不可达\n");
+                out.append("不可达\n");
             }
         }
-
-        return routingTableInfo.toString();
     } // end printRoutingTable()
 
+    /**
+     * 路由器以实例区分（同名路由器可以分属不同的网络拓扑）
+     *
+     * @param o 比较对象
+     * @return 比较结果
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    } // end equals()
+
+    /**
+     * 以路由器编号作为哈希值（稠密、分布均匀，且哈希表的遍历顺序可重现）
+     *
+     * @return 哈希值
+     */
+    @Override
+    public int hashCode() {
+        return routerId;
+    } // end hashCode()
+
+    @Override
+    public String toString() {
+        return routerName;
+    } // end toString()
+
+    public int getRouterId() {
+        return routerId;
+    }
+
     public String getRouterName() {
         return routerName;
     }
@@ -249,18 +1040,175 @@ public class Router {
     }
 
     public Map<Network, RouteTableEntry> getRoutingTable() {
-        return routingTable;
+        return routingTable.asMap();
     }
 
     public void setRoutingTable(Map<Network, RouteTableEntry> routingTable) {
-        this.routingTable = routingTable;
+        this.routingTable.replaceAll(routingTable);
+    }
+
+    public RoutingTable.Snapshot getRoutingTableSnapshot() {
+        return routingTable.snapshot();
+    }
+
+    /**
+     * 获取已发布的转发表（只读一次 volatile 引用，不加锁、不等待；影响转发的变化在合并窗口之后才发布，
+     * 需要与当前路由表一致时见 {@link #awaitForwardingTable()}）
+     * <p>
+     * 网络前缀改变不会使转发表过期，需在路由表下次影响转发的变化后才生效。
+     *
+     * @return 转发表
+     */
+    public ForwardingTable getForwardingTable() {
+        return forwardingTable;
+    }
+
+    public boolean isForwardingTableStale() {
+        return forwardingTableStale;
+    }
+
+    public ForwardingTableUpdater getForwardingTableUpdater() {
+        return forwardingTableUpdater;
+    }
+
+    /**
+     * 设置转发表更新器（转发表已过期时立即请求重建）
+     *
+     * @param forwardingTableUpdater 转发表更新器（null 表示只标记过期）
+     */
+    public void setForwardingTableUpdater(ForwardingTableUpdater forwardingTableUpdater) {
+        this.forwardingTableUpdater = forwardingTableUpdater;
+        if (forwardingTableUpdater != null && forwardingTableStale) {
+            forwardingTableUpdater.schedule(this);
+        }
     }
 
     public List<Router> getNeighbors() {
         return neighbors;
     }
 
+    public Set<Network> getDirectlyConnectedNetworks() {
+        return directlyConnectedNetworks;
+    }
+
     public void setNeighbors(List<Router> neighbors) {
-        this.neighbors = neighbors;
+        this.neighbors = new CopyOnWriteArrayList<>(neighbors);
+    }
+
+    public boolean isUpdating() {
+        return updateScheduler != null;
+    }
+
+    public ConvergenceDetector getConvergenceDetector() {
+        return convergenceDetector;
+    }
+
+    public void setConvergenceDetector(ConvergenceDetector convergenceDetector) {
+        this.convergenceDetector = convergenceDetector;
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    /**
+     * 设置事件记录器：在路由表写锁内记录路由器及其当前的所有路由表项，之后的路由表项变化一定记录在它们之后
+     *
+     * @param traceRecorder 事件记录器（null 表示停止记录）
+     * @param type          记录路由器的事件类型（ROUTER_JOIN 或 ROUTER_NAME）
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder, TraceEvent.Type type) {
+        routingTable.update(table -> {
+            this.traceRecorder = traceRecorder;
+            if (traceRecorder == null) {
+                return;
+            }
+            traceRecorder.recordRouter(type, this);
+            RoutingTable.Snapshot base = table.base();
+            for (int networkId = base.nextNetworkId(0); networkId >= 0; networkId = base.nextNetworkId(networkId + 1)) {
+                traceRecorder.recordRoute(routerId, networkId, base.hops(networkId), base.nextHop(networkId));
+            }
+        });
+    }
+
+    public UdpTransport.Endpoint getUdpEndpoint() {
+        return udpEndpoint;
+    }
+
+    public void setUdpEndpoint(UdpTransport.Endpoint udpEndpoint) {
+        this.udpEndpoint = udpEndpoint;
+    }
+
+    public RouterActorSystem.Actor getActor() {
+        return actor;
+    }
+
+    public void setActor(RouterActorSystem.Actor actor) {
+        this.actor = actor;
+    }
+
+    public RouteTimers.Wheel getRouteTimers() {
+        return routeTimers;
+    }
+
+    /**
+     * 开启、关闭路由表项定时器：在路由表写锁内为当前的所有路由表项设置定时器（从当前时刻开始计时）
+     *
+     * @param timers 路由表项定时器（null 表示关闭）
+     */
+    public void setRouteTimers(RouteTimers timers) {
+        routingTable.update(table -> {
+            if (timers == null) {
+                routeTimers = null;
+                return;
+            }
+            RouteTimers.Wheel wheel = timers.newWheel();
+            armRouteTimers(table.base(), wheel);
+            routeTimers = wheel;
+        });
+    }
+
+    public RouteChangeListener getRouteChangeListener() {
+        return routeChangeListener;
+    }
+
+    public void setRouteChangeListener(RouteChangeListener routeChangeListener) {
+        this.routeChangeListener = routeChangeListener;
+    }
+
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    public int getFullUpdateCycles() {
+        return fullUpdateCycles;
+    }
+
+    public void setFullUpdateCycles(int fullUpdateCycles) {
+        this.fullUpdateCycles = Math.max(1, fullUpdateCycles);
+        ConvergenceDetector detector = convergenceDetector;
+        if (detector != null) {
+            detector.updateQuietRoundsRequired(); // 取所有路由器中的最大值，不只是最后修改的路由器
+        }
+    }
+
+    public SplitHorizonMode getSplitHorizonMode() {
+        return splitHorizonMode;
+    }
+
+    public void setSplitHorizonMode(SplitHorizonMode splitHorizonMode) {
+        this.splitHorizonMode = splitHorizonMode;
+    }
+
+    public long getUpdatesSent() {
+        return updatesSent;
+    }
+
+    public long getEntriesSent() {
+        return entriesSent;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
     }
 } // end class Router
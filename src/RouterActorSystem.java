@@ -0,0 +1,410 @@
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 路由器 actor 模式（可选开启，见 {@link NetworkTopology#startActors(int, boolean)}）
+ * <p>
+ * 开启后每个路由器是一个运行在虚拟线程上的 actor：发送方的定时线程只把（发送方，路由通告）放入接收方的有界邮箱，
+ * 不再在发送方线程上处理；actor 一次取出邮箱中的所有通告，作为一个修改批次处理（{@link Router#receiveUpdates}），
+ * 因此路由更新对路由表的修改只由接收方自己的线程执行，处理慢的接收方不会拖住发送方。发送统计在处理后记入发送方。
+ * 拓扑变化（故障、退出等）仍由调用方在路由表写锁内执行；开启 UDP 传输时路由通告经 UDP 发送，不经过邮箱。
+ * <p>
+ * 邮箱满时施加背压：邮箱中已有同一发送方的通告时与之合并（见 {@link RouteAdvertisement#coalesce}），否则发送方等待空位。
+ * 邮箱按需从 4 个槽扩容到容量上限，空闲的虚拟线程挂起时不占用载体线程，因此 10 万个路由器只需少量载体线程
+ * （由系统属性 jdk.virtualThreadScheduler.parallelism 设置，默认为处理器数）。邮箱用 ReentrantLock 保护：
+ * JDK 21 中在 synchronized 内等待会占住载体线程。虚拟线程（{@code Thread.ofVirtual()}）需要 JDK 21 或更高版本编译和运行（见 README）。
+ * 同步投递模式下发送方发完一轮路由更新后等待所有邮箱处理完毕，结果与直接调用相同，适用于在调用方线程上推进的离散事件仿真。
+ */
+public class RouterActorSystem implements AutoCloseable {
+    public static final int DEFAULT_MAILBOX_CAPACITY = 64; // 默认邮箱容量（路由通告数）
+    private static final int INITIAL_MAILBOX_SLOTS = 4; // 邮箱初始槽数
+
+    private final int mailboxCapacity; // 邮箱容量
+    private final Set<Actor> actors; // 运行中的 actor
+    private volatile boolean synchronousDelivery; // 是否同步投递
+    private final AtomicLong accepted; // 放入邮箱的通告数（不含被合并的）
+    private final AtomicLong completed; // 已处理（或停止时丢弃）的通告数
+    private final LongAdder coalesced; // 邮箱满时被合并的通告数
+    private final LongAdder dropped; // actor 停止时丢弃的通告数
+    private final LongAdder blockedPosts; // 邮箱满时发送方等待的次数
+    private final LongAdder blockedNanos; // 发送方等待的总时长（纳秒）
+    private final LongAdder batches; // 处理的批次数
+    private final LongAdder depthSum; // 每次放入后的邮箱深度之和（用于计算平均深度）
+    private final LongAdder errors; // 处理批次时抛出的异常数
+    private final AtomicInteger maxDepth; // 邮箱的最大深度
+
+    /**
+     * @param mailboxCapacity     邮箱容量
+     * @param synchronousDelivery 是否同步投递
+     */
+    public RouterActorSystem(int mailboxCapacity, boolean synchronousDelivery) {
+        this.mailboxCapacity = Math.max(1, mailboxCapacity);
+        this.actors = ConcurrentHashMap.newKeySet();
+        this.synchronousDelivery = synchronousDelivery;
+        this.accepted = new AtomicLong();
+        this.completed = new AtomicLong();
+        this.coalesced = new LongAdder();
+        this.dropped = new LongAdder();
+        this.blockedPosts = new LongAdder();
+        this.blockedNanos = new LongAdder();
+        this.batches = new LongAdder();
+        this.depthSum = new LongAdder();
+        this.errors = new LongAdder();
+        this.maxDepth = new AtomicInteger();
+    } // end RouterActorSystem()
+
+    /**
+     * 为路由器启动 actor（已启动时忽略）
+     *
+     * @param router 路由器
+     */
+    public void start(Router router) {
+        if (router.getActor() != null) {
+            return;
+        }
+        Actor actor = new Actor(router);
+        actors.add(actor);
+        router.setActor(actor);
+        actor.thread.start();
+    } // end start()
+
+    /**
+     * 停止路由器的 actor：丢弃邮箱中未处理的通告，等待正在处理的批次结束（返回后 actor 不会再修改路由表）
+     *
+     * @param router 路由器（没有本系统的 actor 时忽略）
+     */
+    public void stop(Router router) {
+        Actor actor = router.getActor();
+        if (actor == null || actor.getSystem() != this) {
+            return;
+        }
+        router.setActor(null);
+        actor.shutdown();
+        actor.join();
+        actors.remove(actor);
+    } // end stop()
+
+    /**
+     * 同步投递时，等待已放入邮箱的通告全部处理完毕；异步投递时立即返回
+     */
+    public void awaitDelivery() {
+        if (!synchronousDelivery) {
+            return;
+        }
+        while (completed.get() < accepted.get()) {
+            Thread.yield();
+        }
+    } // end awaitDelivery()
+
+    /**
+     * 停止所有 actor（先全部通知，再逐个等待）
+     */
+    @Override
+    public void close() {
+        for (Actor actor : actors) {
+            actor.router.setActor(null);
+            actor.shutdown();
+        }
+        for (Actor actor : actors) {
+            actor.join();
+        }
+        actors.clear();
+    } // end close()
+
+    /**
+     * 统计摘要
+     */
+    @Override
+    public String toString() {
+        long posted = accepted.get() + coalesced.sum();
+        return "actor " + actors.size() + " 个，投递通告 " + posted + " 个，合并 " + coalesced.sum() + " 个，处理批次 "
+                + batches.sum() + " 个（平均每批 " + String.format("%.2f", (double) completed.get() / Math.max(1, batches.sum()))
+                + " 个通告），邮箱平均深度 " + String.format("%.2f", (double) depthSum.sum() / Math.max(1, accepted.get()))
+                + "，最大深度 " + maxDepth.get() + "，当前积压 " + getQueuedAdvertisements() + " 个，发送方等待 "
+                + blockedPosts.sum() + " 次（" + String.format("%.3f", blockedNanos.sum() / 1e6) + " ms），丢弃 "
+                + dropped.sum() + " 个，异常 " + errors.sum() + " 个";
+    } // end toString()
+
+    public int getMailboxCapacity() {
+        return mailboxCapacity;
+    }
+
+    public boolean isSynchronousDelivery() {
+        return synchronousDelivery;
+    }
+
+    public void setSynchronousDelivery(boolean synchronousDelivery) {
+        this.synchronousDelivery = synchronousDelivery;
+    }
+
+    public int getActorCount() {
+        return actors.size();
+    }
+
+    public long getPostedAdvertisements() {
+        return accepted.get() + coalesced.sum();
+    }
+
+    public long getProcessedAdvertisements() {
+        return completed.get() - dropped.sum();
+    }
+
+    /**
+     * 所有邮箱中尚未处理的通告数
+     */
+    public long getQueuedAdvertisements() {
+        return accepted.get() - completed.get();
+    }
+
+    public long getCoalescedAdvertisements() {
+        return coalesced.sum();
+    }
+
+    public long getDroppedAdvertisements() {
+        return dropped.sum();
+    }
+
+    public long getBlockedPosts() {
+        return blockedPosts.sum();
+    }
+
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 路由器的 actor：有界邮箱（环形缓冲）和处理邮箱的虚拟线程
+     */
+    public final class Actor implements Runnable {
+        private final Router router; // 路由器
+        private final Thread thread; // 虚拟线程
+        private final ReentrantLock lock; // 邮箱锁
+        private final Condition notEmpty; // 邮箱非空
+        private final Condition notFull; // 邮箱有空位
+        private Router[] senders; // 槽 -> 发送方（环形缓冲，由邮箱锁保护）
+        private RouteAdvertisement[] advertisements; // 槽 -> 路由通告
+        private int head; // 最早的通告所在的槽
+        private int count; // 邮箱中的通告数
+        private boolean running; // 是否运行中
+
+        /* 以下字段只由 actor 线程访问 */
+        private Router[] batchSenders; // 本批次的发送方
+        private RouteAdvertisement[] batchAdvertisements; // 本批次的路由通告
+        private int[] batchEntries; // 本批次各通告的路由表项数
+
+        private Actor(Router router) {
+            this.router = router;
+            this.lock = new ReentrantLock();
+            this.notEmpty = lock.newCondition();
+            this.notFull = lock.newCondition();
+            int slots = Math.min(INITIAL_MAILBOX_SLOTS, mailboxCapacity);
+            this.senders = new Router[slots];
+            this.advertisements = new RouteAdvertisement[slots];
+            this.batchSenders = new Router[slots];
+            this.batchAdvertisements = new RouteAdvertisement[slots];
+            this.batchEntries = new int[slots];
+            this.running = true;
+            this.thread = Thread.ofVirtual().name("rip-actor-" + router.getRouterName()).unstarted(this);
+        } // end Actor()
+
+        /**
+         * 把路由通告放入邮箱（邮箱满时合并或等待）
+         *
+         * @param sender        发送方
+         * @param advertisement 路由通告
+         * @return 是否已放入（actor 已停止时为 false，由调用方直接处理）
+         */
+        public boolean post(Router sender, RouteAdvertisement advertisement) {
+            lock.lock();
+            try {
+                if (!running) {
+                    return false;
+                }
+                if (count == mailboxCapacity) {
+                    for (int i = 0; i < count; i++) {
+                        int slot = (head + i) % senders.length;
+                        if (senders[slot] == sender) { // 同一发送方较新的通告覆盖较旧的通告
+                            advertisements[slot] = advertisement.coalesce(advertisements[slot]);
+                            coalesced.increment();
+                            return true;
+                        }
+                    }
+                    blockedPosts.increment();
+                    long start = System.nanoTime();
+                    while (count == mailboxCapacity && running) {
+                        notFull.awaitUninterruptibly();
+                    }
+                    blockedNanos.add(System.nanoTime() - start);
+                    if (!running) {
+                        return false;
+                    }
+                }
+                if (count == senders.length) {
+                    grow();
+                }
+                int slot = (head + count) % senders.length;
+                senders[slot] = sender;
+                advertisements[slot] = advertisement;
+                count++;
+                accepted.incrementAndGet();
+                depthSum.add(count);
+                if (count > maxDepth.get()) {
+                    maxDepth.accumulateAndGet(count, Math::max);
+                }
+                if (count == 1) {
+                    notEmpty.signal();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } // end post()
+
+        /**
+         * 邮箱扩容为两倍（不超过容量），通告按先后顺序移到新数组的开头
+         */
+        private void grow() {
+            int slots = Math.min(senders.length * 2, mailboxCapacity);
+            Router[] newSenders = new Router[slots];
+            RouteAdvertisement[] newAdvertisements = new RouteAdvertisement[slots];
+            for (int i = 0; i < count; i++) {
+                int slot = (head + i) % senders.length;
+                newSenders[i] = senders[slot];
+                newAdvertisements[i] = advertisements[slot];
+            }
+            senders = newSenders;
+            advertisements = newAdvertisements;
+            head = 0;
+        } // end grow()
+
+        /**
+         * actor 主循环：等待邮箱非空，取出所有通告作为一个批次处理
+         */
+        @Override
+        public void run() {
+            while (true) {
+                int n;
+                lock.lock();
+                try {
+                    while (count == 0 && running) {
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (!running) {
+                        return;
+                    }
+                    n = count;
+                    if (batchSenders.length < n) {
+                        batchSenders = new Router[senders.length];
+                        batchAdvertisements = new RouteAdvertisement[senders.length];
+                        batchEntries = new int[senders.length];
+                    }
+                    for (int i = 0; i < n; i++) {
+                        int slot = (head + i) % senders.length;
+                        batchSenders[i] = senders[slot];
+                        batchAdvertisements[i] = advertisements[slot];
+                        senders[slot] = null;
+                        advertisements[slot] = null;
+                    }
+                    head = (head + n) % senders.length;
+                    count = 0;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    router.receiveUpdates(batchSenders, batchAdvertisements, n, batchEntries);
+                    for (int i = 0; i < n; i++) {
+                        batchSenders[i].recordSent(batchEntries[i]);
+                    }
+                } catch (RuntimeException e) { // 单个批次出错不结束 actor
+                    errors.increment();
+                } finally {
+                    for (int i = 0; i < n; i++) {
+                        batchSenders[i] = null;
+                        batchAdvertisements[i] = null;
+                    }
+                    batches.increment();
+                    completed.addAndGet(n);
+                }
+            }
+        } // end run()
+
+        /**
+         * 停止：丢弃邮箱中的通告，唤醒 actor 和等待空位的发送方
+         */
+        private void shutdown() {
+            lock.lock();
+            try {
+                if (!running) {
+                    return;
+                }
+                running = false;
+                for (int i = 0; i < count; i++) {
+                    int slot = (head + i) % senders.length;
+                    senders[slot] = null;
+                    advertisements[slot] = null;
+                }
+                dropped.add(count);
+                completed.addAndGet(count);
+                count = 0;
+                notEmpty.signal();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } // end shutdown()
+
+        private void join() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } // end join()
+
+        public RouterActorSystem getSystem() {
+            return RouterActorSystem.this;
+        }
+
+        public Router getRouter() {
+            return router;
+        }
+
+        /**
+         * 邮箱中的通告数
+         */
+        public int getDepth() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    } // end class Actor
+} // end class RouterActorSystem
@@ -0,0 +1,706 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * 线程安全的路由表类（写时复制，按网络编号存储的基本类型数组）
+ * <p>
+ * 路由表按网络编号（{@link Network#getNetworkId()}）分块存储：跳数存放在 byte[] 中（0 表示无此路由表项），
+ * 下一跳路由器编号（{@link Router#getRouterId()}）存放在 int[] 中。
+ * 写入方按批次修改路由表：批次内首次修改某一块时才复制该块，批次结束后通过一次 volatile 写发布新快照，
+ * 写入方之间互斥；读取方（打印、发送路由更新、导出等）只读取不可变快照，始终得到一致的视图，且从不阻塞写入方。
+ * <p>
+ * 写入方另外维护下一跳索引（下一跳路由器编号 -> 经由它的目的网络），路由器故障、退出时只需处理受影响的路由表项，
+ * 不必遍历整个路由表。
+ */
+public class RoutingTable {
+    public static final int UNREACHABLE = 16; // 不可达的跳数
+    private static final int CHUNK_SHIFT = 8; // 每块 256 个网络编号
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 块大小
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1; // 块内下标掩码
+
+    private final ReentrantLock writeLock; // 写锁（只在写入方之间互斥）
+    private final IntConsumer changeListener; // 路由表项变化监听器（参数为网络编号，在新快照发布后调用）
+    private final NextHopIndex nextHopIndex; // 下一跳索引（只在持有写锁时访问）
+    private volatile Snapshot snapshot; // 当前快照（不可变）
+    private volatile long version; // 快照版本号（每发布一次新快照加1）
+
+    public RoutingTable() {
+        this(networkId -> {
+        });
+    } // end RoutingTable()
+
+    public RoutingTable(IntConsumer changeListener) {
+        this.writeLock = new ReentrantLock();
+        this.changeListener = changeListener;
+        this.nextHopIndex = new NextHopIndex();
+        this.snapshot = Snapshot.EMPTY;
+    } // end RoutingTable()
+
+    /**
+     * 获取当前快照
+     *
+     * @return 不可变的路由表快照
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    } // end snapshot()
+
+    /**
+     * 获取当前快照的 Map 视图（兼容以 Network 为键的调用方）
+     *
+     * @return 不可变的路由表视图
+     */
+    public Map<Network, RouteTableEntry> asMap() {
+        return snapshot.asMap();
+    } // end asMap()
+
+    /**
+     * 以一个批次修改路由表
+     *
+     * @param mutation 修改操作
+     */
+    public void update(Consumer<Editor> mutation) {
+        writeLock.lock();
+        try {
+            Editor editor = new Editor(snapshot, nextHopIndex);
+            try {
+                mutation.accept(editor);
+            } catch (RuntimeException | Error e) {
+                if (editor.modified) {
+                    nextHopIndex.rebuild(snapshot); // 批次未发布，下一跳索引回到当前快照
+                }
+                throw e;
+            }
+            if (editor.modified) {
+                snapshot = editor.build();
+                version++;
+            }
+            /* 先发布新快照再通知变化，保证收到通知的一方一定能读到变化后的路由表项 */
+            for (int i = 0; i < editor.changedCount; i++) {
+                changeListener.accept(editor.changedNetworkIds[i]);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    } // end update()
+
+    /**
+     * 用指定的路由表项替换整个路由表
+     *
+     * @param entries 路由表项
+     */
+    public void replaceAll(Map<Network, RouteTableEntry> entries) {
+        update(editor -> {
+            editor.clear();
+            for (Map.Entry<Network, RouteTableEntry> entry : entries.entrySet()) {
+                Router nextHop = entry.getValue().getNextHop();
+                editor.put(entry.getKey().getNetworkId(), entry.getValue().getHops(), nextHop.getRouterId());
+            }
+        });
+    } // end replaceAll()
+
+    /**
+     * 整表载入路由表项（替换整个路由表，用于从检查点恢复）：直接构造新快照的块，下一跳索引延迟到首次使用时建立，不通知监听器
+     *
+     * @param networkIds 目的网络编号（不重复）
+     * @param hops       跳数（1～16）
+     * @param nextHopIds 下一跳路由器编号
+     * @param count      路由表项数
+     */
+    public void load(int[] networkIds, byte[] hops, int[] nextHopIds, int count) {
+        byte[][] hopChunks = new byte[0][];
+        int[][] nextHopChunks = new int[0][];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int networkId = networkIds[i];
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk >= hopChunks.length) {
+                int length = Math.max(hopChunks.length * 2, chunk + 1);
+                hopChunks = Arrays.copyOf(hopChunks, length);
+                nextHopChunks = Arrays.copyOf(nextHopChunks, length);
+            }
+            if (hopChunks[chunk] == null) {
+                hopChunks[chunk] = new byte[CHUNK_SIZE];
+                nextHopChunks[chunk] = new int[CHUNK_SIZE];
+            }
+            if (hopChunks[chunk][networkId & CHUNK_MASK] == 0) {
+                size++;
+            }
+            hopChunks[chunk][networkId & CHUNK_MASK] = hops[i];
+            nextHopChunks[chunk][networkId & CHUNK_MASK] = nextHopIds[i];
+        }
+
+        load(new Snapshot(hopChunks, nextHopChunks, size));
+    } // end load()
+
+    /**
+     * 整表载入已有的快照（快照不可变，可以与其它路由表共享块），下一跳索引延迟到首次使用时建立，不通知监听器
+     *
+     * @param snapshot 快照
+     */
+    public void load(Snapshot snapshot) {
+        writeLock.lock();
+        try {
+            this.snapshot = snapshot;
+            version++;
+            nextHopIndex.deferRebuild(snapshot);
+        } finally {
+            writeLock.unlock();
+        }
+    } // end load()
+
+    /**
+     * 清空路由表（路由器回收时调用，不通知监听器）：发布空快照，下一跳索引只清空链表头，保留按块分配的链表指针供之后复用
+     */
+    public void reset() {
+        writeLock.lock();
+        try {
+            snapshot = Snapshot.EMPTY;
+            version++;
+            nextHopIndex.reset();
+        } finally {
+            writeLock.unlock();
+        }
+    } // end reset()
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 不可变的路由表快照
+     */
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new byte[0][], new int[0][], 0);
+
+        private final byte[][] hopChunks; // 跳数（按块存储，null 表示整块为空）
+        private final int[][] nextHopChunks; // 下一跳路由器编号（按块存储）
+        private final int size; // 路由表项数
+        private Map<Network, RouteTableEntry> mapView; // Map 视图（首次使用时创建）
+
+        private Snapshot(byte[][] hopChunks, int[][] nextHopChunks, int size) {
+            this.hopChunks = hopChunks;
+            this.nextHopChunks = nextHopChunks;
+            this.size = size;
+        } // end Snapshot()
+
+        /**
+         * 获取到目的网络的跳数
+         *
+         * @param networkId 网络编号
+         * @return 跳数（0 表示无此路由表项）
+         */
+        public int hops(int networkId) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk >= hopChunks.length || hopChunks[chunk] == null) {
+                return 0;
+            }
+            return hopChunks[chunk][networkId & CHUNK_MASK];
+        } // end hops()
+
+        /**
+         * 获取到目的网络的下一跳路由器编号
+         *
+         * @param networkId 网络编号
+         * @return 下一跳路由器编号（无此路由表项时为 -1）
+         */
+        public int nextHop(int networkId) {
+            if (hops(networkId) == 0) {
+                return -1;
+            }
+            return nextHopChunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK];
+        } // end nextHop()
+
+        /**
+         * 查找不小于指定编号的下一个路由表项（跳过整块为空的块）
+         *
+         * @param fromNetworkId 起始网络编号
+         * @return 网络编号（没有更多路由表项时为 -1）
+         */
+        public int nextNetworkId(int fromNetworkId) {
+            int chunk = fromNetworkId >>> CHUNK_SHIFT;
+            int index = fromNetworkId & CHUNK_MASK;
+            for (; chunk < hopChunks.length; chunk++, index = 0) {
+                byte[] hops = hopChunks[chunk];
+                if (hops == null) {
+                    continue;
+                }
+                for (; index < CHUNK_SIZE; index++) {
+                    if (hops[index] != 0) {
+                        return (chunk << CHUNK_SHIFT) | index;
+                    }
+                }
+            }
+            return -1;
+        } // end nextNetworkId()
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 获取 Map 视图（路由表项对象按需创建）
+         *
+         * @return 不可变的路由表视图
+         */
+        public Map<Network, RouteTableEntry> asMap() {
+            if (mapView == null) {
+                mapView = new SnapshotMap(this); // 多个线程同时创建也无妨，视图本身无状态
+            }
+            return mapView;
+        } // end asMap()
+
+        /**
+         * 创建路由表项对象
+         *
+         * @param networkId 网络编号
+         * @return 路由表项（无此路由表项时为 null）
+         */
+        private RouteTableEntry entry(int networkId) {
+            int hops = hops(networkId);
+            if (hops == 0) {
+                return null;
+            }
+            return new RouteTableEntry(Network.byId(networkId), hops, Router.byId(nextHop(networkId)));
+        } // end entry()
+    } // end class Snapshot
+
+    /**
+     * 快照的 Map 视图
+     */
+    private static final class SnapshotMap extends AbstractMap<Network, RouteTableEntry> {
+        private final Snapshot snapshot; // 快照
+
+        private SnapshotMap(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        } // end SnapshotMap()
+
+        @Override
+        public RouteTableEntry get(Object key) {
+            return key instanceof Network network ? snapshot.entry(network.getNetworkId()) : null;
+        } // end get()
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Network network && snapshot.hops(network.getNetworkId()) != 0;
+        } // end containsKey()
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        } // end size()
+
+        @Override
+        public Set<Entry<Network, RouteTableEntry>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Network, RouteTableEntry>> iterator() {
+                    return new Iterator<>() {
+                        private int networkId = snapshot.nextNetworkId(0); // 下一个路由表项的网络编号
+
+                        @Override
+                        public boolean hasNext() {
+                            return networkId >= 0;
+                        } // end hasNext()
+
+                        @Override
+                        public Entry<Network, RouteTableEntry> next() {
+                            if (networkId < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            RouteTableEntry entry = snapshot.entry(networkId);
+                            networkId = snapshot.nextNetworkId(networkId + 1);
+                            return new SimpleImmutableEntry<>(entry.getDestination(), entry);
+                        } // end next()
+                    };
+                } // end iterator()
+
+                @Override
+                public int size() {
+                    return snapshot.size();
+                } // end size()
+            };
+        } // end entrySet()
+    } // end class SnapshotMap
+
+    /**
+     * 下一跳索引：每个下一跳路由器对应一条以网络编号串起的双向链表（数组实现，添加、移除均为 O(1)）
+     * <p>
+     * 链表指针与路由表一样按块分配，只为有路由表项的块分配；下一跳（相邻路由器）数量很少，用开放寻址的小哈希表存放链表头，
+     * 因此索引占用的内存与路由表项数、相邻路由器数成正比，与网络编号、路由器编号的总数无关。
+     */
+    private static final class NextHopIndex {
+        private int[][] nextChunks = new int[0][]; // 网络编号 -> 后继网络编号 + 1（按块存储）
+        private int[][] prevChunks = new int[0][]; // 网络编号 -> 前驱网络编号 + 1（按块存储）
+        private int[] keys = new int[8]; // 下一跳路由器编号 + 1（0 表示空槽）
+        private int[] heads = new int[8]; // 链表头的网络编号 + 1（0 表示空链表）
+        private int[] counts = new int[8]; // 链表长度
+        private int keyCount; // 已占用的槽数
+        private Snapshot pending; // 整表载入后尚未建立索引的快照（首次使用索引时再建立）
+
+        /**
+         * 查找下一跳所在的槽
+         *
+         * @param nextHopId 下一跳路由器编号
+         * @param create    不存在时是否占用新槽
+         * @return 槽下标（不存在且不创建时为 -1）
+         */
+        private int slot(int nextHopId, boolean create) {
+            int mask = keys.length - 1;
+            int slot = (nextHopId * 0x9E3779B9) >>> 16 & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == nextHopId + 1) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!create) {
+                return -1;
+            }
+            if (2 * (keyCount + 1) > keys.length) { // 负载因子不超过 1/2
+                resize();
+                return slot(nextHopId, true);
+            }
+            keys[slot] = nextHopId + 1;
+            keyCount++;
+            return slot;
+        } // end slot()
+
+        /**
+         * 哈希表扩容
+         */
+        private void resize() {
+            int[] oldKeys = keys, oldHeads = heads, oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            heads = new int[keys.length];
+            counts = new int[keys.length];
+            keyCount = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i] - 1, true);
+                    heads[slot] = oldHeads[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        } // end resize()
+
+        private int next(int networkId) {
+            return nextChunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK];
+        } // end next()
+
+        private int prev(int networkId) {
+            return prevChunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK];
+        } // end prev()
+
+        private void setNext(int networkId, int value) {
+            nextChunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK] = value;
+        } // end setNext()
+
+        private void setPrev(int networkId, int value) {
+            prevChunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK] = value;
+        } // end setPrev()
+
+        /**
+         * 把网络加入下一跳的链表
+         *
+         * @param networkId 网络编号
+         * @param nextHopId 下一跳路由器编号
+         */
+        private void link(int networkId, int nextHopId) {
+            ensureBuilt();
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk >= nextChunks.length) {
+                int length = Math.max(nextChunks.length * 2, chunk + 1);
+                nextChunks = Arrays.copyOf(nextChunks, length);
+                prevChunks = Arrays.copyOf(prevChunks, length);
+            }
+            if (nextChunks[chunk] == null) {
+                nextChunks[chunk] = new int[CHUNK_SIZE];
+                prevChunks[chunk] = new int[CHUNK_SIZE];
+            }
+
+            int slot = slot(nextHopId, true);
+            int head = heads[slot];
+            setNext(networkId, head);
+            setPrev(networkId, 0);
+            if (head != 0) {
+                setPrev(head - 1, networkId + 1);
+            }
+            heads[slot] = networkId + 1;
+            counts[slot]++;
+        } // end link()
+
+        /**
+         * 把网络移出下一跳的链表
+         *
+         * @param networkId 网络编号
+         * @param nextHopId 下一跳路由器编号
+         */
+        private void unlink(int networkId, int nextHopId) {
+            ensureBuilt();
+            int slot = slot(nextHopId, false);
+            int before = prev(networkId);
+            int after = next(networkId);
+            if (before != 0) {
+                setNext(before - 1, after);
+            } else {
+                heads[slot] = after;
+            }
+            if (after != 0) {
+                setPrev(after - 1, before);
+            }
+            counts[slot]--;
+        } // end unlink()
+
+        /**
+         * 获取经由下一跳的所有网络编号
+         *
+         * @param nextHopId 下一跳路由器编号
+         * @return 网络编号（复制的数组，遍历时可以修改路由表）
+         */
+        private int[] networksVia(int nextHopId) {
+            ensureBuilt();
+            int slot = nextHopId < 0 ? -1 : slot(nextHopId, false);
+            if (slot < 0 || counts[slot] == 0) {
+                return new int[0];
+            }
+            int[] networkIds = new int[counts[slot]];
+            int i = 0;
+            for (int node = heads[slot]; node != 0; node = next(node - 1)) {
+                networkIds[i++] = node - 1;
+            }
+            return networkIds;
+        } // end networksVia()
+
+        /**
+         * 清空索引
+         */
+        private void clear() {
+            nextChunks = new int[0][];
+            prevChunks = new int[0][];
+            keys = new int[8];
+            heads = new int[8];
+            counts = new int[8];
+            keyCount = 0;
+            pending = null;
+        } // end clear()
+
+        /**
+         * 清空索引但保留链表指针的块：link() 总是先写入节点的前驱、后继，旧值不会被读取，因此不必清零
+         */
+        private void reset() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(heads, 0);
+            Arrays.fill(counts, 0);
+            keyCount = 0;
+            pending = null;
+        } // end reset()
+
+        /**
+         * 按快照重建索引
+         *
+         * @param snapshot 快照
+         */
+        private void rebuild(Snapshot snapshot) {
+            clear();
+            for (int chunk = 0; chunk < snapshot.hopChunks.length; chunk++) { // 直接遍历块，不逐项查找
+                byte[] hops = snapshot.hopChunks[chunk];
+                if (hops == null) {
+                    continue;
+                }
+                int[] nextHops = snapshot.nextHopChunks[chunk];
+                for (int index = 0; index < CHUNK_SIZE; index++) {
+                    if (hops[index] != 0) {
+                        link((chunk << CHUNK_SHIFT) | index, nextHops[index]);
+                    }
+                }
+            }
+        } // end rebuild()
+
+        /**
+         * 延迟重建索引：整表载入后只记录快照，首次使用索引时才建立（收敛后不再变化的路由表从不建立索引）
+         *
+         * @param snapshot 快照
+         */
+        private void deferRebuild(Snapshot snapshot) {
+            clear();
+            pending = snapshot;
+        } // end deferRebuild()
+
+        private void ensureBuilt() {
+            if (pending != null) {
+                rebuild(pending); // clear() 清除 pending，之后的 link() 不再重复建立
+            }
+        } // end ensureBuilt()
+    } // end class NextHopIndex
+
+    /**
+     * 一个修改批次（只在持有写锁时使用，首次修改某一块时才复制该块）
+     */
+    public static final class Editor {
+        private final Snapshot base; // 批次开始时的快照
+        private final NextHopIndex nextHopIndex; // 下一跳索引（随修改同步维护）
+        private byte[][] hopChunks; // 跳数（块数组已复制）
+        private int[][] nextHopChunks; // 下一跳路由器编号（块数组已复制）
+        private boolean[] copiedChunks; // 本批次中已复制的块
+        private int size; // 路由表项数
+        private boolean modified; // 是否已修改
+        private int[] changedNetworkIds; // 本批次中发生变化的网络编号
+        private int changedCount; // 本批次中发生变化的网络数
+
+        private Editor(Snapshot base, NextHopIndex nextHopIndex) {
+            this.base = base;
+            this.nextHopIndex = nextHopIndex;
+            this.size = base.size;
+            this.changedNetworkIds = new int[8];
+        } // end Editor()
+
+        /**
+         * 获取批次开始时的快照（遍历时可以安全地修改本批次）
+         *
+         * @return 快照
+         */
+        public Snapshot base() {
+            return base;
+        } // end base()
+
+        /**
+         * 记录路由表项变化（批次结束、新快照发布后通知监听器）
+         *
+         * @param networkId 网络编号
+         */
+        public void markChanged(int networkId) {
+            if (changedCount == changedNetworkIds.length) {
+                changedNetworkIds = Arrays.copyOf(changedNetworkIds, changedCount * 2);
+            }
+            changedNetworkIds[changedCount++] = networkId;
+        } // end markChanged()
+
+        public int hops(int networkId) {
+            if (!modified) {
+                return base.hops(networkId);
+            }
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (chunk >= hopChunks.length || hopChunks[chunk] == null) {
+                return 0;
+            }
+            return hopChunks[chunk][networkId & CHUNK_MASK];
+        } // end hops()
+
+        public int nextHop(int networkId) {
+            if (hops(networkId) == 0) {
+                return -1;
+            }
+            int[][] chunks = modified ? nextHopChunks : base.nextHopChunks;
+            return chunks[networkId >>> CHUNK_SHIFT][networkId & CHUNK_MASK];
+        } // end nextHop()
+
+        /**
+         * 获取以指定路由器为下一跳的所有路由表项（含不可达的路由表项），耗时与结果数成正比
+         *
+         * @param nextHopId 下一跳路由器编号
+         * @return 网络编号（遍历时可以修改本批次）
+         */
+        public int[] networksVia(int nextHopId) {
+            return nextHopIndex.networksVia(nextHopId);
+        } // end networksVia()
+
+        /**
+         * 添加或替换路由表项
+         *
+         * @param networkId 网络编号
+         * @param hops      跳数（1～16）
+         * @param nextHopId 下一跳路由器编号
+         */
+        public void put(int networkId, int hops, int nextHopId) {
+            int oldNextHopId = nextHop(networkId);
+            if (oldNextHopId != nextHopId) {
+                if (oldNextHopId >= 0) {
+                    nextHopIndex.unlink(networkId, oldNextHopId);
+                }
+                nextHopIndex.link(networkId, nextHopId);
+            }
+            int chunk = writableChunk(networkId);
+            int index = networkId & CHUNK_MASK;
+            if (hopChunks[chunk][index] == 0) {
+                size++;
+            }
+            hopChunks[chunk][index] = (byte) hops;
+            nextHopChunks[chunk][index] = nextHopId;
+        } // end put()
+
+        /**
+         * 移除路由表项
+         *
+         * @param networkId 网络编号
+         */
+        public void remove(int networkId) {
+            if (hops(networkId) == 0) {
+                return;
+            }
+            nextHopIndex.unlink(networkId, nextHop(networkId));
+            int chunk = writableChunk(networkId);
+            hopChunks[chunk][networkId & CHUNK_MASK] = 0;
+            size--;
+        } // end remove()
+
+        /**
+         * 清空路由表
+         */
+        public void clear() {
+            if (size == 0) {
+                return;
+            }
+            modified = true;
+            nextHopIndex.clear();
+            hopChunks = new byte[0][];
+            nextHopChunks = new int[0][];
+            copiedChunks = new boolean[0];
+            size = 0;
+        } // end clear()
+
+        /**
+         * 获取可写的块（首次修改时复制块数组与该块）
+         *
+         * @param networkId 网络编号
+         * @return 块下标
+         */
+        private int writableChunk(int networkId) {
+            int chunk = networkId >>> CHUNK_SHIFT;
+            if (!modified) {
+                modified = true;
+                int length = Math.max(base.hopChunks.length, chunk + 1);
+                hopChunks = Arrays.copyOf(base.hopChunks, length);
+                nextHopChunks = Arrays.copyOf(base.nextHopChunks, length);
+                copiedChunks = new boolean[length];
+            } else if (chunk >= hopChunks.length) {
+                int length = Math.max(hopChunks.length * 2, chunk + 1);
+                hopChunks = Arrays.copyOf(hopChunks, length);
+                nextHopChunks = Arrays.copyOf(nextHopChunks, length);
+                copiedChunks = Arrays.copyOf(copiedChunks, length);
+            }
+
+            if (!copiedChunks[chunk]) {
+                copiedChunks[chunk] = true;
+                hopChunks[chunk] = hopChunks[chunk] == null ? new byte[CHUNK_SIZE] : hopChunks[chunk].clone();
+                nextHopChunks[chunk] = nextHopChunks[chunk] == null ? new int[CHUNK_SIZE] : nextHopChunks[chunk].clone();
+            }
+            return chunk;
+        } // end writableChunk()
+
+        /**
+         * 生成新快照
+         *
+         * @return 快照
+         */
+        private Snapshot build() {
+            return new Snapshot(hopChunks, nextHopChunks, size);
+        } // end build()
+    } // end class Editor
+} // end class RoutingTable
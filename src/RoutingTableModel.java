@@ -0,0 +1,200 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 路由表的表格模型（供 JTable 按需渲染可见行，可按路由器筛选）
+ * <p>
+ * 每一行是一个路由器的一个路由表项，单元格的值在渲染时从该路由器的不可变快照中读取。
+ * 路由器在修改路由表的线程上报告变化的路由表项，模型只把它们记入待处理集合，并至多提交一个 EDT 任务：
+ * 任务在 EDT 上一次取出所有待处理的变化，已有的行只发出行级更新事件（只重绘这些行），
+ * 路由表项新增、移除或路由器加入、退出时才重建行索引。
+ */
+public class RoutingTableModel extends AbstractTableModel implements Router.RouteChangeListener {
+    private static final String[] COLUMN_NAMES = {"路由器", "目的网络", "跳数", "下一跳"}; // 列名
+
+    private final NetworkTopology networkTopology; // 网络拓扑
+    private final Map<Router, NetworkIdSet> pendingChanges; // 待处理的变化：路由器 -> 变化的网络编号（由 pendingChanges 加锁）
+    private final AtomicBoolean flushScheduled; // 是否已提交 EDT 任务
+    private volatile boolean routersChanged; // 路由器是否发生变化（需要重建行索引）
+
+    /* 以下字段只在 EDT 上访问 */
+    private Set<String> routerFilter; // 只显示这些路由器（空集合表示显示所有路由器）
+    private Router[] rowRouters; // 行 -> 路由器
+    private int[] rowNetworkIds; // 行 -> 目的网络编号（同一路由器的行按网络编号升序排列）
+    private Map<Router, int[]> routerRows; // 路由器 -> {第一行, 行数}
+
+    public RoutingTableModel(NetworkTopology networkTopology) {
+        this.networkTopology = networkTopology;
+        this.pendingChanges = new HashMap<>();
+        this.flushScheduled = new AtomicBoolean();
+        this.routerFilter = Collections.emptySet();
+        this.rowRouters = new Router[0];
+        this.rowNetworkIds = new int[0];
+        this.routerRows = new HashMap<>();
+        rebuildRows();
+        networkTopology.setRouteChangeListener(this);
+    } // end RoutingTableModel()
+
+    @Override
+    public void onRouteChanged(Router router, int networkId) {
+        synchronized (pendingChanges) {
+            pendingChanges.computeIfAbsent(router, key -> new NetworkIdSet()).add(networkId);
+        }
+        scheduleFlush();
+    } // end onRouteChanged()
+
+    @Override
+    public void onRoutersChanged() {
+        routersChanged = true;
+        scheduleFlush();
+    } // end onRoutersChanged()
+
+    /**
+     * 提交 EDT 任务（已提交且尚未执行时不重复提交，期间的变化由同一个任务处理）
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    } // end scheduleFlush()
+
+    /**
+     * 在 EDT 上处理所有待处理的变化
+     */
+    private void flush() {
+        flushScheduled.set(false); // 先清除标志，之后到达的变化会提交新的任务
+        Map<Router, int[]> changes = new HashMap<>();
+        synchronized (pendingChanges) {
+            for (Map.Entry<Router, NetworkIdSet> entry : pendingChanges.entrySet()) {
+                changes.put(entry.getKey(), entry.getValue().drain());
+            }
+            pendingChanges.clear();
+        }
+        boolean rebuild = routersChanged;
+        routersChanged = false;
+
+        if (!rebuild) {
+            BitSet updatedRows = new BitSet(); // 变化的行号
+            outer:
+            for (Map.Entry<Router, int[]> entry : changes.entrySet()) {
+                Router router = entry.getKey();
+                int[] rows = routerRows.get(router);
+                if (rows == null) {
+                    continue; // 未显示的路由器
+                }
+                RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+                for (int networkId : entry.getValue()) {
+                    int row = Arrays.binarySearch(rowNetworkIds, rows[0], rows[0] + rows[1], networkId);
+                    if (row < 0 || snapshot.hops(networkId) == 0) {
+                        rebuild = true; // 路由表项新增或移除，行号发生变化
+                        break outer;
+                    }
+                    updatedRows.set(row);
+                }
+            }
+            if (!rebuild) {
+                for (int row = updatedRows.nextSetBit(0); row >= 0; row = updatedRows.nextSetBit(row)) {
+                    int end = updatedRows.nextClearBit(row);
+                    fireTableRowsUpdated(row, end - 1); // 连续的行合并为一个事件
+                    row = end;
+                }
+                return;
+            }
+        }
+        rebuildRows();
+        fireTableDataChanged();
+    } // end flush()
+
+    /**
+     * 按当前快照重建行索引
+     */
+    private void rebuildRows() {
+        List<Router> routers = new ArrayList<>();
+        int rowCount = 0;
+        for (Router router : networkTopology.getRouters().toArray(new Router[0])) { // 复制而不迭代：路由器加入、退出后还会再次重建
+            if (router != null && (routerFilter.isEmpty() || routerFilter.contains(router.getRouterName()))) {
+                routers.add(router);
+            }
+        }
+
+        RoutingTable.Snapshot[] snapshots = new RoutingTable.Snapshot[routers.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = routers.get(i).getRoutingTableSnapshot();
+            rowCount += snapshots[i].size();
+        }
+
+        Router[] newRowRouters = new Router[rowCount];
+        int[] newRowNetworkIds = new int[rowCount];
+        Map<Router, int[]> newRouterRows = new HashMap<>();
+        int row = 0;
+        for (int i = 0; i < snapshots.length; i++) {
+            int firstRow = row;
+            RoutingTable.Snapshot snapshot = snapshots[i];
+            for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+                newRowRouters[row] = routers.get(i);
+                newRowNetworkIds[row++] = networkId;
+            }
+            newRouterRows.put(routers.get(i), new int[]{firstRow, row - firstRow});
+        }
+        rowRouters = newRowRouters;
+        rowNetworkIds = newRowNetworkIds;
+        routerRows = newRouterRows;
+    } // end rebuildRows()
+
+    /**
+     * 设置路由器筛选（在 EDT 上调用）
+     *
+     * @param routerNames 路由器名称（空集合表示显示所有路由器）
+     */
+    public void setRouterFilter(Set<String> routerNames) {
+        routerFilter = new HashSet<>(routerNames);
+        rebuildRows();
+        fireTableDataChanged();
+    } // end setRouterFilter()
+
+    @Override
+    public int getRowCount() {
+        return rowNetworkIds.length;
+    } // end getRowCount()
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    } // end getColumnCount()
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    } // end getColumnName()
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Router router = rowRouters[row];
+        int networkId = rowNetworkIds[row];
+        if (column == 0) {
+            return router.getRouterName();
+        }
+        if (column == 1) {
+            Network network = Network.byId(networkId);
+            return network == null ? "" : network.getNetworkName();
+        }
+
+        RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+        int hops = snapshot.hops(networkId);
+        if (column == 2) {
+            return hops == 0 ? "" : String.valueOf(hops); // 已移除的路由表项在下次处理变化时移除该行
+        }
+        Router nextHop = Router.byId(snapshot.nextHop(networkId));
+        if (hops == 0) {
+            return "";
+        } else if (hops == 1) {
+            return "直接交付";
+        } else if (hops < RoutingTable.UNREACHABLE && nextHop != null) {
+            return nextHop.getRouterName();
+        } else {
+            return "不可达";
+        }
+    } // end getValueAt()
+} // end class RoutingTableModel
@@ -0,0 +1,779 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 场景运行器（无界面运行场景文件）
+ * <p>
+ * 场景文件逐行读取、逐行执行，不会把整个场景读入内存：带 “at 时刻” 前缀的语句先推进离散事件仿真到该时刻再执行，
+ * 因此事件必须按时刻先后排列；不带前缀的语句在当前仿真时刻立即执行。每行一条语句，“#” 之后为注释，语句如下：
+ * <pre>
+ * join-router 名称 [neighbors=路由器,...] [networks=网络,...]   路由器加入（别名 router，网络必须已加入）
+ * join-network 名称 [routers=路由器,...] [prefix=前缀]          网络加入（别名 network，直连的路由器互为相邻路由器，前缀如 10.1.0.0/16）
+ * link 路由器 路由器                                             两个路由器互为相邻路由器
+ * attach 路由器 网络                                             路由器直连网络
+ * failure 路由器 [silent]                                        路由器故障（silent：静默故障，不通知相邻路由器）
+ * exit-router 路由器                                             路由器退出
+ * exit-network 网络                                              网络退出
+ * mode none|split-horizon|poisoned-reverse                      水平分割模式
+ * full-update-cycles 周期数                                     每隔多少个更新周期发送一次完整路由表
+ * seed 种子                                                      设置拓扑生成器的种子（默认为 0）
+ * generate 类型 参数 ... [link-networks]                         生成拓扑（见 {@link TopologyGenerator#generate}）
+ * load 文件                                                      加载边列表文件（见 {@link TopologyLoader}）
+ * checkpoint 文件                                                保存检查点（见 {@link TopologyCheckpoint}）
+ * restore 文件                                                   恢复检查点（无需重新收敛）
+ * trace 文件|stop                                                开始、停止记录路由事件（见 {@link TraceRecorder}、{@link TraceReplayer}）
+ * transport udp [接收线程数]|direct                              路由器之间经回环 UDP 交换 RIPv2 报文（同步投递，见 {@link UdpTransport}）或直接调用
+ * actors [邮箱容量]|stop                                         开启、关闭 actor 模式（每个路由器一个虚拟线程，同步投递，见 {@link RouterActorSystem}）
+ * timers [超时秒数 垃圾回收秒数]|stop                            开启、关闭路由表项定时器（默认 180 秒、120 秒，见 {@link RouteTimers}）
+ * fib [合并毫秒]|stop                                            开启、关闭转发表的后台合并重建（默认 20 ms，见 {@link ForwardingTableUpdater}）
+ * timing sync|[phase] [jitter=比例] [batch=相邻路由器数] [seed=种子]  定时路由更新的相位、抖动和分批发送（见 {@link UpdateTiming}）
+ * reset                                                          重置网络拓扑（路由器回收到对象池，生成器重新编号，仿真时刻不变）
+ * run 毫秒                                                       推进仿真时间
+ * converge [最长毫秒]                                            运行到收敛并输出结果
+ * print [路由器 ...]                                             输出路由表（默认输出所有路由器）
+ * stats                                                          输出发送统计
+ * lookup 路由器 地址                                             从路由器出发逐跳查找转发表（先重建过期的转发表），输出到目的 IPv4 地址的转发路径
+ * expect converged|unconverged                                   检查收敛检测器的状态，不符时场景失败（用作回归检查）
+ * expect 路由器 网络 跳数 [下一跳]                              检查路由表项（跳数 16 为不可达，0 为无此路由表项），不符时场景失败
+ * at 毫秒 语句                                                   在指定仿真时刻执行语句
+ * </pre>
+ */
+public class ScenarioRunner {
+    private static final long DEFAULT_CONVERGE_MILLIS = 3_600_000; // 默认最长收敛时间（毫秒）
+    private static final Set<String> TOPOLOGY_COMMANDS = Set.of("router", "join-router", "network", "join-network",
+            "link", "attach", "failure", "exit-router", "exit-network", "mode", "full-update-cycles", "seed", "generate",
+            "load", "restore", "reset"); // 改变网络拓扑的语句
+
+    private final SimulationEngine engine; // 离散事件仿真引擎
+    private final NetworkTopology networkTopology; // 网络拓扑（初始为空）
+    private final TopologyGenerator topologyGenerator; // 拓扑生成器
+    private final PrintStream out; // 输出
+    private int fullUpdateCycles; // 新加入路由器的完整路由表周期数
+    private long lineNumber; // 当前行号
+    private long lastEventTime; // 上一个定时事件的仿真时刻（毫秒）
+    private long scriptedEvents; // 已执行的语句数
+
+    public ScenarioRunner(PrintStream out) {
+        this.engine = new SimulationEngine();
+        this.networkTopology = new NetworkTopology(engine, false);
+        this.topologyGenerator = new TopologyGenerator(networkTopology, 0);
+        this.out = out;
+        this.fullUpdateCycles = Router.DEFAULT_FULL_UPDATE_CYCLES;
+        networkTopology.getConvergenceDetector().addListener(new ConvergenceDetector.Listener() {
+            @Override
+            public void onConverged(ConvergenceMetrics metrics) {
+                log("检测到收敛：" + metrics);
+            } // end onConverged()
+
+            @Override
+            public void onConvergenceBroken(String cause) {
+                log("收敛被打破：" + cause);
+            } // end onConvergenceBroken()
+        });
+    } // end ScenarioRunner()
+
+    /**
+     * 逐行运行场景
+     *
+     * @param reader 场景
+     * @throws IOException 读取失败
+     */
+    public void run(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            runStatement(tokens);
+        }
+        trace("stop"); // 场景结束时写完已记录的事件
+        transport(new String[]{"direct"}); // 关闭接收线程和通道
+        actors(new String[]{"stop"});
+        out.println("场景结束：仿真时刻 " + engine.getCurrentTime() + " ms，执行语句 " + scriptedEvents
+                + " 条，处理事件 " + engine.getEventsProcessed() + " 个");
+        out.flush();
+    } // end run()
+
+    /**
+     * 运行一条语句（“at 时刻” 前缀的语句在推进仿真到该时刻后执行）
+     *
+     * @param tokens 语句的各个部分
+     */
+    private void runStatement(String[] tokens) {
+        if (!tokens[0].equals("at")) {
+            execute(tokens, 0);
+            return;
+        }
+
+        require(tokens.length >= 3, "at 语句格式：at 毫秒 语句");
+        long time = parseLong(tokens[1]);
+        require(time >= lastEventTime, "事件必须按仿真时刻先后排列（上一个事件在 " + lastEventTime + " ms）");
+        lastEventTime = time;
+        if (!TOPOLOGY_COMMANDS.contains(tokens[2])) { // 推进、输出类语句不能在仿真事件中执行
+            engine.runUntil(time);
+            execute(tokens, 2);
+            return;
+        }
+
+        /* 作为仿真事件执行（与同一时刻的定时路由更新按加入顺序排列，并计入拓扑变化），队列中最多只有一条语句 */
+        RuntimeException[] error = new RuntimeException[1];
+        engine.schedule(time, () -> {
+            try {
+                execute(tokens, 2);
+            } catch (RuntimeException e) {
+                error[0] = e;
+            }
+        });
+        engine.runUntil(time);
+        if (error[0] != null) {
+            throw error[0];
+        }
+    } // end runStatement()
+
+    /**
+     * 执行一条语句
+     *
+     * @param tokens 语句的各个部分
+     * @param start  语句开始的下标
+     */
+    private void execute(String[] tokens, int start) {
+        String command = tokens[start];
+        String[] args = Arrays.copyOfRange(tokens, start + 1, tokens.length);
+        scriptedEvents++;
+        switch (command) {
+            case "router", "join-router" -> joinRouter(args);
+            case "network", "join-network" -> joinNetwork(args);
+            case "link" -> {
+                require(args.length == 2, "link 语句格式：link 路由器 路由器");
+                link(findRouter(args[0]), findRouter(args[1]));
+            }
+            case "attach" -> {
+                require(args.length == 2, "attach 语句格式：attach 路由器 网络");
+                networkTopology.attachNetwork(findRouter(args[0]), findNetwork(args[1]));
+            }
+            case "failure" -> {
+                require(args.length == 1 || (args.length == 2 && args[1].equals("silent")),
+                        "failure 语句格式：failure 路由器 [silent]");
+                if (args.length == 2) {
+                    findRouter(args[0]).silentFailure();
+                    log("路由器" + args[0] + "静默故障");
+                } else {
+                    findRouter(args[0]).failure();
+                    log("路由器" + args[0] + "故障");
+                }
+            }
+            case "exit-router" -> {
+                require(args.length == 1, "exit-router 语句格式：exit-router 路由器");
+                networkTopology.exitRouter(findRouter(args[0]));
+                log("路由器" + args[0] + "退出");
+            }
+            case "exit-network" -> {
+                require(args.length == 1, "exit-network 语句格式：exit-network 网络");
+                networkTopology.exitNetwork(findNetwork(args[0]));
+                log("网络" + args[0] + "退出");
+            }
+            case "mode" -> {
+                require(args.length == 1, "mode 语句格式：mode none|split-horizon|poisoned-reverse");
+                networkTopology.setSplitHorizonMode(parseMode(args[0]));
+            }
+            case "full-update-cycles" -> {
+                require(args.length == 1, "full-update-cycles 语句格式：full-update-cycles 周期数");
+                fullUpdateCycles = (int) parseLong(args[0]);
+                for (Router router : networkTopology.getRouters()) {
+                    router.setFullUpdateCycles(fullUpdateCycles);
+                }
+            }
+            case "seed" -> {
+                require(args.length == 1, "seed 语句格式：seed 种子");
+                topologyGenerator.setSeed(parseLong(args[0]));
+            }
+            case "generate" -> generate(args);
+            case "load" -> {
+                require(args.length == 1, "load 语句格式：load 文件");
+                load(args[0]);
+            }
+            case "checkpoint" -> {
+                require(args.length == 1, "checkpoint 语句格式：checkpoint 文件");
+                checkpoint(args[0]);
+            }
+            case "restore" -> {
+                require(args.length == 1, "restore 语句格式：restore 文件");
+                restore(args[0]);
+            }
+            case "trace" -> {
+                require(args.length == 1, "trace 语句格式：trace 文件|stop");
+                trace(args[0]);
+            }
+            case "transport" -> {
+                require((args.length == 1 || args.length == 2) && (args[0].equals("udp") || args.length == 1),
+                        "transport 语句格式：transport udp [接收线程数]|direct");
+                transport(args);
+            }
+            case "actors" -> {
+                require(args.length <= 1, "actors 语句格式：actors [邮箱容量]|stop");
+                actors(args);
+            }
+            case "timers" -> {
+                require(args.length == 0 || args.length == 2 || (args.length == 1 && args[0].equals("stop")),
+                        "timers 语句格式：timers [超时秒数 垃圾回收秒数]|stop");
+                timers(args);
+            }
+            case "fib" -> {
+                require(args.length <= 1, "fib 语句格式：fib [合并毫秒]|stop");
+                fib(args);
+            }
+            case "timing" -> {
+                require(args.length >= 1, "timing 语句格式：timing sync|[phase] [jitter=比例] [batch=相邻路由器数] [seed=种子]");
+                timing(args);
+            }
+            case "reset" -> {
+                require(args.length == 0, "reset 语句格式：reset");
+                reset();
+            }
+            case "run" -> {
+                require(args.length == 1, "run 语句格式：run 毫秒");
+                engine.runUntil(engine.getCurrentTime() + parseLong(args[0]));
+            }
+            case "converge" -> {
+                long maxMillis = args.length > 0 ? parseLong(args[0]) : DEFAULT_CONVERGE_MILLIS;
+                log("收敛：" + engine.runUntilConverged(maxMillis));
+            }
+            case "print" -> print(args);
+            case "stats" -> printStats();
+            case "lookup" -> {
+                require(args.length == 2, "lookup 语句格式：lookup 路由器 地址");
+                lookup(findRouter(args[0]), args[1]);
+            }
+            case "expect" -> {
+                require(args.length == 1 || args.length == 3 || args.length == 4,
+                        "expect 语句格式：expect converged|unconverged 或 expect 路由器 网络 跳数 [下一跳]");
+                expect(args);
+            }
+            default -> throw new IllegalArgumentException("未知语句：" + command);
+        }
+    } // end execute()
+
+    /**
+     * 路由器加入
+     *
+     * @param args 名称 [neighbors=路由器,...] [networks=网络,...]
+     */
+    private void joinRouter(String[] args) {
+        require(args.length >= 1, "join-router 语句格式：join-router 名称 [neighbors=路由器,...] [networks=网络,...]");
+        require(networkTopology.findRouter(args[0]) == null, "网络拓扑中已存在该路由器：" + args[0]);
+        List<Router> neighbors = new ArrayList<>();
+        List<Network> networks = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("neighbors=")) {
+                for (String name : splitNames(args[i])) {
+                    neighbors.add(findRouter(name));
+                }
+            } else if (args[i].startsWith("networks=")) {
+                for (String name : splitNames(args[i])) {
+                    networks.add(findNetwork(name));
+                }
+            } else {
+                throw new IllegalArgumentException("无法识别的参数：" + args[i]);
+            }
+        }
+
+        Router router = Router.obtain(args[0]);
+        router.setFullUpdateCycles(fullUpdateCycles);
+        networkTopology.joinRouter(router);
+        for (Router neighbor : neighbors) {
+            link(router, neighbor);
+        }
+        for (Network network : networks) {
+            networkTopology.attachNetwork(router, network);
+        }
+        log("路由器" + args[0] + "加入");
+    } // end joinRouter()
+
+    /**
+     * 网络加入
+     *
+     * @param args 名称 [routers=路由器,...] [prefix=前缀]
+     */
+    private void joinNetwork(String[] args) {
+        require(args.length >= 1, "join-network 语句格式：join-network 名称 [routers=路由器,...] [prefix=前缀]");
+        require(networkTopology.findNetwork(args[0]) == null, "网络拓扑中已存在该网络：" + args[0]);
+        List<Router> routers = new ArrayList<>();
+        String prefix = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("routers=")) {
+                for (String name : splitNames(args[i])) {
+                    routers.add(findRouter(name));
+                }
+            } else if (args[i].startsWith("prefix=")) {
+                prefix = args[i].substring("prefix=".length());
+            } else {
+                throw new IllegalArgumentException("join-network 语句格式：join-network 名称 [routers=路由器,...] [prefix=前缀]");
+            }
+        }
+
+        Network network = prefix == null ? new Network(args[0]) : new Network(args[0], prefix);
+        networkTopology.joinNetwork(network);
+        /* 直连到新网络的所有路由器互为相邻路由器 */
+        for (int i = 0; i < routers.size(); i++) {
+            for (int j = i + 1; j < routers.size(); j++) {
+                link(routers.get(i), routers.get(j));
+            }
+            networkTopology.attachNetwork(routers.get(i), network);
+        }
+        log("网络" + args[0] + "加入");
+    } // end joinNetwork()
+
+    /**
+     * 生成拓扑
+     *
+     * @param args 类型 参数 ... [link-networks]
+     */
+    private void generate(String[] args) {
+        require(args.length >= 1, "generate 语句格式：generate 类型 参数 ... [link-networks]");
+        boolean linkNetworks = args[args.length - 1].equals("link-networks");
+        double[] params = new double[args.length - 1 - (linkNetworks ? 1 : 0)];
+        for (int i = 0; i < params.length; i++) {
+            try {
+                params[i] = Double.parseDouble(args[i + 1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("不是数字：" + args[i + 1]);
+            }
+        }
+
+        topologyGenerator.setLinkNetworks(linkNetworks);
+        long links = topologyGenerator.getLinkCount();
+        int routers = topologyGenerator.generate(args[0], params).size();
+        for (Router router : networkTopology.getRouters()) {
+            router.setFullUpdateCycles(fullUpdateCycles);
+        }
+        log("生成拓扑 " + args[0] + "：路由器 " + routers + " 个，边 " + (topologyGenerator.getLinkCount() - links) + " 条");
+    } // end generate()
+
+    /**
+     * 加载边列表文件
+     *
+     * @param file 文件路径
+     */
+    private void load(String file) {
+        TopologyLoader loader = new TopologyLoader(networkTopology);
+        try {
+            loader.load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Router router : networkTopology.getRouters()) {
+            router.setFullUpdateCycles(fullUpdateCycles);
+        }
+        log("加载拓扑 " + file + "：新路由器 " + loader.getRouterCount() + " 个，边 " + loader.getLinkCount() + " 条");
+    } // end load()
+
+    /**
+     * 保存检查点
+     *
+     * @param file 文件路径
+     */
+    private void checkpoint(String file) {
+        long start = System.nanoTime();
+        try {
+            new TopologyCheckpoint(networkTopology).save(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log("保存检查点 " + file + "：路由器 " + networkTopology.getRouters().size() + " 个，耗时 "
+                + String.format("%.3f", (System.nanoTime() - start) / 1e6) + " ms");
+    } // end checkpoint()
+
+    /**
+     * 恢复检查点
+     *
+     * @param file 文件路径
+     */
+    private void restore(String file) {
+        long start = System.nanoTime();
+        List<Router> routers;
+        try {
+            routers = new TopologyCheckpoint(networkTopology).restore(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log("恢复检查点 " + file + "：路由器 " + routers.size() + " 个，耗时 "
+                + String.format("%.3f", (System.nanoTime() - start) / 1e6) + " ms");
+    } // end restore()
+
+    /**
+     * 开始、停止记录路由事件
+     *
+     * @param file 日志文件（stop 表示停止记录）
+     */
+    private void trace(String file) {
+        try {
+            if (file.equals("stop")) {
+                TraceRecorder recorder = networkTopology.stopTrace();
+                if (recorder != null) {
+                    log("停止记录：事件 " + recorder.getEventCount() + " 条，" + recorder.getBytesWritten() + " 字节，等待空槽 "
+                            + recorder.getStalls() + " 次");
+                }
+            } else {
+                networkTopology.startTrace(Paths.get(file));
+                log("开始记录路由事件：" + file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    } // end trace()
+
+    /**
+     * 切换路由器之间的传输方式
+     *
+     * @param args udp [接收线程数] 或 direct
+     */
+    private void transport(String[] args) {
+        switch (args[0]) {
+            case "udp" -> {
+                int receiverThreads = args.length > 1 ? (int) parseLong(args[1]) : 1;
+                try {
+                    networkTopology.startUdpTransport(receiverThreads, true); // 仿真在本线程上推进，必须同步投递
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                log("开启 UDP 传输：接收线程 " + receiverThreads + " 个");
+            }
+            case "direct" -> {
+                UdpTransport transport = networkTopology.stopUdpTransport();
+                if (transport != null) {
+                    log("关闭 UDP 传输：" + transportStats(transport));
+                }
+            }
+            default -> throw new IllegalArgumentException("未知的传输方式：" + args[0]);
+        }
+    } // end transport()
+
+    /**
+     * 开启、关闭 actor 模式
+     *
+     * @param args [邮箱容量] 或 stop
+     */
+    private void actors(String[] args) {
+        if (args.length == 1 && args[0].equals("stop")) {
+            RouterActorSystem system = networkTopology.stopActors();
+            if (system != null) {
+                log("关闭 actor 模式：" + system);
+            }
+            return;
+        }
+        int mailboxCapacity = args.length == 1 ? (int) parseLong(args[0]) : RouterActorSystem.DEFAULT_MAILBOX_CAPACITY;
+        networkTopology.startActors(mailboxCapacity, true); // 仿真在本线程上推进，必须同步投递
+        log("开启 actor 模式：邮箱容量 " + mailboxCapacity);
+    } // end actors()
+
+    /**
+     * 开启、关闭路由表项定时器
+     *
+     * @param args [超时秒数 垃圾回收秒数] 或 stop
+     */
+    private void timers(String[] args) {
+        if (args.length == 1) {
+            RouteTimers timers = networkTopology.stopRouteTimers();
+            if (timers != null) {
+                log("关闭路由表项定时器：" + timers);
+            }
+            return;
+        }
+        long timeoutMillis = args.length == 2 ? parseLong(args[0]) * 1000 : RouteTimers.DEFAULT_TIMEOUT_MILLIS;
+        long garbageCollectionMillis = args.length == 2 ? parseLong(args[1]) * 1000
+                : RouteTimers.DEFAULT_GARBAGE_COLLECTION_MILLIS;
+        RouteTimers timers = networkTopology.startRouteTimers(timeoutMillis, garbageCollectionMillis);
+        log("开启路由表项定时器：超时 " + timeoutMillis / 1000 + " 秒，垃圾回收 " + garbageCollectionMillis / 1000
+                + " 秒，刻度 " + timers.getTickMillis() + " ms");
+    } // end timers()
+
+    /**
+     * 开启、关闭转发表的后台合并重建
+     *
+     * @param args [合并毫秒] 或 stop
+     */
+    private void fib(String[] args) {
+        if (args.length == 1 && args[0].equals("stop")) {
+            ForwardingTableUpdater updater = networkTopology.stopForwardingTables();
+            if (updater != null) {
+                log("关闭转发表后台重建，" + updater);
+            }
+            return;
+        }
+        long coalesceMillis = args.length == 1 ? parseLong(args[0]) : ForwardingTableUpdater.DEFAULT_COALESCE_MILLIS;
+        networkTopology.startForwardingTables(coalesceMillis);
+        log("开启转发表后台重建：合并窗口 " + coalesceMillis + " ms");
+    } // end fib()
+
+    /**
+     * 设置定时路由更新的相位、抖动和分批发送（相位只影响之后加入的路由器）
+     *
+     * @param args sync 或 [phase] [jitter=比例] [batch=相邻路由器数] [seed=种子]
+     */
+    private void timing(String[] args) {
+        boolean randomPhase = false;
+        double jitter = 0;
+        int batchSize = 0;
+        long seed = 0;
+        if (!(args.length == 1 && args[0].equals("sync"))) {
+            for (String arg : args) {
+                if (arg.equals("phase")) {
+                    randomPhase = true;
+                } else if (arg.startsWith("jitter=")) {
+                    try {
+                        jitter = Double.parseDouble(arg.substring(7));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("不是数字：" + arg.substring(7));
+                    }
+                } else if (arg.startsWith("batch=")) {
+                    batchSize = (int) parseLong(arg.substring(6));
+                } else if (arg.startsWith("seed=")) {
+                    seed = parseLong(arg.substring(5));
+                } else {
+                    throw new IllegalArgumentException("无法识别的参数：" + arg);
+                }
+            }
+        }
+        UpdateTiming timing = new UpdateTiming(randomPhase, jitter, batchSize, seed);
+        engine.setUpdateTiming(timing);
+        log("定时路由更新：" + timing);
+    } // end timing()
+
+    private static String transportStats(UdpTransport transport) {
+        return "发送报文 " + transport.getPacketsSent() + " 个（" + transport.getBytesSent() + " 字节），接收报文 "
+                + transport.getPacketsReceived() + " 个，无效 " + transport.getInvalidPackets() + " 个，丢失 "
+                + transport.getLostPackets() + " 个（之后迟到 " + transport.getLatePackets() + " 个），发送失败 " + transport.getSendFailures() + " 个";
+    } // end transportStats()
+
+    /**
+     * 重置网络拓扑
+     */
+    private void reset() {
+        long start = System.nanoTime();
+        int routerCount = networkTopology.getRouters().size();
+        networkTopology.reset();
+        topologyGenerator.reset();
+        log("重置网络拓扑：回收路由器 " + routerCount + " 个，耗时 "
+                + String.format("%.3f", (System.nanoTime() - start) / 1e6) + " ms");
+    } // end reset()
+
+    /**
+     * 两个路由器互为相邻路由器
+     */
+    private void link(Router router1, Router router2) {
+        if (!router1.getNeighbors().contains(router2)) {
+            router1.addNeighbor(router2);
+        }
+        if (!router2.getNeighbors().contains(router1)) {
+            router2.addNeighbor(router1);
+        }
+    } // end link()
+
+    /**
+     * 输出路由表（逐行写入输出，不创建路由表字符串）
+     *
+     * @param routerNames 路由器名称（为空时输出所有路由器）
+     */
+    private void print(String[] routerNames) {
+        log("路由表：");
+        try {
+            if (routerNames.length == 0) {
+                for (Router router : networkTopology.getRouters()) {
+                    router.printRoutingTable(out);
+                }
+            } else {
+                for (String routerName : routerNames) {
+                    findRouter(routerName).printRoutingTable(out);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    } // end print()
+
+    /**
+     * 检查收敛检测器的状态或路由表项，不符时抛出异常（场景以非零状态结束）
+     *
+     * @param args converged|unconverged 或 路由器 网络 跳数 [下一跳]
+     */
+    private void expect(String[] args) {
+        if (args.length == 1) {
+            require(args[0].equals("converged") || args[0].equals("unconverged"),
+                    "expect 语句格式：expect converged|unconverged");
+            boolean converged = networkTopology.getConvergenceDetector().isConverged();
+            require(converged == args[0].equals("converged"),
+                    "预期不符：收敛检测器" + (converged ? "已收敛" : "未收敛"));
+            log("符合预期：收敛检测器" + (converged ? "已收敛" : "未收敛"));
+            return;
+        }
+
+        Router router = findRouter(args[0]);
+        Network network = findNetwork(args[1]);
+        RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+        int hops = snapshot.hops(network.getNetworkId());
+        Router nextHop = Router.byId(snapshot.nextHop(network.getNetworkId()));
+        String actual = hops + " 跳" + (hops > 1 && hops < RoutingTable.UNREACHABLE && nextHop != null
+                ? "，下一跳 " + nextHop.getRouterName() : "");
+        require(hops == parseLong(args[2]) && (args.length == 3 || (nextHop != null && hops > 1
+                        && nextHop.getRouterName().equals(args[3]))),
+                "预期不符：路由器" + args[0] + "到" + args[1] + "为 " + actual);
+        log("符合预期：路由器" + args[0] + "到" + args[1] + "为 " + actual);
+    } // end expect()
+
+    /**
+     * 输出所有路由器的发送统计
+     */
+    private void printStats() {
+        long updatesSent = 0, entriesSent = 0, bytesSent = 0;
+        for (Router router : networkTopology.getRouters()) {
+            updatesSent += router.getUpdatesSent();
+            entriesSent += router.getEntriesSent();
+            bytesSent += router.getBytesSent();
+        }
+        log("路由器数：" + networkTopology.getRouters().size() + "，网络数：" + networkTopology.getNetworks().size()
+                + "，发送报文数：" + updatesSent + "，发送表项数：" + entriesSent + "，发送字节数：" + bytesSent);
+        UdpTransport transport = networkTopology.getUdpTransport();
+        if (transport != null) {
+            log("UDP 传输：" + transportStats(transport));
+        }
+        RouterActorSystem system = networkTopology.getActorSystem();
+        if (system != null) {
+            log("actor 模式：" + system);
+        }
+        RouteTimers timers = networkTopology.getRouteTimers();
+        if (timers != null) {
+            log("路由表项定时器：" + timers);
+        }
+        ForwardingTableUpdater updater = networkTopology.getForwardingTableUpdater();
+        if (updater != null) {
+            log(updater.toString());
+        }
+    } // end printStats()
+
+    /**
+     * 输出一行带仿真时刻的日志
+     *
+     * @param message 日志
+     */
+    private void log(String message) {
+        out.println("[" + engine.getCurrentTime() + " ms] " + message);
+    } // end log()
+
+    /**
+     * 从路由器出发逐跳查找转发表，输出转发路径
+     *
+     * @param router  起点路由器
+     * @param address 目的 IPv4 地址
+     */
+    private void lookup(Router router, String address) {
+        int destination = Network.parseAddress(address);
+        StringBuilder path = new StringBuilder(router.getRouterName());
+        for (int hop = 0; ; hop++) {
+            int nextHop = router.awaitForwardingTable().lookup(destination);
+            if (nextHop < 0) {
+                path.append("（无路由）");
+                break;
+            }
+            if (nextHop == router.getRouterId()) {
+                path.append("（直接交付）");
+                break;
+            }
+            Router next = Router.byId(nextHop);
+            if (next == null || hop >= RoutingTable.UNREACHABLE) {
+                path.append(next == null ? "（下一跳不存在）" : "（转发环路）");
+                break;
+            }
+            router = next;
+            path.append(" → ").append(router.getRouterName());
+        }
+        log("转发 " + address + "：" + path);
+    } // end lookup()
+
+    private Router findRouter(String routerName) {
+        Router router = networkTopology.findRouter(routerName);
+        require(router != null, "网络拓扑中不存在路由器：" + routerName);
+        return router;
+    } // end findRouter()
+
+    private Network findNetwork(String networkName) {
+        Network network = networkTopology.findNetwork(networkName);
+        require(network != null, "网络拓扑中不存在网络：" + networkName);
+        return network;
+    } // end findNetwork()
+
+    private static String[] splitNames(String arg) {
+        return arg.substring(arg.indexOf('=') + 1).split(",");
+    } // end splitNames()
+
+    private static SplitHorizonMode parseMode(String mode) {
+        try {
+            return SplitHorizonMode.valueOf(mode.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的水平分割模式：" + mode);
+        }
+    } // end parseMode()
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("不是整数：" + value);
+        }
+    } // end parseLong()
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    } // end require()
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public NetworkTopology getNetworkTopology() {
+        return networkTopology;
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @param args 场景文件（“-” 表示标准输入）、输出文件（可选，默认为标准输出）
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法：java ScenarioRunner 场景文件|- [输出文件]");
+            System.exit(2);
+        }
+
+        Reader input = args[0].equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+        OutputStream output = args.length > 1
+                ? Files.newOutputStream(Paths.get(args[1]))
+                : new FileOutputStream(FileDescriptor.out);
+        try (BufferedReader reader = new BufferedReader(input, 1 << 16);
+             PrintStream out = new PrintStream(new BufferedOutputStream(output, 1 << 16), false, StandardCharsets.UTF_8)) {
+            ScenarioRunner runner = new ScenarioRunner(out);
+            try {
+                runner.run(reader);
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                out.flush();
+                System.err.println("第 " + runner.getLineNumber() + " 行：" + e.getMessage());
+                System.exit(1);
+            } finally {
+                runner.getNetworkTopology().shutdown();
+            }
+        }
+    } // end main()
+} // end class ScenarioRunner
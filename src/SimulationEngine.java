@@ -0,0 +1,300 @@
+import java.util.*;
+
+/**
+ * 离散事件仿真引擎
+ * <p>
+ * 以优先队列按仿真时刻依次处理事件，使用虚拟时钟代替真实时间：
+ * 定时路由更新、路由器故障、加入、退出等都作为事件处理，仿真速度只受 CPU 限制，
+ * 且同一时刻的事件按加入顺序执行，结果是确定的。
+ */
+public class SimulationEngine implements UpdateScheduler {
+    private final PriorityQueue<SimulationEvent> eventQueue; // 事件队列
+    private final Map<Router, SimulationEvent> updateEvents; // 路由器 -> 下一次定时路由更新事件
+    private final long intervalMillis; // 路由更新周期（毫秒）
+    private UpdateTiming updateTiming; // 定时路由更新的相位、抖动和分批发送
+    private long currentTime; // 当前仿真时刻（毫秒）
+    private long sequence; // 事件序号
+    private long lastChangeTime; // 最后一次路由表变化的仿真时刻（毫秒）
+    private long quietMillis; // 判定收敛所需的无变化时长（毫秒，见 quietMillis()）
+    private long eventsProcessed; // 已处理的事件数
+
+    public SimulationEngine() {
+        this(UPDATE_INTERVAL_MILLIS);
+    } // end SimulationEngine()
+
+    public SimulationEngine(long intervalMillis) {
+        this.eventQueue = new PriorityQueue<>();
+        this.updateEvents = new HashMap<>();
+        this.intervalMillis = intervalMillis;
+        this.updateTiming = UpdateTiming.SYNCHRONIZED;
+    } // end SimulationEngine()
+
+    @Override
+    public void start(Router router) {
+        stop(router);
+        scheduleUpdate(router, currentTime + updateTiming.initialDelay(router, currentTime, intervalMillis), null);
+    } // end start()
+
+    @Override
+    public void stop(Router router) {
+        SimulationEvent event = updateEvents.remove(router);
+        if (event != null) {
+            event.setCancelled(true); // 已在队列中的事件在出队时丢弃
+        }
+    } // end stop()
+
+    @Override
+    public void shutdown() {
+        for (SimulationEvent event : updateEvents.values()) {
+            event.setCancelled(true);
+        }
+        updateEvents.clear();
+        eventQueue.clear();
+    } // end shutdown()
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTime;
+    } // end currentTimeMillis()
+
+    /**
+     * 在指定仿真时刻执行动作（如路由器加入、退出，网络加入、退出）
+     *
+     * @param time   仿真时刻（毫秒）
+     * @param action 动作
+     */
+    public void schedule(long time, Runnable action) {
+        eventQueue.add(new SimulationEvent(Math.max(time, currentTime), sequence++, null, action));
+    } // end schedule()
+
+    /**
+     * 在指定仿真时刻使路由器故障
+     *
+     * @param time   仿真时刻（毫秒）
+     * @param router 路由器
+     */
+    public void scheduleFailure(long time, Router router) {
+        schedule(time, router::failure);
+    } // end scheduleFailure()
+
+    /**
+     * 运行仿真直到指定仿真时刻
+     *
+     * @param endTime 结束的仿真时刻（毫秒）
+     * @return 运行结果
+     */
+    public SimulationResult runUntil(long endTime) {
+        return run(endTime, false);
+    } // end runUntil()
+
+    /**
+     * 运行仿真直到收敛（最后一次变化之后，每个路由器都已发送过一次完整路由表，所有路由表仍无变化）或超过最长仿真时间
+     *
+     * @param maxMillis 最长仿真时间（毫秒）
+     * @return 运行结果
+     */
+    public SimulationResult runUntilConverged(long maxMillis) {
+        return run(currentTime + maxMillis, true);
+    } // end runUntilConverged()
+
+    /**
+     * 运行仿真
+     *
+     * @param endTime            结束的仿真时刻（毫秒）
+     * @param stopWhenConverged 是否在收敛时停止
+     * @return 运行结果
+     */
+    private SimulationResult run(long endTime, boolean stopWhenConverged) {
+        long startTime = currentTime;
+        long startEvents = eventsProcessed;
+        long startNanos = System.nanoTime();
+        lastChangeTime = currentTime;
+        quietMillis = quietMillis();
+        boolean converged = false;
+
+        while (!eventQueue.isEmpty()) {
+            SimulationEvent event = eventQueue.peek();
+            if (event.getTime() > lastChangeTime + quietMillis) {
+                converged = true; // 最后一次变化之后，每个路由器都已发送过一次完整路由表
+                if (stopWhenConverged) {
+                    break;
+                }
+            }
+            if (event.getTime() > endTime) {
+                break;
+            }
+            eventQueue.poll();
+            if (event.isCancelled()) {
+                continue;
+            }
+
+            currentTime = event.getTime();
+            eventsProcessed++;
+            if (event.getRouter() != null) {
+                processUpdate(event.getRouter(), event.getAction());
+            } else {
+                event.getAction().run();
+                lastChangeTime = currentTime; // 故障、加入、退出等事件均视为拓扑变化
+                quietMillis = quietMillis(); // 加入的路由器可能有不同的完整路由表周期
+                converged = false;
+            }
+        }
+        if (eventQueue.isEmpty()) {
+            converged = true; // 没有任何待处理事件，路由表不会再变化
+        }
+        if (!stopWhenConverged || !converged) {
+            currentTime = Math.max(currentTime, endTime);
+        }
+
+        return new SimulationResult(converged, lastChangeTime - startTime, currentTime - startTime,
+                eventsProcessed - startEvents, System.nanoTime() - startNanos);
+    } // end run()
+
+    /**
+     * 判定收敛所需的无变化时长：按所有路由器中最长的完整路由表周期计算（与 {@link ConvergenceDetector} 相同，
+     * 触发更新只发送变化的路由表项，替代路由要等到下一次完整路由表才会送达）；
+     * 开启路由表项定时器时，还要等到静默故障的路由表项超时和垃圾回收（在下一次定时路由更新时处理）
+     *
+     * @return 时长（毫秒）
+     */
+    private long quietMillis() {
+        int fullUpdateCycles = 1;
+        long timerMillis = 0;
+        for (Router router : updateEvents.keySet()) {
+            fullUpdateCycles = Math.max(fullUpdateCycles, router.getFullUpdateCycles());
+            RouteTimers.Wheel wheel = router.getRouteTimers();
+            if (wheel != null) {
+                RouteTimers timers = wheel.getTimers();
+                timerMillis = Math.max(timerMillis, Math.max(timers.getTimeoutMillis(), timers.getGarbageCollectionMillis())
+                        + timers.getTickMillis() + updateTiming.quietMillis(intervalMillis));
+            }
+        }
+        return Math.max(updateTiming.quietMillis(intervalMillis, fullUpdateCycles), timerMillis);
+    } // end quietMillis()
+
+    /**
+     * 处理定时路由更新事件
+     *
+     * @param router    路由器
+     * @param nextBatch 分批发送时本周期的下一批（为 null 时开始新的更新周期）
+     */
+    private void processUpdate(Router router, Runnable nextBatch) {
+        long changesBefore = changeCount(router);
+        if (nextBatch != null) {
+            nextBatch.run();
+        } else {
+            long period = updateTiming.nextPeriod(router, currentTime, intervalMillis);
+            long spacing = updateTiming.batchSpacing(period, router.getNeighbors().size());
+            int remaining = router.onUpdateTimer(updateTiming.batchLimit());
+            scheduleNext(router, currentTime, period, spacing, remaining);
+        }
+        if (changeCount(router) != changesBefore) {
+            lastChangeTime = currentTime;
+        }
+    } // end processUpdate()
+
+    /**
+     * 安排路由器的下一批发送（本周期还有未发送的相邻路由器，且下一批在本周期内）或下一个更新周期
+     *
+     * @param router     路由器
+     * @param cycleStart 本周期开始的仿真时刻（毫秒）
+     * @param period     本周期的时长（毫秒）
+     * @param spacing    相邻两批的间隔（毫秒）
+     * @param remaining  本周期尚未发送的相邻路由器数
+     */
+    private void scheduleNext(Router router, long cycleStart, long period, long spacing, int remaining) {
+        if (!updateEvents.containsKey(router)) {
+            return; // 已停止
+        }
+        if (remaining > 0 && currentTime + spacing < cycleStart + period) {
+            scheduleUpdate(router, currentTime + spacing, () -> scheduleNext(router, cycleStart, period, spacing,
+                    router.sendPendingUpdates(updateTiming.batchLimit())));
+        } else {
+            scheduleUpdate(router, cycleStart + period, null); // 未发完的在下个周期开始时先发完
+        }
+    } // end scheduleNext()
+
+    /**
+     * 统计路由器自身与相邻路由器的路由表变化次数之和（自身的变化来自定时路由更新开始时处理的路由表项超时和垃圾回收）
+     *
+     * @param router 路由器
+     * @return 变化次数之和
+     */
+    private long changeCount(Router router) {
+        long count = router.getChangeCount();
+        for (Router neighbor : router.getNeighbors()) {
+            count += neighbor.getChangeCount();
+        }
+        return count;
+    } // end changeCount()
+
+    /**
+     * 安排路由器的下一次定时路由更新
+     *
+     * @param router    路由器
+     * @param time      仿真时刻（毫秒）
+     * @param nextBatch 分批发送时本周期的下一批（为 null 时开始新的更新周期）
+     */
+    private void scheduleUpdate(Router router, long time, Runnable nextBatch) {
+        SimulationEvent event = new SimulationEvent(time, sequence++, router, nextBatch);
+        updateEvents.put(router, event);
+        eventQueue.add(event);
+    } // end scheduleUpdate()
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public UpdateTiming getUpdateTiming() {
+        return updateTiming;
+    }
+
+    /**
+     * 设置定时路由更新的相位、抖动和分批发送（相位只影响之后开始的路由器，抖动和分批从各路由器的下个周期起生效）
+     *
+     * @param updateTiming 时间安排
+     */
+    public void setUpdateTiming(UpdateTiming updateTiming) {
+        this.updateTiming = updateTiming;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    /**
+     * 无界面运行默认网络拓扑：先收敛，再使指定路由器（默认为 A）故障并重新收敛
+     * <p>
+     * 故障时刻可以不在完整路由表的周期边界上（如 64000），替代路由要等到下一次完整路由表才会送达，收敛判定会等到那时。
+     *
+     * @param args [故障路由器名称] [故障的仿真时刻（毫秒，默认为初始收敛的时刻）]
+     */
+    public static void main(String[] args) {
+        SimulationEngine engine = new SimulationEngine();
+        NetworkTopology networkTopology = new NetworkTopology(engine);
+
+        System.out.println("初始收敛：" + engine.runUntilConverged(3_600_000));
+        Router failedRouter = networkTopology.findRouter(args.length > 0 ? args[0] : "A");
+        if (failedRouter != null) {
+            if (args.length > 1) {
+                engine.runUntil(Long.parseLong(args[1]));
+            }
+            engine.scheduleFailure(engine.getCurrentTime(), failedRouter);
+            System.out.println("路由器" + failedRouter.getRouterName() + "故障后收敛："
+                    + engine.runUntilConverged(3_600_000));
+        }
+        System.out.print(networkTopology.getRoutingTablesInfo());
+
+        long updatesSent = 0, entriesSent = 0, bytesSent = 0;
+        for (Router router : networkTopology.getRouters()) {
+            updatesSent += router.getUpdatesSent();
+            entriesSent += router.getEntriesSent();
+            bytesSent += router.getBytesSent();
+        }
+        System.out.println("发送报文数：" + updatesSent + "，发送表项数：" + entriesSent + "，发送字节数：" + bytesSent);
+    } // end main()
+} // end class SimulationEngine
@@ -0,0 +1,47 @@
+/**
+ * 离散事件仿真中的事件类
+ */
+public class SimulationEvent implements Comparable<SimulationEvent> {
+    private final long time; // 事件发生的仿真时刻（毫秒）
+    private final long sequence; // 事件序号（同一时刻按加入顺序执行，保证结果确定）
+    private final Router router; // 定时路由更新事件所属的路由器（其它事件为 null）
+    private final Runnable action; // 事件动作（定时路由更新事件中为分批发送的下一批，开始新的更新周期时为 null）
+    private boolean cancelled; // 是否已取消
+
+    public SimulationEvent(long time, long sequence, Router router, Runnable action) {
+        this.time = time;
+        this.sequence = sequence;
+        this.router = router;
+        this.action = action;
+    } // end SimulationEvent()
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int result = Long.compare(time, other.time);
+        return result != 0 ? result : Long.compare(sequence, other.sequence);
+    } // end compareTo()
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Router getRouter() {
+        return router;
+    }
+
+    public Runnable getAction() {
+        return action;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+} // end class SimulationEvent
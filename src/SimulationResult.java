@@ -0,0 +1,48 @@
+/**
+ * 仿真运行结果类（仿真收敛时间与实际计算耗时分开统计）
+ */
+public class SimulationResult {
+    private final boolean converged; // 是否收敛
+    private final long convergenceMillis; // 仿真收敛时间（毫秒，从运行开始到最后一次路由表变化）
+    private final long simulatedMillis; // 本次运行推进的仿真时间（毫秒）
+    private final long eventsProcessed; // 处理的事件数
+    private final long computeNanos; // 实际计算耗时（纳秒）
+
+    public SimulationResult(boolean converged, long convergenceMillis, long simulatedMillis,
+                            long eventsProcessed, long computeNanos) {
+        this.converged = converged;
+        this.convergenceMillis = convergenceMillis;
+        this.simulatedMillis = simulatedMillis;
+        this.eventsProcessed = eventsProcessed;
+        this.computeNanos = computeNanos;
+    } // end SimulationResult()
+
+    @Override
+    public String toString() {
+        return (converged ? "已收敛" : "未收敛")
+                + "，仿真收敛时间：" + convergenceMillis + " ms"
+                + "，仿真推进时间：" + simulatedMillis + " ms"
+                + "，事件数：" + eventsProcessed
+                + "，计算耗时：" + String.format("%.3f", computeNanos / 1e6) + " ms";
+    } // end toString()
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public long getConvergenceMillis() {
+        return convergenceMillis;
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+} // end class SimulationResult
@@ -0,0 +1,119 @@
+/**
+ * 水平分割模式对比实验（无界面运行）
+ * <p>
+ * 对每种水平分割模式：在离散事件仿真中给指定路由器直连一个末梢网络并使默认网络拓扑收敛，
+ * 再使该路由器故障（末梢网络随之不可达，容易出现“坏消息传得慢”），
+ * 统计重新收敛所需的更新轮数、仿真时间和路由更新报文数，并检查重新收敛后仍被标为不可达的其他网络的路由表项数（应为 0）。
+ * 收敛判定覆盖一个完整路由表周期（见 {@link SimulationEngine#runUntilConverged(long)}）：两次完整路由表之间只发送触发更新，
+ * 替代路由要等到下一次完整路由表才会送达，因此每 15 个周期发送一次完整路由表时，收敛时间取决于故障时刻到下一次完整路由表的距离。
+ */
+public class SplitHorizonExperiment {
+    private static final long MAX_SIMULATION_MILLIS = 3_600_000; // 最长仿真时间（毫秒）
+    private static final String STUB_NETWORK_NAME = "末梢网"; // 只直连故障路由器的网络名称
+
+    /**
+     * 运行一次实验
+     *
+     * @param mode             水平分割模式
+     * @param failedRouterName 故障路由器名称
+     * @param fullUpdateCycles 每隔多少个更新周期发送一次完整路由表（1 表示每个周期都发送完整路由表）
+     * @return 实验结果
+     */
+    public static String run(SplitHorizonMode mode, String failedRouterName, int fullUpdateCycles) {
+        SimulationEngine engine = new SimulationEngine();
+        NetworkTopology networkTopology = new NetworkTopology(engine);
+        networkTopology.setSplitHorizonMode(mode);
+        for (Router router : networkTopology.getRouters()) {
+            router.setFullUpdateCycles(fullUpdateCycles);
+        }
+
+        Router failedRouter = networkTopology.findRouter(failedRouterName);
+        if (failedRouter == null) {
+            return "网络拓扑中不存在路由器：" + failedRouterName;
+        }
+        Network stubNetwork = new Network(STUB_NETWORK_NAME);
+        networkTopology.attachNetwork(failedRouter, stubNetwork);
+        networkTopology.joinNetwork(stubNetwork);
+        engine.runUntilConverged(MAX_SIMULATION_MILLIS);
+
+        long updatesBefore = totalUpdatesSent(networkTopology);
+        long entriesBefore = totalEntriesSent(networkTopology);
+        engine.scheduleFailure(engine.getCurrentTime(), failedRouter);
+        SimulationResult result = engine.runUntilConverged(MAX_SIMULATION_MILLIS);
+
+        long rounds = (result.getConvergenceMillis() + engine.getIntervalMillis() - 1) / engine.getIntervalMillis();
+        long updatesSent = totalUpdatesSent(networkTopology) - updatesBefore;
+        long entriesSent = totalEntriesSent(networkTopology) - entriesBefore;
+        long staleEntries = staleEntries(networkTopology, stubNetwork);
+        networkTopology.shutdown();
+        return String.format("%-8s\t%s\t%d\t\t%d ms\t\t%d\t\t%d\t\t%d", mode.getDescription(),
+                result.isConverged() ? "是" : "否", rounds, result.getConvergenceMillis(),
+                updatesSent, entriesSent, staleEntries);
+    } // end run()
+
+    /**
+     * 统计仍被标为不可达的路由表项数（末梢网络除外：默认网络拓扑中其他网络都还直连未故障的路由器，应当可达）
+     *
+     * @param networkTopology 网络拓扑
+     * @param stubNetwork     末梢网络
+     * @return 路由表项数
+     */
+    private static long staleEntries(NetworkTopology networkTopology, Network stubNetwork) {
+        long count = 0;
+        for (Router router : networkTopology.getRouters()) {
+            if (!router.isUpdating()) {
+                continue; // 故障的路由器
+            }
+            RoutingTable.Snapshot snapshot = router.getRoutingTableSnapshot();
+            for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+                if (networkId != stubNetwork.getNetworkId() && snapshot.hops(networkId) == RoutingTable.UNREACHABLE) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    } // end staleEntries()
+
+    /**
+     * 统计所有路由器已发送的路由更新报文数
+     *
+     * @param networkTopology 网络拓扑
+     * @return 报文数
+     */
+    private static long totalUpdatesSent(NetworkTopology networkTopology) {
+        long updatesSent = 0;
+        for (Router router : networkTopology.getRouters()) {
+            updatesSent += router.getUpdatesSent();
+        }
+        return updatesSent;
+    } // end totalUpdatesSent()
+
+    /**
+     * 统计所有路由器已发送的路由表项数
+     *
+     * @param networkTopology 网络拓扑
+     * @return 路由表项数
+     */
+    private static long totalEntriesSent(NetworkTopology networkTopology) {
+        long entriesSent = 0;
+        for (Router router : networkTopology.getRouters()) {
+            entriesSent += router.getEntriesSent();
+        }
+        return entriesSent;
+    } // end totalEntriesSent()
+
+    /**
+     * @param args 故障路由器名称（可选，默认为 D）
+     */
+    public static void main(String[] args) {
+        String failedRouterName = args.length > 0 ? args[0] : "D";
+        for (int fullUpdateCycles : new int[]{1, Router.DEFAULT_FULL_UPDATE_CYCLES}) {
+            System.out.println("路由器" + failedRouterName + "故障后的重新收敛（每 " + fullUpdateCycles
+                    + " 个更新周期发送一次完整路由表）：");
+            System.out.println("模式\t\t收敛\t轮数\t\t仿真时间\t\t报文数\t\t表项数\t\t残留不可达");
+            for (SplitHorizonMode mode : SplitHorizonMode.values()) {
+                System.out.println(run(mode, failedRouterName, fullUpdateCycles));
+            }
+        }
+    } // end main()
+} // end class SplitHorizonExperiment
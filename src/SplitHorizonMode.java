@@ -0,0 +1,18 @@
+/**
+ * 水平分割模式枚举
+ */
+public enum SplitHorizonMode {
+    NONE("无"), // 通告完整路由表
+    SPLIT_HORIZON("水平分割"), // 不向下一跳路由器通告经由它学到的路由
+    POISONED_REVERSE("毒性逆转"); // 向下一跳路由器通告经由它学到的路由，但跳数为16（不可达）
+
+    private final String description; // 模式说明
+
+    SplitHorizonMode(String description) {
+        this.description = description;
+    } // end SplitHorizonMode()
+
+    public String getDescription() {
+        return description;
+    }
+} // end enum SplitHorizonMode
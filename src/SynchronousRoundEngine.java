@@ -0,0 +1,218 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 同步轮引擎（并行的同步 Bellman-Ford）
+ * <p>
+ * 每一轮中所有（未故障的）路由器同时向相邻路由器发送完整路由表：先取得所有路由表的快照作为上一代（只读），
+ * 再在 {@link ForkJoinPool} 上按接收方并行处理路由通告，每个接收方只写自己的路由表（下一代），
+ * 一轮结束时下一代成为新的快照，相当于双缓冲。接收方按发送方加入引擎的顺序依次处理通告，
+ * 处理规则就是 {@link Router#receiveUpdate(Router, RouteAdvertisement)}，因此结果与并行度无关、没有数据竞争。
+ * 一轮中没有任何路由表项变化即为收敛。
+ */
+public class SynchronousRoundEngine implements UpdateScheduler {
+    private static final int RECEIVERS_PER_TASK = 16; // 每个任务至少处理的接收方数（再少就不再拆分）
+
+    private final ForkJoinPool pool; // 并行处理接收方的线程池
+    private final Set<Router> routers; // 参与路由更新的路由器（按加入顺序）
+    private final long intervalMillis; // 每轮对应的时长（毫秒）
+    private long round; // 已完成的轮数
+    private long entriesSent; // 已发送的路由表项数
+    private long advertisementsSent; // 已发送的路由通告数（每个相邻路由器一个）
+
+    public SynchronousRoundEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    } // end SynchronousRoundEngine()
+
+    public SynchronousRoundEngine(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.routers = new LinkedHashSet<>();
+        this.intervalMillis = UPDATE_INTERVAL_MILLIS;
+    } // end SynchronousRoundEngine()
+
+    @Override
+    public synchronized void start(Router router) {
+        routers.add(router);
+    } // end start()
+
+    @Override
+    public synchronized void stop(Router router) {
+        routers.remove(router);
+    } // end stop()
+
+    /**
+     * 等待正在进行的一轮结束（runRound() 持有同一个锁）
+     */
+    @Override
+    public synchronized void awaitQuiescence() {
+    } // end awaitQuiescence()
+
+    @Override
+    public synchronized void shutdown() {
+        routers.clear();
+        pool.shutdown();
+    } // end shutdown()
+
+    @Override
+    public long currentTimeMillis() {
+        return round * intervalMillis;
+    } // end currentTimeMillis()
+
+    /**
+     * 运行一轮
+     *
+     * @return 本轮变化的路由表项数
+     */
+    public synchronized long runRound() {
+        for (Router router : routers) {
+            router.expireRoutes(); // 本引擎不调用 onUpdateTimer()，在每轮开始时推进路由表项定时器
+        }
+
+        /* 上一代：所有发送方的路由表快照（不可变），以及每个接收方按发送方顺序排列的收件箱 */
+        Map<Router, Inbox> inboxes = new LinkedHashMap<>();
+        for (Router sender : routers) {
+            RouteAdvertisement advertisement = RouteAdvertisement.full(sender.getRoutingTableSnapshot(),
+                    sender.getSplitHorizonMode());
+            for (Router receiver : sender.getNeighbors()) {
+                inboxes.computeIfAbsent(receiver, key -> new Inbox(receiver)).add(sender, advertisement);
+            }
+        }
+        Inbox[] receivers = inboxes.values().toArray(new Inbox[0]);
+
+        /* 下一代：按接收方并行处理，每个接收方只修改自己的路由表 */
+        pool.invoke(new ReceiveTask(receivers, 0, receivers.length));
+
+        long changes = 0;
+        for (Inbox inbox : receivers) {
+            changes += inbox.changes;
+            entriesSent += inbox.entries;
+            advertisementsSent += inbox.count;
+        }
+        round++;
+
+        ConvergenceDetector detector = routers.isEmpty() ? null : routers.iterator().next().getConvergenceDetector();
+        if (detector != null) {
+            detector.onUpdateCycle();
+        }
+        return changes;
+    } // end runRound()
+
+    /**
+     * 运行直到收敛（一轮中没有任何路由表项变化）或达到最大轮数
+     *
+     * @param maxRounds 最大轮数
+     * @return 运行结果（时间按每轮一个路由更新周期计算）
+     */
+    public SimulationResult runUntilConverged(int maxRounds) {
+        long startRound = round;
+        long lastChangeRound = round;
+        long startNanos = System.nanoTime();
+        boolean converged = false;
+        for (int i = 0; i < maxRounds; i++) {
+            if (runRound() == 0) {
+                converged = true;
+                break;
+            }
+            lastChangeRound = round;
+        }
+        return new SimulationResult(converged, (lastChangeRound - startRound) * intervalMillis,
+                (round - startRound) * intervalMillis, round - startRound, System.nanoTime() - startNanos);
+    } // end runUntilConverged()
+
+    /**
+     * 接收方的收件箱（上一代的路由通告，按发送方顺序排列）
+     */
+    private static final class Inbox {
+        private final Router receiver; // 接收方
+        private Router[] senders = new Router[4]; // 发送方
+        private RouteAdvertisement[] advertisements = new RouteAdvertisement[4]; // 路由通告
+        private int count; // 路由通告数
+        private long entries; // 收到的路由表项数
+        private long changes; // 变化的路由表项数
+
+        private Inbox(Router receiver) {
+            this.receiver = receiver;
+        } // end Inbox()
+
+        private void add(Router sender, RouteAdvertisement advertisement) {
+            if (count == senders.length) {
+                senders = Arrays.copyOf(senders, count * 2);
+                advertisements = Arrays.copyOf(advertisements, count * 2);
+            }
+            senders[count] = sender;
+            advertisements[count++] = advertisement;
+        } // end add()
+
+        private void receive() {
+            long changesBefore = receiver.getChangeCount();
+            entries = receiver.receiveUpdates(senders, advertisements, count);
+            changes = receiver.getChangeCount() - changesBefore;
+        } // end receive()
+    } // end class Inbox
+
+    /**
+     * 并行处理接收方的任务（二分拆分）
+     */
+    private static final class ReceiveTask extends RecursiveAction {
+        private final Inbox[] inboxes; // 收件箱
+        private final int from; // 起始下标（含）
+        private final int to; // 结束下标（不含）
+
+        private ReceiveTask(Inbox[] inboxes, int from, int to) {
+            this.inboxes = inboxes;
+            this.from = from;
+            this.to = to;
+        } // end ReceiveTask()
+
+        @Override
+        protected void compute() {
+            if (to - from <= RECEIVERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    inboxes[i].receive();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReceiveTask(inboxes, from, middle), new ReceiveTask(inboxes, middle, to));
+        } // end compute()
+    } // end class ReceiveTask
+
+    public long getRound() {
+        return round;
+    }
+
+    public long getEntriesSent() {
+        return entriesSent;
+    }
+
+    public long getAdvertisementsSent() {
+        return advertisementsSent;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 无界面运行默认网络拓扑：先收敛，再使指定路由器（默认为 A）故障并重新收敛
+     *
+     * @param args 故障路由器名称（可选） 并行度（可选）
+     */
+    public static void main(String[] args) {
+        SynchronousRoundEngine engine = args.length > 1 ? new SynchronousRoundEngine(Integer.parseInt(args[1]))
+                : new SynchronousRoundEngine();
+        NetworkTopology networkTopology = new NetworkTopology(engine);
+
+        System.out.println("初始收敛：" + engine.runUntilConverged(1_000));
+        Router failedRouter = networkTopology.findRouter(args.length > 0 ? args[0] : "A");
+        if (failedRouter != null) {
+            failedRouter.failure();
+            System.out.println("路由器" + failedRouter.getRouterName() + "故障后收敛：" + engine.runUntilConverged(1_000));
+        }
+        System.out.print(networkTopology.getRoutingTablesInfo());
+        System.out.println("并行度：" + engine.getParallelism() + "，轮数：" + engine.getRound()
+                + "，发送通告数：" + engine.getAdvertisementsSent() + "，发送表项数：" + engine.getEntriesSent());
+        networkTopology.shutdown();
+    } // end main()
+} // end class SynchronousRoundEngine
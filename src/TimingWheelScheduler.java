@@ -0,0 +1,259 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮调度器
+ * <p>
+ * 由一个时间轮线程推进刻度，到期的路由更新任务交给固定大小（CPU 核数）的工作线程池执行，
+ * 从而避免“每个路由器一个定时线程”，使线程数与路由器数量无关。
+ * 路由更新抛出异常时停止该路由器的定时路由更新（记入 {@link #getFailures()}，重新 start() 后恢复），
+ * 并把异常交给工作线程的未捕获异常处理器，不在下个周期反复出错。
+ */
+public class TimingWheelScheduler implements UpdateScheduler {
+    private static final long DEFAULT_TICK_MILLIS = 100; // 默认刻度长度（毫秒）
+    private static final int WHEEL_SIZE = 512; // 时间轮槽数（2 的幂）
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1; // 槽下标掩码
+
+    private final long tickMillis; // 刻度长度（毫秒）
+    private final long intervalMillis; // 路由更新周期（毫秒）
+    private final List<ArrayDeque<Timeout>> wheel; // 时间轮（仅由时间轮线程访问）
+    private final Queue<Timeout> pendingTimeouts; // 待放入时间轮的任务
+    private final Map<Router, Timeout> timeouts; // 路由器 -> 定时任务
+    private final Map<Router, RuntimeException> failures; // 路由更新出错而停止的路由器 -> 异常
+    private final ExecutorService workers; // 工作线程池
+    private final Thread tickerThread; // 时间轮线程
+    private final AtomicInteger activeUpdates; // 正在工作线程上执行的定时任务数
+    private final long startTime; // 启动时刻（纳秒）
+    private volatile UpdateTiming updateTiming; // 定时路由更新的相位、抖动和分批发送
+    private volatile long currentTick; // 当前刻度
+    private volatile boolean running; // 是否运行中
+
+    public TimingWheelScheduler() {
+        this(DEFAULT_TICK_MILLIS, UPDATE_INTERVAL_MILLIS, Runtime.getRuntime().availableProcessors());
+    } // end TimingWheelScheduler()
+
+    public TimingWheelScheduler(long tickMillis, long intervalMillis, int workerThreads) {
+        this.tickMillis = tickMillis;
+        this.intervalMillis = intervalMillis;
+        this.updateTiming = UpdateTiming.SYNCHRONIZED;
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.pendingTimeouts = new ConcurrentLinkedQueue<>();
+        this.timeouts = new ConcurrentHashMap<>();
+        this.failures = new ConcurrentHashMap<>();
+        this.workers = Executors.newFixedThreadPool(workerThreads, daemonThreadFactory("rip-update-worker-"));
+        this.activeUpdates = new AtomicInteger();
+        this.tickerThread = daemonThreadFactory("rip-timing-wheel-").newThread(this::runWheel);
+        this.startTime = System.nanoTime();
+        this.running = true;
+        tickerThread.start();
+    } // end TimingWheelScheduler()
+
+    /**
+     * 设置定时路由更新的相位、抖动和分批发送（相位只影响之后开始的路由器，抖动和分批从各路由器的下个周期起生效）
+     *
+     * @param updateTiming 时间安排
+     */
+    public void setUpdateTiming(UpdateTiming updateTiming) {
+        this.updateTiming = updateTiming;
+    } // end setUpdateTiming()
+
+    public UpdateTiming getUpdateTiming() {
+        return updateTiming;
+    }
+
+    @Override
+    public void start(Router router) {
+        if (!running) {
+            return;
+        }
+        long tick = currentTick;
+        Timeout timeout = new Timeout(router, tick
+                + toTicks(updateTiming.initialDelay(router, tick * tickMillis, intervalMillis), 0));
+        Timeout previous = timeouts.put(router, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        failures.remove(router);
+        pendingTimeouts.add(timeout);
+    } // end start()
+
+    @Override
+    public void stop(Router router) {
+        Timeout timeout = timeouts.remove(router);
+        if (timeout != null) {
+            timeout.cancelled = true; // 已在时间轮中的任务在到期时丢弃
+        }
+    } // end stop()
+
+    /**
+     * 等待正在执行的定时任务结束：任务先增加计数再检查是否已取消，因此计数归零后，已取消的任务不会再执行路由更新
+     */
+    @Override
+    public void awaitQuiescence() {
+        while (activeUpdates.get() > 0) {
+            Thread.yield();
+        }
+    } // end awaitQuiescence()
+
+    @Override
+    public void shutdown() {
+        running = false;
+        for (Timeout timeout : timeouts.values()) {
+            timeout.cancelled = true;
+        }
+        timeouts.clear();
+        tickerThread.interrupt();
+        workers.shutdown();
+    } // end shutdown()
+
+    /**
+     * 获取路由更新出错而停止的路由器
+     *
+     * @return 路由器 -> 异常（只读视图）
+     */
+    public Map<Router, RuntimeException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    } // end getFailures()
+
+    /**
+     * 时间轮线程主循环
+     */
+    private void runWheel() {
+        while (running) {
+            long deadline = startTime + (currentTick + 1) * tickMillis * 1_000_000L;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            transferPendingTimeouts();
+            expireTimeouts(wheel.get((int) (currentTick & WHEEL_MASK)));
+            currentTick++;
+        }
+    } // end runWheel()
+
+    /**
+     * 把待放入的任务按到期刻度放入对应槽
+     */
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long deadlineTick = Math.max(timeout.deadlineTick, currentTick); // 已过期的任务放入当前槽
+            timeout.remainingRounds = (deadlineTick - currentTick) / WHEEL_SIZE;
+            wheel.get((int) (deadlineTick & WHEEL_MASK)).add(timeout);
+        }
+    } // end transferPendingTimeouts()
+
+    /**
+     * 处理当前槽中的任务，到期的交给工作线程执行
+     *
+     * @param bucket 当前槽
+     */
+    private void expireTimeouts(ArrayDeque<Timeout> bucket) {
+        int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            Timeout timeout = bucket.poll();
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+            } else {
+                workers.execute(timeout);
+            }
+        }
+    } // end expireTimeouts()
+
+    /**
+     * 把时长换算为刻度数（四舍五入）
+     *
+     * @param millis   时长（毫秒）
+     * @param minTicks 最少刻度数
+     * @return 刻度数
+     */
+    private long toTicks(long millis, long minTicks) {
+        return Math.max(minTicks, (millis + tickMillis / 2) / tickMillis);
+    } // end toTicks()
+
+    /**
+     * 创建守护线程工厂
+     *
+     * @param prefix 线程名前缀
+     * @return 线程工厂
+     */
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    } // end daemonThreadFactory()
+
+    /**
+     * 时间轮中的定时任务（每个路由器一个，执行后重新放入时间轮：分批发送时先按间隔发送本周期的下一批，再到下个周期）
+     */
+    private class Timeout implements Runnable {
+        private final Router router; // 路由器
+        private long deadlineTick; // 到期刻度
+        private long remainingRounds; // 剩余圈数
+        private long cycleStartTick; // 本周期开始的刻度
+        private long periodTicks; // 本周期的长度（刻度数）
+        private long spacingTicks; // 相邻两批的间隔（刻度数）
+        private int remainingNeighbors; // 本周期尚未发送的相邻路由器数（为 0 时下次到期开始新的周期）
+        private volatile boolean cancelled; // 是否已取消
+
+        private Timeout(Router router, long deadlineTick) {
+            this.router = router;
+            this.deadlineTick = deadlineTick;
+        } // end Timeout()
+
+        @Override
+        public void run() {
+            activeUpdates.incrementAndGet();
+            try {
+                if (!cancelled) { // 交给工作线程后可能已被取消
+                    UpdateTiming timing = updateTiming;
+                    if (remainingNeighbors > 0) {
+                        remainingNeighbors = router.sendPendingUpdates(timing.batchLimit());
+                    } else {
+                        cycleStartTick = deadlineTick;
+                        long periodMillis = timing.nextPeriod(router, cycleStartTick * tickMillis, intervalMillis);
+                        periodTicks = toTicks(periodMillis, 1);
+                        spacingTicks = toTicks(timing.batchSpacing(periodMillis, router.getNeighbors().size()), 1);
+                        remainingNeighbors = router.onUpdateTimer(timing.batchLimit());
+                    }
+                }
+            } catch (RuntimeException e) {
+                cancelled = true; // 停止该路由器的定时路由更新
+                timeouts.remove(router, this);
+                failures.put(router, e);
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e); // 工作线程继续执行其他路由器的任务
+            } finally {
+                if (!cancelled && running) {
+                    if (remainingNeighbors > 0 && deadlineTick + spacingTicks < cycleStartTick + periodTicks) {
+                        deadlineTick += spacingTicks; // 本周期的下一批
+                    } else {
+                        remainingNeighbors = 0; // 未发完的在下个周期开始时先发完
+                        deadlineTick = cycleStartTick + periodTicks;
+                    }
+                    pendingTimeouts.add(this);
+                }
+                activeUpdates.decrementAndGet();
+            }
+        } // end run()
+    } // end class Timeout
+} // end class TimingWheelScheduler
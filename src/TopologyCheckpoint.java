@@ -0,0 +1,430 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 网络拓扑检查点（紧凑的二进制格式，经文件通道按块写入，通过内存映射文件读取）
+ * <p>
+ * 保存网络、路由器、相邻关系、直连网络和每个路由器的路由表，恢复后无需重新收敛即可继续实验（如路由器故障）。
+ * 文件中以网络、路由器在文件中的序号代替运行时编号（恢复时重新分配），格式如下（大端序）：
+ * <pre>
+ * int 魔数 "RIPC"，int 版本，int 水平分割模式，int 网络数，int 路由器数
+ * 网络 × 网络数：int 名称字节数，UTF-8 名称，byte 是否在网络拓扑中（已退出的网络仍可能出现在路由表中），
+ *                int 前缀地址，byte 前缀长度（-1 表示没有前缀；版本 1 的文件没有这两项，恢复时使用默认前缀）
+ * 路由器名称 × 路由器数：int 名称字节数，UTF-8 名称
+ * 路由器 × 路由器数：byte 是否在发送路由更新（故障的路由器为 0），int 完整路由表周期数，
+ *                    int 直连网络数，int[] 网络序号，int 相邻路由器数，int[] 路由器序号，
+ *                    int 路由表项数，int[] 目的网络序号，byte[] 跳数，int[] 下一跳路由器序号
+ * </pre>
+ * 路由表按列存储，读写时整段批量复制；读取时文件按固定大小的窗口依次映射，大小不受单个映射 2 GB 的限制。
+ * 写入不用可写映射：映射未释放时 Windows 不允许截断或覆盖该文件，而写入前无法准确得知文件大小。
+ * 不保存仿真时刻和发送统计。
+ */
+public class TopologyCheckpoint {
+    private static final int MAGIC = 0x52495043; // 魔数 "RIPC"
+    private static final int VERSION = 2; // 格式版本（版本 2 增加网络前缀）
+    private static final int WINDOW_BYTES = 64 << 20; // 读取时每次映射的窗口大小（64 MB）
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20; // 写入缓冲区大小（1 MB）
+
+    private final NetworkTopology networkTopology; // 网络拓扑
+
+    public TopologyCheckpoint(NetworkTopology networkTopology) {
+        this.networkTopology = networkTopology;
+    } // end TopologyCheckpoint()
+
+    /**
+     * 保存检查点
+     *
+     * @param path 文件路径（已存在时覆盖）
+     * @throws IOException 写入失败
+     */
+    public void save(Path path) throws IOException {
+        List<Router> routers = networkTopology.getRouters();
+        RoutingTable.Snapshot[] snapshots = new RoutingTable.Snapshot[routers.size()];
+        int maxRouterId = -1;
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = routers.get(i).getRoutingTableSnapshot();
+            maxRouterId = Math.max(maxRouterId, routers.get(i).getRouterId());
+        }
+        int[] routerIndex = new int[maxRouterId + 1]; // 路由器编号 -> 序号 + 1
+        for (int i = 0; i < snapshots.length; i++) {
+            routerIndex[routers.get(i).getRouterId()] = i + 1;
+        }
+
+        /* 网络序号：先是网络拓扑中的网络，再是只出现在直连网络或路由表中的网络 */
+        int[] networkIndex = new int[Network.networkIdCount()]; // 网络编号 -> 序号 + 1
+        List<Network> networks = new ArrayList<>();
+        for (Network network : networkTopology.getNetworks()) {
+            addNetwork(network, networkIndex, networks);
+        }
+        int topologyNetworkCount = networks.size();
+        for (int i = 0; i < snapshots.length; i++) {
+            for (Network network : routers.get(i).getDirectlyConnectedNetworks()) {
+                addNetwork(network, networkIndex, networks);
+            }
+            RoutingTable.Snapshot snapshot = snapshots[i];
+            for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+                addNetwork(Network.byId(networkId), networkIndex, networks);
+            }
+        }
+
+        try (ChannelOutput out = new ChannelOutput(path)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(networkTopology.getSplitHorizonMode().ordinal());
+            out.putInt(networks.size());
+            out.putInt(routers.size());
+            for (int i = 0; i < networks.size(); i++) {
+                out.putString(networks.get(i).getNetworkName());
+                out.putByte(i < topologyNetworkCount ? 1 : 0);
+                out.putInt(networks.get(i).getPrefixAddress());
+                out.putByte(networks.get(i).getPrefixLength());
+            }
+            for (Router router : routers) {
+                out.putString(router.getRouterName());
+            }
+
+            int[] indexes = new int[16];
+            byte[] hops = new byte[16];
+            int[] nextHops = new int[16];
+            for (int i = 0; i < snapshots.length; i++) {
+                Router router = routers.get(i);
+                out.putByte(router.isUpdating() ? 1 : 0);
+                out.putInt(router.getFullUpdateCycles());
+
+                Set<Network> directlyConnectedNetworks = router.getDirectlyConnectedNetworks();
+                indexes = ensureCapacity(indexes, directlyConnectedNetworks.size());
+                int count = 0;
+                for (Network network : directlyConnectedNetworks) {
+                    indexes[count++] = networkIndex[network.getNetworkId()] - 1;
+                }
+                out.putInt(count);
+                out.putInts(indexes, count);
+
+                List<Router> neighbors = router.getNeighbors();
+                indexes = ensureCapacity(indexes, neighbors.size());
+                count = 0;
+                for (Router neighbor : neighbors) {
+                    int index = indexOf(routerIndex, neighbor.getRouterId());
+                    if (index >= 0) {
+                        indexes[count++] = index; // 不在网络拓扑中的相邻路由器不保存
+                    }
+                }
+                out.putInt(count);
+                out.putInts(indexes, count);
+
+                /* 路由表按列写入；下一跳不在网络拓扑中时保存为经由自己不可达 */
+                RoutingTable.Snapshot snapshot = snapshots[i];
+                indexes = ensureCapacity(indexes, snapshot.size());
+                hops = snapshot.size() > hops.length ? new byte[indexes.length] : hops;
+                nextHops = snapshot.size() > nextHops.length ? new int[indexes.length] : nextHops;
+                count = 0;
+                for (int networkId = snapshot.nextNetworkId(0); networkId >= 0; networkId = snapshot.nextNetworkId(networkId + 1)) {
+                    int nextHop = indexOf(routerIndex, snapshot.nextHop(networkId));
+                    indexes[count] = networkIndex[networkId] - 1;
+                    hops[count] = (byte) (nextHop >= 0 ? snapshot.hops(networkId) : RoutingTable.UNREACHABLE);
+                    nextHops[count++] = nextHop >= 0 ? nextHop : i;
+                }
+                out.putInt(count);
+                out.putInts(indexes, count);
+                out.putBytes(hops, count);
+                out.putInts(nextHops, count);
+            }
+        }
+    } // end save()
+
+    /**
+     * 恢复检查点：把检查点中的网络和路由器加入网络拓扑（网络拓扑中不能已有同名的路由器）
+     * <p>
+     * 先读取并校验整个文件，再加入网络、设置前缀和加入路由器；文件无效或不完整时抛出异常，网络拓扑保持不变，
+     * 读取时新建的网络的编号随即释放（没有其它持有方时回收）。
+     *
+     * @param path 文件路径
+     * @return 恢复的路由器
+     * @throws IOException 读取失败
+     */
+    public List<Router> restore(Path path) throws IOException {
+        try (MappedInput in = new MappedInput(path)) {
+            if (in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("不是网络拓扑检查点文件：" + path);
+            }
+            int version = in.getInt();
+            if (version != 1 && version != VERSION) {
+                throw new IllegalArgumentException("不支持的检查点版本：" + version);
+            }
+            SplitHorizonMode splitHorizonMode = SplitHorizonMode.values()[in.getInt()];
+            Network[] networks = new Network[in.getInt()];
+            Router[] routers = new Router[in.getInt()];
+            int[] networkIds = new int[networks.length]; // 序号 -> 本次运行的网络编号
+            int[] routerIds = new int[routers.length]; // 序号 -> 本次运行的路由器编号
+            boolean[] joining = new boolean[networks.length]; // 读取完毕后要加入网络拓扑的网络
+            int[] prefixAddresses = new int[networks.length]; // 读取完毕后要设置的前缀地址
+            int[] prefixLengths = new int[networks.length]; // 读取完毕后要设置的前缀长度（-1 表示不设置）
+
+            boolean[] updating = new boolean[routers.length];
+            List<Network> created = new ArrayList<>(); // 本次新建的网络（恢复完成前临时持有网络编号）
+            try {
+                for (int i = 0; i < networks.length; i++) {
+                    String networkName = in.getString();
+                    boolean inTopology = in.getByte() != 0;
+                    prefixAddresses[i] = version == 1 ? 0 : in.getInt();
+                    prefixLengths[i] = version == 1 ? -1 : in.getByte();
+                    Network network = networkTopology.findNetwork(networkName);
+                    if (network == null) {
+                        network = new Network(networkName);
+                        network.retainNetworkId();
+                        created.add(network);
+                        joining[i] = inTopology;
+                    }
+                    networks[i] = network;
+                    networkIds[i] = network.getNetworkId();
+                }
+                for (int i = 0; i < routers.length; i++) {
+                    String routerName = in.getString();
+                    if (networkTopology.findRouter(routerName) != null) {
+                        throw new IllegalArgumentException("网络拓扑中已存在路由器：" + routerName);
+                    }
+                    routers[i] = Router.obtain(routerName);
+                    routerIds[i] = routers[i].getRouterId();
+                }
+
+                int[] indexes = new int[16];
+                byte[] hops = new byte[16];
+                int[] nextHops = new int[16];
+                for (int i = 0; i < routers.length; i++) {
+                    Router router = routers[i];
+                    updating[i] = in.getByte() != 0;
+                    router.setFullUpdateCycles(in.getInt());
+
+                    int count = in.getInt();
+                    indexes = ensureCapacity(indexes, count);
+                    in.getInts(indexes, count);
+                    for (int j = 0; j < count; j++) {
+                        router.addDirectlyConnectedNetwork(networks[indexes[j]]);
+                    }
+
+                    count = in.getInt();
+                    indexes = ensureCapacity(indexes, count);
+                    in.getInts(indexes, count);
+                    for (int j = 0; j < count; j++) {
+                        router.addNeighbor(routers[indexes[j]]);
+                    }
+
+                    /* 路由表：序号换算为本次运行的网络编号、路由器编号后整表替换 */
+                    count = in.getInt();
+                    indexes = ensureCapacity(indexes, count);
+                    hops = count > hops.length ? new byte[indexes.length] : hops;
+                    nextHops = count > nextHops.length ? new int[indexes.length] : nextHops;
+                    in.getInts(indexes, count);
+                    in.getBytes(hops, count);
+                    in.getInts(nextHops, count);
+                    for (int j = 0; j < count; j++) {
+                        indexes[j] = networkIds[indexes[j]];
+                        nextHops[j] = routerIds[nextHops[j]];
+                    }
+                    router.restoreRoutingTable(indexes, hops, nextHops, count);
+                }
+            } catch (IOException | RuntimeException e) {
+                for (Router router : routers) {
+                    if (router != null) {
+                        router.recycle(); // 尚未加入网络拓扑的路由器放回对象池
+                    }
+                }
+                for (Network network : created) {
+                    network.releaseNetworkId(); // 没有其它持有方的网络编号随即回收
+                }
+                throw e;
+            }
+
+            /* 整个文件读取并校验完毕后才修改网络拓扑：恢复失败时网络拓扑和网络前缀保持不变 */
+            for (int i = 0; i < networks.length; i++) {
+                if (prefixLengths[i] >= 0) {
+                    networks[i].setPrefix(prefixAddresses[i], prefixLengths[i]);
+                }
+                if (joining[i] && networkTopology.findNetwork(networks[i].getNetworkName()) == null) {
+                    networkTopology.joinNetwork(networks[i]);
+                }
+                networkTopology.retainNetwork(networks[i]); // 已退出的网络只出现在路由表中，同样由网络拓扑持有
+            }
+            for (Network network : created) {
+                network.releaseNetworkId(); // 网络编号已由网络拓扑持有
+            }
+            networkTopology.setSplitHorizonMode(splitHorizonMode);
+            for (int i = 0; i < routers.length; i++) {
+                networkTopology.joinRouter(routers[i]);
+                if (!updating[i]) {
+                    routers[i].stopUpdates(); // 故障的路由器保持停止
+                }
+            }
+            return Arrays.asList(routers);
+        }
+    } // end restore()
+
+    private static void addNetwork(Network network, int[] networkIndex, List<Network> networks) {
+        if (networkIndex[network.getNetworkId()] == 0) {
+            networks.add(network);
+            networkIndex[network.getNetworkId()] = networks.size();
+        }
+    } // end addNetwork()
+
+    private static int indexOf(int[] routerIndex, int routerId) {
+        return routerId >= 0 && routerId < routerIndex.length ? routerIndex[routerId] - 1 : -1;
+    } // end indexOf()
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        return capacity <= array.length ? array : new int[Math.max(capacity, array.length * 2)];
+    } // end ensureCapacity()
+
+    /**
+     * 经文件通道按块写入的输出文件（缓冲区写满时写出，关闭时写出剩余部分并刷到磁盘）
+     */
+    private static final class ChannelOutput implements Closeable {
+        private final FileChannel channel; // 文件通道
+        private final ByteBuffer buffer; // 写入缓冲区
+
+        private ChannelOutput(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES);
+        } // end ChannelOutput()
+
+        /**
+         * 保证缓冲区至少还有 bytes 个字节可写（bytes 不超过 4）
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        } // end ensure()
+
+        /**
+         * 把缓冲区中的数据写入文件
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } // end flush()
+
+        private void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        } // end putByte()
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        } // end putInt()
+
+        private void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes, bytes.length);
+        } // end putString()
+
+        private void putBytes(byte[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(1);
+                int length = Math.min(count - offset, buffer.remaining());
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        } // end putBytes()
+
+        private void putInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(4);
+                int length = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, offset, length); // 整段批量复制
+                buffer.position(buffer.position() + length * 4);
+                offset += length;
+            }
+        } // end putInts()
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } // end close()
+    } // end class ChannelOutput
+
+    /**
+     * 按窗口映射的输入文件
+     */
+    private static final class MappedInput implements Closeable {
+        private final FileChannel channel; // 文件通道
+        private final long size; // 文件大小
+        private MappedByteBuffer buffer; // 当前窗口
+        private long windowStart; // 当前窗口在文件中的起始位置
+
+        private MappedInput(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_BYTES, size));
+        } // end MappedInput()
+
+        /**
+         * 保证当前窗口至少还有 bytes 个字节可读
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                windowStart += buffer.position();
+                if (size - windowStart < bytes) {
+                    throw new EOFException("检查点文件不完整");
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(Math.max(WINDOW_BYTES, bytes), size - windowStart));
+            }
+        } // end ensure()
+
+        private byte getByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        } // end getByte()
+
+        private int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        } // end getInt()
+
+        private String getString() throws IOException {
+            byte[] bytes = new byte[getInt()];
+            getBytes(bytes, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } // end getString()
+
+        private void getBytes(byte[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(1);
+                int length = Math.min(count - offset, buffer.remaining());
+                buffer.get(values, offset, length);
+                offset += length;
+            }
+        } // end getBytes()
+
+        private void getInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(4);
+                int length = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asIntBuffer().get(values, offset, length); // 整段批量复制
+                buffer.position(buffer.position() + length * 4);
+                offset += length;
+            }
+        } // end getInts()
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        } // end close()
+    } // end class MappedInput
+} // end class TopologyCheckpoint
@@ -0,0 +1,250 @@
+import java.util.*;
+
+/**
+ * 网络拓扑生成器（给定种子时生成结果可重现）
+ * <p>
+ * 生成网格、环、随机图、无标度图和胖树拓扑：每个路由器名为 “R编号”，直连一个名为 “网R编号” 的网络（作为目的网络），
+ * 每条边两端的路由器互为相邻路由器；开启链路网络时，每条边另有一个名为 “路由器~路由器” 的网络直连两端路由器。
+ */
+public class TopologyGenerator {
+    private final NetworkTopology networkTopology; // 网络拓扑
+    private final Random random; // 随机数生成器（固定种子）
+    private boolean linkNetworks; // 是否为每条边生成链路网络
+    private int routerCount; // 已生成的路由器数（用于命名，多次生成不重名）
+    private long linkCount; // 已生成的边数
+
+    public TopologyGenerator(NetworkTopology networkTopology, long seed) {
+        this.networkTopology = networkTopology;
+        this.random = new Random(seed);
+    } // end TopologyGenerator()
+
+    /**
+     * 生成 rows × cols 的网格
+     *
+     * @param rows 行数
+     * @param cols 列数
+     * @return 生成的路由器（按行排列）
+     */
+    public List<Router> grid(int rows, int cols) {
+        List<Router> routers = addRouters(rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Router router = routers.get(r * cols + c);
+                if (c + 1 < cols) {
+                    link(router, routers.get(r * cols + c + 1));
+                }
+                if (r + 1 < rows) {
+                    link(router, routers.get((r + 1) * cols + c));
+                }
+            }
+        }
+        return routers;
+    } // end grid()
+
+    /**
+     * 生成环
+     *
+     * @param n 路由器数
+     * @return 生成的路由器
+     */
+    public List<Router> ring(int n) {
+        List<Router> routers = addRouters(n);
+        for (int i = 0; i + 1 < n; i++) {
+            link(routers.get(i), routers.get(i + 1));
+        }
+        if (n > 2) {
+            link(routers.get(n - 1), routers.get(0));
+        }
+        return routers;
+    } // end ring()
+
+    /**
+     * 生成连通的随机图：先生成随机生成树，再随机添加边直到达到平均度数
+     *
+     * @param n             路由器数
+     * @param averageDegree 平均度数（不小于 2 时边数为 n × averageDegree / 2）
+     * @return 生成的路由器
+     */
+    public List<Router> random(int n, double averageDegree) {
+        List<Router> routers = addRouters(n);
+        for (int i = 1; i < n; i++) {
+            link(routers.get(i), routers.get(random.nextInt(i))); // 随机生成树保证连通
+        }
+
+        long extraLinks = Math.max(0, (long) (n * averageDegree / 2) - (n - 1));
+        extraLinks = Math.min(extraLinks, (long) n * (n - 1) / 2 - (n - 1));
+        while (extraLinks > 0) {
+            Router router1 = routers.get(random.nextInt(n));
+            Router router2 = routers.get(random.nextInt(n));
+            if (router1 != router2 && !router1.getNeighbors().contains(router2)) {
+                link(router1, router2);
+                extraLinks--;
+            }
+        }
+        return routers;
+    } // end random()
+
+    /**
+     * 生成无标度图（Barabási–Albert 优先连接：新路由器连接 m 个已有路由器，被连接的概率与度数成正比）
+     *
+     * @param n 路由器数
+     * @param m 每个新路由器的边数
+     * @return 生成的路由器
+     */
+    public List<Router> scaleFree(int n, int m) {
+        List<Router> routers = addRouters(n);
+        int initial = Math.min(n, m + 1);
+        int[] endpoints = new int[2 * (initial * (initial - 1) / 2 + Math.max(0, n - initial) * m)]; // 每条边的两个端点
+        int endpointCount = 0;
+
+        /* 前 m + 1 个路由器构成完全图 */
+        for (int i = 0; i < initial; i++) {
+            for (int j = i + 1; j < initial; j++) {
+                link(routers.get(i), routers.get(j));
+                endpoints[endpointCount++] = i;
+                endpoints[endpointCount++] = j;
+            }
+        }
+
+        int[] targets = new int[m];
+        for (int i = initial; i < n; i++) {
+            int targetCount = 0;
+            while (targetCount < m) {
+                int target = endpoints[random.nextInt(endpointCount)]; // 按度数成比例选择
+                boolean duplicate = false;
+                for (int k = 0; k < targetCount; k++) {
+                    duplicate |= targets[k] == target;
+                }
+                if (!duplicate) {
+                    targets[targetCount++] = target;
+                }
+            }
+            for (int target : targets) {
+                link(routers.get(i), routers.get(target));
+                endpoints[endpointCount++] = i;
+                endpoints[endpointCount++] = target;
+            }
+        }
+        return routers;
+    } // end scaleFree()
+
+    /**
+     * 生成 k 叉胖树：(k/2)² 个核心路由器，k 个 pod，每个 pod 有 k/2 个汇聚路由器和 k/2 个接入路由器
+     *
+     * @param k 端口数（偶数）
+     * @return 生成的路由器（核心、各 pod 的汇聚、接入路由器依次排列）
+     */
+    public List<Router> fatTree(int k) {
+        if (k < 2 || k % 2 != 0) {
+            throw new IllegalArgumentException("胖树的端口数必须是不小于 2 的偶数：" + k);
+        }
+        int half = k / 2;
+        List<Router> routers = addRouters(half * half + k * k);
+        for (int pod = 0; pod < k; pod++) {
+            int podStart = half * half + pod * k;
+            for (int a = 0; a < half; a++) {
+                Router aggregation = routers.get(podStart + a);
+                for (int e = 0; e < half; e++) {
+                    link(aggregation, routers.get(podStart + half + e)); // 汇聚 - 接入
+                }
+                for (int c = 0; c < half; c++) {
+                    link(aggregation, routers.get(a * half + c)); // 第 a 个汇聚路由器连接第 a 组核心路由器
+                }
+            }
+        }
+        return routers;
+    } // end fatTree()
+
+    /**
+     * 按名称生成指定类型的拓扑
+     *
+     * @param type   类型（grid、ring、random、scale-free、fat-tree）
+     * @param params 参数（grid：行数 列数；ring：路由器数；random：路由器数 平均度数；
+     *               scale-free：路由器数 每个新路由器的边数；fat-tree：端口数）
+     * @return 生成的路由器
+     */
+    public List<Router> generate(String type, double... params) {
+        return switch (type) {
+            case "grid" -> grid(intParam(params, 0), intParam(params, 1));
+            case "ring" -> ring(intParam(params, 0));
+            case "random" -> random(intParam(params, 0), params.length > 1 ? params[1] : 4);
+            case "scale-free" -> scaleFree(intParam(params, 0), params.length > 1 ? (int) params[1] : 2);
+            case "fat-tree" -> fatTree(intParam(params, 0));
+            default -> throw new IllegalArgumentException("未知的拓扑类型：" + type);
+        };
+    } // end generate()
+
+    private static int intParam(double[] params, int index) {
+        if (index >= params.length) {
+            throw new IllegalArgumentException("缺少第 " + (index + 1) + " 个参数");
+        }
+        return (int) params[index];
+    } // end intParam()
+
+    /**
+     * 生成路由器，每个路由器直连一个网络，并加入网络拓扑
+     *
+     * @param n 路由器数
+     * @return 生成的路由器
+     */
+    private List<Router> addRouters(int n) {
+        List<Router> routers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String routerName = "R" + routerCount++;
+            Router router = Router.obtain(routerName);
+            Network network = new Network("网" + routerName);
+            networkTopology.joinNetwork(network);
+            networkTopology.joinRouter(router);
+            networkTopology.attachNetwork(router, network);
+            routers.add(router);
+        }
+        return routers;
+    } // end addRouters()
+
+    /**
+     * 两个路由器互为相邻路由器（开启链路网络时同时直连一个链路网络）
+     *
+     * @param router1 路由器
+     * @param router2 路由器
+     */
+    private void link(Router router1, Router router2) {
+        router1.addNeighbor(router2);
+        router2.addNeighbor(router1);
+        if (linkNetworks) {
+            Network network = new Network(router1.getRouterName() + "~" + router2.getRouterName());
+            networkTopology.joinNetwork(network);
+            networkTopology.attachNetwork(router1, network);
+            networkTopology.attachNetwork(router2, network);
+        }
+        linkCount++;
+    } // end link()
+
+    /**
+     * 重新设置种子（之后生成的拓扑由新种子决定，路由器编号继续递增）
+     *
+     * @param seed 种子
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    } // end setSeed()
+
+    /**
+     * 网络拓扑重置后调用：路由器编号、边数从 0 重新开始（随机数序列不变，需要重现时再设置种子）
+     */
+    public void reset() {
+        routerCount = 0;
+        linkCount = 0;
+    } // end reset()
+
+    public boolean isLinkNetworks() {
+        return linkNetworks;
+    }
+
+    public void setLinkNetworks(boolean linkNetworks) {
+        this.linkNetworks = linkNetworks;
+    }
+
+    public long getLinkCount() {
+        return linkCount;
+    }
+} // end class TopologyGenerator
@@ -0,0 +1,117 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * 边列表拓扑加载器（逐行读取，一遍构造路由器和网络）
+ * <p>
+ * 每行一条边：“路由器 路由器 [链路网络]”，“#” 之后为注释；只有一个路由器名称的行表示孤立的路由器。
+ * 路由器在首次出现时加入网络拓扑并直连一个名为 “网路由器名称” 的网络（与 {@link TopologyGenerator} 一致），
+ * 边两端的路由器互为相邻路由器；给出链路网络时，该网络（首次出现时加入网络拓扑）直连两端路由器。
+ * 除网络拓扑本身外只占用一行的内存，文件大小不受限制。
+ */
+public class TopologyLoader {
+    private final NetworkTopology networkTopology; // 网络拓扑
+    private long lineNumber; // 当前行号
+    private long routerCount; // 新加入的路由器数
+    private long linkCount; // 加载的边数
+
+    public TopologyLoader(NetworkTopology networkTopology) {
+        this.networkTopology = networkTopology;
+    } // end TopologyLoader()
+
+    /**
+     * 加载边列表文件
+     *
+     * @param path 文件路径
+     * @throws IOException 读取失败
+     */
+    public void load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            load(reader);
+        }
+    } // end load()
+
+    /**
+     * 逐行加载边列表
+     *
+     * @param reader 边列表
+     * @throws IOException 读取失败
+     */
+    public void load(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            if (tokens.length > 3) {
+                throw new IllegalArgumentException("第 " + lineNumber + " 行：边的格式为 “路由器 路由器 [链路网络]”");
+            }
+
+            Router router1 = findOrJoinRouter(tokens[0]);
+            if (tokens.length == 1) {
+                continue;
+            }
+            Router router2 = findOrJoinRouter(tokens[1]);
+            if (router1 == router2) {
+                throw new IllegalArgumentException("第 " + lineNumber + " 行：边的两端是同一个路由器");
+            }
+            if (!router1.getNeighbors().contains(router2)) {
+                router1.addNeighbor(router2);
+                router2.addNeighbor(router1);
+            }
+            if (tokens.length == 3) {
+                Network network = networkTopology.findNetwork(tokens[2]);
+                if (network == null) {
+                    network = new Network(tokens[2]);
+                    networkTopology.joinNetwork(network);
+                }
+                networkTopology.attachNetwork(router1, network);
+                networkTopology.attachNetwork(router2, network);
+            }
+            linkCount++;
+        }
+    } // end load()
+
+    /**
+     * 查找路由器，不存在时加入新路由器（直连一个以路由器命名的网络）
+     *
+     * @param routerName 路由器名称
+     * @return 路由器
+     */
+    private Router findOrJoinRouter(String routerName) {
+        Router router = networkTopology.findRouter(routerName);
+        if (router != null) {
+            return router;
+        }
+
+        router = Router.obtain(routerName);
+        Network network = networkTopology.findNetwork("网" + routerName);
+        if (network == null) {
+            network = new Network("网" + routerName);
+            networkTopology.joinNetwork(network);
+        }
+        networkTopology.joinRouter(router);
+        networkTopology.attachNetwork(router, network);
+        routerCount++;
+        return router;
+    } // end findOrJoinRouter()
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public long getRouterCount() {
+        return routerCount;
+    }
+
+    public long getLinkCount() {
+        return linkCount;
+    }
+} // end class TopologyLoader
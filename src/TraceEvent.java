@@ -0,0 +1,101 @@
+/**
+ * 路由事件（事件记录器写入日志的一条记录；重放器读出事件时复用同一个对象）
+ * <p>
+ * 每条事件由类型、时刻、路由器编号和三个整数参数组成，参数的含义见 {@link Type}；
+ * 路由器编号、网络编号都是记录时的编号，重放时由重放器映射为本次运行的编号。
+ */
+public class TraceEvent {
+    /**
+     * 事件类型（序号即日志中的类型编码，只能在末尾追加）
+     */
+    public enum Type {
+        ADVERTISEMENT("路由通告"), // 路由器 = 接收方，参数 = 发送方、路由表项数、是否完整路由表（1 或 0）
+        ROUTE("路由表项变化"), // 路由器，参数 = 网络、跳数（0 表示移除）、下一跳路由器
+        FAILURE("路由器故障"), // 路由器
+        ROUTER_JOIN("路由器加入"), // 路由器，名称
+        ROUTER_EXIT("路由器退出"), // 路由器
+        ROUTER_NAME("路由器"), // 开始记录时已在网络拓扑中的路由器，名称
+        NETWORK_JOIN("网络加入"), // 参数 = 网络
+        NETWORK_EXIT("网络退出"), // 参数 = 网络
+        NETWORK_NAME("网络"), // 参数 = 网络，名称（网络编号第一次出现之前由写入线程写入，重置后重新写入）
+        RESET("重置网络拓扑"); // 所有路由器、网络退出
+
+        private static final Type[] VALUES = values(); // 类型编码 -> 类型
+
+        private final String description; // 类型说明
+
+        Type(String description) {
+            this.description = description;
+        } // end Type()
+
+        /**
+         * 按类型编码查找类型
+         *
+         * @param code 类型编码
+         * @return 类型（编码无效时为 null）
+         */
+        public static Type byCode(int code) {
+            return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+        } // end byCode()
+
+        /**
+         * 该类型的记录是否带名称
+         */
+        public boolean hasName() {
+            return this == ROUTER_JOIN || this == ROUTER_NAME || this == NETWORK_NAME;
+        } // end hasName()
+
+        public String getDescription() {
+            return description;
+        }
+    } // end enum Type
+
+    private Type type; // 类型
+    private long time; // 时刻（毫秒，按调度器时钟，日志中不递减）
+    private int routerId; // 路由器编号（与路由器无关的事件为 -1）
+    private int arg1; // 参数1
+    private int arg2; // 参数2
+    private int arg3; // 参数3
+    private String name; // 名称（不带名称的事件为 null）
+
+    /**
+     * 设置事件的所有字段
+     */
+    public void set(Type type, long time, int routerId, int arg1, int arg2, int arg3, String name) {
+        this.type = type;
+        this.time = time;
+        this.routerId = routerId;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.arg3 = arg3;
+        this.name = name;
+    } // end set()
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getRouterId() {
+        return routerId;
+    }
+
+    public int getArg1() {
+        return arg1;
+    }
+
+    public int getArg2() {
+        return arg2;
+    }
+
+    public int getArg3() {
+        return arg3;
+    }
+
+    public String getName() {
+        return name;
+    }
+} // end class TraceEvent
@@ -0,0 +1,295 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 路由事件记录器（可选开启，见 {@link NetworkTopology#startTrace(Path)}）
+ * <p>
+ * 记录路由通告、路由表项变化、路由器故障以及路由器、网络的加入和退出。修改路由表的线程只把事件写入预分配的环形缓冲区：
+ * 以原子计数器分配序号，把字段写入按槽排列的基本类型数组，再以 release 写发布该槽的序号，不加锁也不分配对象；
+ * 后台写入线程按序号依次取出已发布的事件，编码后追加到二进制日志。缓冲区满时生产者让出 CPU 等待写入线程，不丢弃事件。
+ * <p>
+ * 日志格式（大端）：文件头为魔数、版本号；之后每条事件为类型（1 字节）、时刻（8 字节）、路由器编号、三个参数（各 4 字节），
+ * 带名称的事件另有名称（2 字节长度 + UTF-8）。同一路由器的事件在其路由表写锁内分配序号，因此在日志中的顺序就是发生的顺序；
+ * 多个线程同时记录时时刻可能略有交错，写入线程保证日志中的时刻不递减。日志只追加，异常退出时最后一条不完整的事件在重放时忽略。
+ */
+public class TraceRecorder implements AutoCloseable {
+    public static final int MAGIC = 0x52495054; // 日志魔数（"RIPT"）
+    public static final int VERSION = 1; // 日志版本号
+    public static final int HEADER_BYTES = 8; // 文件头字节数
+    public static final int RECORD_BYTES = 25; // 每条事件定长部分的字节数
+    public static final int DEFAULT_CAPACITY = 1 << 16; // 默认环形缓冲区容量（事件数）
+    private static final int BUFFER_BYTES = 1 << 20; // 写入线程的输出缓冲字节数
+    private static final int PROGRESS_BATCH = 1024; // 写入线程每处理多少条事件公布一次进度
+    private static final long IDLE_PARK_NANOS = 1_000_000; // 没有事件时写入线程的等待时间（纳秒）
+    private static final TraceEvent.Type[] TYPES = TraceEvent.Type.values(); // 类型编码 -> 类型
+
+    private final UpdateScheduler clock; // 时钟（离散事件仿真中为仿真时刻）
+    private final int mask; // 槽下标掩码
+    private final byte[] types; // 槽 -> 类型编码
+    private final long[] times; // 槽 -> 时刻
+    private final int[] routerIds; // 槽 -> 路由器编号
+    private final int[] args1; // 槽 -> 参数1
+    private final int[] args2; // 槽 -> 参数2
+    private final int[] args3; // 槽 -> 参数3
+    private final String[] names; // 槽 -> 名称（只引用已有的字符串）
+    private final AtomicLongArray published; // 槽 -> 已发布事件的序号（-1 表示尚未发布）
+    private final AtomicLong nextSequence; // 下一个待分配的序号
+    private volatile long consumedSequence; // 写入线程已取出的序号（之前的槽可以复用）
+    private final LongAdder stalls; // 生产者等待空槽的次数
+    private final FileChannel channel; // 日志文件
+    private final Thread writerThread; // 写入线程
+    private volatile boolean closed; // 是否已关闭（之后的事件被丢弃）
+    private volatile boolean writerDone; // 写入线程是否已结束
+    private volatile IOException writeError; // 写入线程遇到的异常
+
+    /* 以下字段只由写入线程访问 */
+    private final ByteBuffer buffer; // 输出缓冲（直接内存）
+    private final BitSet namedNetworks; // 已写入名称的网络编号
+    private long lastTime; // 上一条事件的时刻
+    private long bytesWritten; // 已写入的字节数
+
+    public TraceRecorder(Path file, UpdateScheduler clock) throws IOException {
+        this(file, clock, DEFAULT_CAPACITY);
+    } // end TraceRecorder()
+
+    /**
+     * @param file     日志文件（已存在时覆盖）
+     * @param clock    时钟
+     * @param capacity 环形缓冲区容量（向上取整为 2 的幂）
+     * @throws IOException 创建日志文件失败
+     */
+    public TraceRecorder(Path file, UpdateScheduler clock, int capacity) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.clock = clock;
+        this.mask = size - 1;
+        this.types = new byte[size];
+        this.times = new long[size];
+        this.routerIds = new int[size];
+        this.args1 = new int[size];
+        this.args2 = new int[size];
+        this.args3 = new int[size];
+        this.names = new String[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.nextSequence = new AtomicLong();
+        this.stalls = new LongAdder();
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.namedNetworks = new BitSet();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putInt(VERSION);
+
+        this.writerThread = new Thread(this::runWriter, "rip-trace-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    } // end TraceRecorder()
+
+    public void recordAdvertisement(int receiverId, int senderId, int entryCount, boolean full) {
+        record(TraceEvent.Type.ADVERTISEMENT, receiverId, senderId, entryCount, full ? 1 : 0, null);
+    } // end recordAdvertisement()
+
+    public void recordRoute(int routerId, int networkId, int hops, int nextHopId) {
+        record(TraceEvent.Type.ROUTE, routerId, networkId, hops, nextHopId, null);
+    } // end recordRoute()
+
+    public void recordFailure(int routerId) {
+        record(TraceEvent.Type.FAILURE, routerId, 0, 0, 0, null);
+    } // end recordFailure()
+
+    /**
+     * 记录路由器加入（ROUTER_JOIN）或开始记录时已在网络拓扑中的路由器（ROUTER_NAME）
+     */
+    public void recordRouter(TraceEvent.Type type, Router router) {
+        record(type, router.getRouterId(), 0, 0, 0, router.getRouterName());
+    } // end recordRouter()
+
+    public void recordRouterExit(int routerId) {
+        record(TraceEvent.Type.ROUTER_EXIT, routerId, 0, 0, 0, null);
+    } // end recordRouterExit()
+
+    public void recordNetworkJoin(int networkId) {
+        record(TraceEvent.Type.NETWORK_JOIN, -1, networkId, 0, 0, null);
+    } // end recordNetworkJoin()
+
+    public void recordNetworkExit(int networkId) {
+        record(TraceEvent.Type.NETWORK_EXIT, -1, networkId, 0, 0, null);
+    } // end recordNetworkExit()
+
+    /**
+     * 记录重置，并等待写入线程处理完此前的事件（重置后网络编号被回收并分配给新的网络名称，写入线程按编号查找名称）
+     */
+    public void recordReset() {
+        record(TraceEvent.Type.RESET, -1, 0, 0, 0, null);
+        long sequence = nextSequence.get();
+        while (consumedSequence < sequence && !writerDone) {
+            LockSupport.unpark(writerThread);
+            Thread.yield();
+        }
+    } // end recordReset()
+
+    /**
+     * 把事件写入环形缓冲区（生产者，可由多个线程同时调用）
+     */
+    private void record(TraceEvent.Type type, int routerId, int arg1, int arg2, int arg3, String name) {
+        if (closed) {
+            return;
+        }
+        long sequence = nextSequence.getAndIncrement();
+        if (sequence - types.length >= consumedSequence) {
+            awaitSlot(sequence);
+        }
+        int slot = (int) sequence & mask;
+        types[slot] = (byte) type.ordinal();
+        times[slot] = clock.currentTimeMillis();
+        routerIds[slot] = routerId;
+        args1[slot] = arg1;
+        args2[slot] = arg2;
+        args3[slot] = arg3;
+        names[slot] = name;
+        published.setRelease(slot, sequence); // 之前的写入对取得该序号的写入线程可见
+    } // end record()
+
+    /**
+     * 缓冲区已满：唤醒写入线程并让出 CPU，直到该序号的槽被取出
+     *
+     * @param sequence 序号
+     */
+    private void awaitSlot(long sequence) {
+        stalls.increment();
+        while (sequence - types.length >= consumedSequence && !writerDone) {
+            LockSupport.unpark(writerThread);
+            Thread.yield();
+        }
+    } // end awaitSlot()
+
+    /**
+     * 写入线程主循环：按序号取出已发布的事件写入输出缓冲，没有事件时把缓冲写入文件并短暂等待
+     */
+    private void runWriter() {
+        long sequence = 0;
+        try {
+            while (true) {
+                int slot = (int) sequence & mask;
+                if (published.getAcquire(slot) == sequence) {
+                    write(slot);
+                    if ((++sequence & (PROGRESS_BATCH - 1)) == 0) {
+                        consumedSequence = sequence;
+                    }
+                    continue;
+                }
+                consumedSequence = sequence;
+                if (closed && sequence == nextSequence.get()) {
+                    break;
+                }
+                flushBuffer();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            flushBuffer();
+        } catch (IOException e) {
+            writeError = e;
+        } finally {
+            writerDone = true;
+        }
+    } // end runWriter()
+
+    /**
+     * 编码一条事件（引用的网络第一次出现时先写入网络名称）
+     *
+     * @param slot 槽下标
+     * @throws IOException 写入失败
+     */
+    private void write(int slot) throws IOException {
+        TraceEvent.Type type = TYPES[types[slot]];
+        if (type == TraceEvent.Type.RESET) {
+            namedNetworks.clear(); // 重置后的网络编号可能属于新的网络名称
+        }
+        if (type == TraceEvent.Type.ROUTE || type == TraceEvent.Type.NETWORK_JOIN || type == TraceEvent.Type.NETWORK_EXIT) {
+            int networkId = args1[slot];
+            if (!namedNetworks.get(networkId)) {
+                namedNetworks.set(networkId);
+                Network network = Network.byId(networkId); // 网络编号只在重置时回收，recordReset() 等待写入线程处理完此前的事件
+                writeRecord(TraceEvent.Type.NETWORK_NAME, lastTime, -1, networkId, 0, 0,
+                        network == null ? "" : network.getNetworkName());
+            }
+        }
+        lastTime = Math.max(lastTime, times[slot]);
+        writeRecord(type, lastTime, routerIds[slot], args1[slot], args2[slot], args3[slot], names[slot]);
+        names[slot] = null;
+    } // end write()
+
+    private void writeRecord(TraceEvent.Type type, long time, int routerId, int arg1, int arg2, int arg3, String name)
+            throws IOException {
+        byte[] nameBytes = type.hasName() ? name.getBytes(StandardCharsets.UTF_8) : null;
+        int length = RECORD_BYTES + (nameBytes == null ? 0 : 2 + Math.min(nameBytes.length, 0xFFFF));
+        if (buffer.remaining() < length) {
+            flushBuffer();
+        }
+        buffer.put((byte) type.ordinal()).putLong(time).putInt(routerId).putInt(arg1).putInt(arg2).putInt(arg3);
+        if (nameBytes != null) {
+            int nameLength = Math.min(nameBytes.length, 0xFFFF);
+            buffer.putShort((short) nameLength).put(nameBytes, 0, nameLength);
+        }
+    } // end writeRecord()
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    } // end flushBuffer()
+
+    /**
+     * 停止记录：之后的事件被丢弃，等待写入线程写完已记录的事件后关闭日志文件
+     *
+     * @throws IOException 写入或关闭失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    } // end close()
+
+    public long getEventCount() {
+        return nextSequence.get();
+    }
+
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    public int getCapacity() {
+        return types.length;
+    }
+
+    /**
+     * 已写入的字节数（关闭后为日志文件大小）
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+} // end class TraceRecorder
@@ -0,0 +1,475 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 路由事件重放器（重放 {@link TraceRecorder} 写入的日志）
+ * <p>
+ * 重放器持有自己的网络拓扑，按日志顺序把路由表项变化直接写入路由器的路由表，路由器、网络的加入和退出只改变成员，
+ * 不按距离向量算法重新计算，重放的路由器也不发送路由更新，因此重放到任意时刻得到的路由表与记录时完全相同。
+ * 重放只恢复路由表和成员，不恢复相邻关系。
+ * <p>
+ * 定位到任意时刻：向后定位时从当前位置继续重放；向前定位时从不晚于目标时刻的最近关键帧开始重放。
+ * 关键帧在重放经过时建立，记录文件偏移和每个路由器的不可变路由表快照（写时复制，关键帧之间只有变化的块不共享），
+ * 关键帧间隔不小于路由器数的若干倍，因此关键帧的开销不超过重放本身；建立过关键帧的范围内，定位只需重放一个间隔内的事件。
+ */
+public class TraceReplayer implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20; // 读取缓冲字节数
+    private static final int MIN_KEYFRAME_EVENTS = 1 << 16; // 关键帧的最小间隔（事件数）
+    private static final int KEYFRAME_EVENTS_PER_ROUTER = 4; // 关键帧间隔至少为路由器数的倍数
+
+    private final FileChannel channel; // 日志文件
+    private final ByteBuffer buffer; // 读取缓冲
+    private final TraceEvent event; // 读出的事件（复用）
+    private final NetworkTopology networkTopology; // 重放的网络拓扑（路由器不发送路由更新）
+    private final List<Keyframe> keyframes; // 关键帧（按事件数升序）
+    private long bufferOffset; // 读取缓冲开头对应的文件偏移
+    private boolean eventPending; // 已读出、尚未应用的事件
+    private Router[] routers; // 记录时的路由器编号 -> 重放的路由器
+    private BitSet placeholders; // 尚未加入、先作为下一跳出现的路由器（加入时再命名）
+    private Network[] networks; // 记录时的网络编号 -> 网络
+    private long eventCount; // 已应用的事件数
+    private long currentTime; // 最后应用的事件的时刻（毫秒）
+
+    public TraceReplayer(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.event = new TraceEvent();
+        this.networkTopology = new NetworkTopology(new SimulationEngine(), false); // 仿真引擎不运行，只作为时钟
+        this.keyframes = new ArrayList<>();
+        try {
+            rewind();
+            if (!fill(TraceRecorder.HEADER_BYTES) || buffer.getInt() != TraceRecorder.MAGIC) {
+                throw new IOException("不是事件日志：" + file);
+            }
+            int version = buffer.getInt();
+            if (version != TraceRecorder.VERSION) {
+                throw new IOException("不支持的日志版本：" + version);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        keyframes.add(new Keyframe()); // 起点
+    } // end TraceReplayer()
+
+    /**
+     * 重放到指定时刻（应用时刻不晚于该时刻的所有事件）
+     *
+     * @param time 时刻（毫秒）
+     * @return 本次应用的事件数
+     * @throws IOException 读取失败
+     */
+    public long seek(long time) throws IOException {
+        Keyframe keyframe = null;
+        for (int i = keyframes.size() - 1; i >= 0; i--) { // 关键帧按事件数升序，时刻不递减
+            if (keyframes.get(i).time <= time || i == 0) {
+                keyframe = keyframes.get(i);
+                break;
+            }
+        }
+        boolean forward = currentTime <= time && eventCount >= keyframe.eventCount;
+        if (!forward) {
+            restore(keyframe);
+        }
+        long startCount = eventCount;
+        while (next() && event.getTime() <= time) {
+            apply();
+        }
+        return eventCount - startCount;
+    } // end seek()
+
+    /**
+     * 读出并应用下一条事件
+     *
+     * @return 应用的事件（复用的对象，到达日志末尾时为 null）
+     * @throws IOException 读取失败
+     */
+    public TraceEvent step() throws IOException {
+        if (!next()) {
+            return null;
+        }
+        apply();
+        return event;
+    } // end step()
+
+    /**
+     * 读出下一条事件但不应用（已读出、尚未应用时不再读取）
+     *
+     * @return 下一条事件（复用的对象，到达日志末尾时为 null）
+     * @throws IOException 读取失败
+     */
+    public TraceEvent peek() throws IOException {
+        return next() ? event : null;
+    } // end peek()
+
+    /**
+     * 读出下一条事件（已读出、尚未应用时不再读取）
+     *
+     * @return 是否有下一条事件（日志末尾不完整的事件视为末尾）
+     * @throws IOException 读取失败
+     */
+    private boolean next() throws IOException {
+        if (eventPending) {
+            return true;
+        }
+        if (!fill(TraceRecorder.RECORD_BYTES)) {
+            return false;
+        }
+        int start = buffer.position();
+        TraceEvent.Type type = TraceEvent.Type.byCode(buffer.get());
+        if (type == null) {
+            throw new IOException("日志损坏：偏移 " + (bufferOffset + start));
+        }
+        long time = buffer.getLong();
+        int routerId = buffer.getInt();
+        int arg1 = buffer.getInt();
+        int arg2 = buffer.getInt();
+        int arg3 = buffer.getInt();
+        String name = null;
+        if (type.hasName()) {
+            if (!fill(2)) {
+                buffer.position(buffer.position() - TraceRecorder.RECORD_BYTES);
+                return false;
+            }
+            int length = buffer.getShort() & 0xFFFF;
+            if (!fill(length)) {
+                buffer.position(buffer.position() - TraceRecorder.RECORD_BYTES - 2);
+                return false;
+            }
+            name = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+        event.set(type, time, routerId, arg1, arg2, arg3, name);
+        eventPending = true;
+        return true;
+    } // end next()
+
+    /**
+     * 应用已读出的事件，经过关键帧间隔时建立关键帧
+     */
+    private void apply() {
+        eventPending = false;
+        eventCount++;
+        currentTime = event.getTime();
+        switch (event.getType()) {
+            case ROUTE -> {
+                int hops = event.getArg2();
+                int nextHopId = hops == 0 ? -1 : router(event.getArg3()).getRouterId(); // 移除的路由表项不解析下一跳
+                router(event.getRouterId()).replayRoute(networks[event.getArg1()].getNetworkId(), hops, nextHopId);
+            }
+            case ROUTER_JOIN, ROUTER_NAME -> joinRouter(event.getRouterId(), event.getName());
+            case ROUTER_EXIT -> {
+                List<Router> members = new ArrayList<>(networkTopology.getRouters());
+                members.remove(routers[event.getRouterId()]);
+                networkTopology.setRouters(members); // 不修改其它路由器的路由表（其变化已作为事件记录）
+                routers[event.getRouterId()] = null; // 编号之后可能被复用（退出的路由器仍由关键帧引用）
+            }
+            case NETWORK_NAME -> {
+                int networkId = event.getArg1();
+                if (networkId >= networks.length) {
+                    networks = Arrays.copyOf(networks, Math.max(networks.length * 2, networkId + 1));
+                }
+                networks[networkId] = new Network(event.getName());
+            }
+            case NETWORK_JOIN -> {
+                Network network = networks[event.getArg1()];
+                if (!network.equals(networkTopology.findNetwork(network.getNetworkName()))) {
+                    networkTopology.joinNetwork(network);
+                }
+            }
+            case NETWORK_EXIT -> {
+                List<Network> members = new ArrayList<>(networkTopology.getNetworks());
+                members.remove(networks[event.getArg1()]);
+                networkTopology.setNetworks(members);
+            }
+            case RESET -> {
+                networkTopology.setRouters(new ArrayList<>());
+                networkTopology.setNetworks(new ArrayList<>());
+                routers = new Router[routers.length];
+                placeholders.clear();
+            }
+            default -> {
+                // 路由通告、路由器故障只用于诊断，其结果已作为路由表项变化记录
+            }
+        }
+
+        Keyframe last = keyframes.get(keyframes.size() - 1);
+        long interval = Math.max(MIN_KEYFRAME_EVENTS, (long) KEYFRAME_EVENTS_PER_ROUTER * networkTopology.getRouters().size());
+        if (eventCount - last.eventCount >= interval) {
+            keyframes.add(new Keyframe());
+        }
+    } // end apply()
+
+    /**
+     * 按记录时的编号查找重放的路由器（尚未加入的路由器先以占位路由器代替）
+     *
+     * @param routerId 记录时的路由器编号
+     * @return 重放的路由器
+     */
+    private Router router(int routerId) {
+        if (routerId >= routers.length) {
+            routers = Arrays.copyOf(routers, Math.max(routers.length * 2, routerId + 1));
+        }
+        if (routers[routerId] == null) {
+            routers[routerId] = Router.obtain("#" + routerId);
+            placeholders.set(routerId);
+        }
+        return routers[routerId];
+    } // end router()
+
+    /**
+     * 路由器加入重放的网络拓扑（记录时编号被复用时创建新的路由器，原路由器仍由关键帧引用）
+     *
+     * @param routerId   记录时的路由器编号
+     * @param routerName 路由器名称
+     */
+    private void joinRouter(int routerId, String routerName) {
+        Router router;
+        if (routerId < routers.length && placeholders.get(routerId)) {
+            router = routers[routerId];
+            router.setRouterName(routerName);
+            placeholders.clear(routerId);
+        } else {
+            router = Router.obtain(routerName);
+            if (routerId >= routers.length) {
+                routers = Arrays.copyOf(routers, Math.max(routers.length * 2, routerId + 1));
+            }
+            routers[routerId] = router;
+        }
+        networkTopology.joinRouter(router);
+        router.stopUpdates(); // 重放的路由器不发送路由更新
+    } // end joinRouter()
+
+    /**
+     * 回到关键帧
+     *
+     * @param keyframe 关键帧
+     * @throws IOException 定位失败
+     */
+    private void restore(Keyframe keyframe) throws IOException {
+        routers = keyframe.routers.clone();
+        placeholders = (BitSet) keyframe.placeholders.clone();
+        for (int i = 0; i < routers.length; i++) {
+            if (routers[i] != null) {
+                routers[i].restoreRoutingTable(keyframe.snapshots[i]);
+            }
+        }
+        if (networks == null) {
+            networks = new Network[64]; // 网络编号与名称的对应关系不随时间变化，不必回退
+        }
+        networkTopology.setRouters(new ArrayList<>(keyframe.members));
+        networkTopology.setNetworks(new ArrayList<>(keyframe.memberNetworks));
+        eventCount = keyframe.eventCount;
+        currentTime = keyframe.time;
+        eventPending = false;
+        buffer.clear().limit(0);
+        bufferOffset = keyframe.offset;
+        channel.position(keyframe.offset);
+    } // end restore()
+
+    /**
+     * 回到日志开头（构造时使用）
+     */
+    private void rewind() throws IOException {
+        routers = new Router[64];
+        placeholders = new BitSet();
+        networks = new Network[64];
+        buffer.clear().limit(0);
+        bufferOffset = 0;
+        channel.position(0);
+    } // end rewind()
+
+    /**
+     * 保证读取缓冲中至少有指定字节数
+     *
+     * @param bytes 字节数
+     * @return 是否足够（到达文件末尾时为 false）
+     * @throws IOException 读取失败
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        bufferOffset += buffer.position();
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    } // end fill()
+
+    /**
+     * 下一条未读事件的文件偏移
+     */
+    private long offset() {
+        return bufferOffset + buffer.position();
+    } // end offset()
+
+    /**
+     * 描述已读出、尚未应用的事件（路由器、网络以当前的名称表示）
+     *
+     * @param event 事件
+     * @return 描述
+     */
+    public String describe(TraceEvent event) {
+        String router = event.getRouterId() < 0 ? "" : routerName(event.getRouterId());
+        String prefix = "[" + event.getTime() + " ms] " + event.getType().getDescription();
+        return switch (event.getType()) {
+            case ADVERTISEMENT -> prefix + "：" + routerName(event.getArg1()) + " -> " + router + "，"
+                    + (event.getArg3() != 0 ? "完整路由表" : "触发更新") + " " + event.getArg2() + " 项";
+            case ROUTE -> prefix + "：" + router + " 到 " + networks[event.getArg1()].getNetworkName() + " "
+                    + (event.getArg2() == 0 ? "移除" : "跳数 " + event.getArg2() + "，下一跳 " + routerName(event.getArg3()));
+            case ROUTER_JOIN, ROUTER_NAME, NETWORK_NAME -> prefix + "：" + event.getName();
+            case NETWORK_JOIN, NETWORK_EXIT -> prefix + "：" + networks[event.getArg1()].getNetworkName();
+            case RESET -> prefix;
+            default -> prefix + "：" + router;
+        };
+    } // end describe()
+
+    private String routerName(int routerId) {
+        return routerId < routers.length && routers[routerId] != null ? routers[routerId].getRouterName() : "#" + routerId;
+    } // end routerName()
+
+    /**
+     * 判断已读出、尚未应用的事件是否与指定的路由器、网络有关
+     *
+     * @param event        事件
+     * @param routerNames  路由器名称（空集合表示不筛选）
+     * @param networkNames 网络名称（空集合表示不筛选）
+     * @return 判断结果
+     */
+    public boolean matches(TraceEvent event, Set<String> routerNames, Set<String> networkNames) {
+        if (!routerNames.isEmpty()) {
+            String routerName = event.getType().hasName() ? event.getName() : routerName(event.getRouterId());
+            boolean sender = event.getType() == TraceEvent.Type.ADVERTISEMENT && routerNames.contains(routerName(event.getArg1()));
+            if (event.getRouterId() < 0 || (!routerNames.contains(routerName) && !sender)) {
+                return false;
+            }
+        }
+        if (!networkNames.isEmpty()) {
+            return event.getType() == TraceEvent.Type.ROUTE
+                    && networkNames.contains(networks[event.getArg1()].getNetworkName());
+        }
+        return true;
+    } // end matches()
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    } // end close()
+
+    /**
+     * 关键帧：文件偏移、成员和每个路由器的路由表快照
+     */
+    private final class Keyframe {
+        private final long offset; // 下一条事件的文件偏移
+        private final long eventCount; // 已应用的事件数
+        private final long time; // 最后应用的事件的时刻
+        private final Router[] routers; // 记录时的路由器编号 -> 重放的路由器
+        private final BitSet placeholders; // 占位路由器
+        private final RoutingTable.Snapshot[] snapshots; // 路由表快照（与 routers 对应）
+        private final List<Router> members; // 网络拓扑中的路由器
+        private final List<Network> memberNetworks; // 网络拓扑中的网络
+
+        private Keyframe() {
+            this.offset = offset(); // 关键帧只在应用事件之后、读出下一条事件之前建立
+            this.eventCount = TraceReplayer.this.eventCount;
+            this.time = currentTime;
+            this.routers = TraceReplayer.this.routers.clone();
+            this.placeholders = (BitSet) TraceReplayer.this.placeholders.clone();
+            this.snapshots = new RoutingTable.Snapshot[routers.length];
+            for (int i = 0; i < routers.length; i++) {
+                if (routers[i] != null) {
+                    snapshots[i] = routers[i].getRoutingTableSnapshot();
+                }
+            }
+            this.members = new ArrayList<>(networkTopology.getRouters());
+            this.memberNetworks = new ArrayList<>(networkTopology.getNetworks());
+        } // end Keyframe()
+    } // end class Keyframe
+
+    public NetworkTopology getNetworkTopology() {
+        return networkTopology;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    /**
+     * 诊断路由振荡：列出时间窗口内与指定路由器、网络有关的事件，并输出窗口结束时的路由表
+     *
+     * @param args 日志文件 [from=毫秒] [to=毫秒] [routers=路由器,...] [networks=网络,...] [print]
+     * @throws IOException 读取失败
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法：java TraceReplayer 日志文件 [from=毫秒] [to=毫秒] [routers=路由器,...] [networks=网络,...] [print]");
+            System.exit(2);
+        }
+        long from = 0;
+        long to = Long.MAX_VALUE;
+        Set<String> routerNames = new HashSet<>();
+        Set<String> networkNames = new HashSet<>();
+        boolean print = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("from=")) {
+                from = Long.parseLong(arg.substring(5));
+            } else if (arg.startsWith("to=")) {
+                to = Long.parseLong(arg.substring(3));
+            } else if (arg.startsWith("routers=")) {
+                routerNames.addAll(Arrays.asList(arg.substring(8).split(",")));
+            } else if (arg.startsWith("networks=")) {
+                networkNames.addAll(Arrays.asList(arg.substring(9).split(",")));
+            } else if (arg.equals("print")) {
+                print = true;
+            } else {
+                throw new IllegalArgumentException("无法识别的参数：" + arg);
+            }
+        }
+
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+        try (TraceReplayer replayer = new TraceReplayer(Paths.get(args[0]))) {
+            long start = System.nanoTime();
+            replayer.seek(from - 1); // 窗口开始之前的事件只重放不输出
+            long matched = 0;
+            TraceEvent event = replayer.event;
+            while (replayer.next() && event.getTime() <= to) {
+                if (replayer.matches(event, routerNames, networkNames)) {
+                    out.println(replayer.describe(event)); // 应用之前描述（退出的路由器应用后不再有名称）
+                    matched++;
+                }
+                replayer.step();
+            }
+            out.println("重放事件 " + replayer.getEventCount() + " 条（输出 " + matched + " 条），到 "
+                    + replayer.getCurrentTime() + " ms，耗时 " + String.format("%.3f", (System.nanoTime() - start) / 1e6) + " ms");
+            if (print) {
+                for (Router router : replayer.getNetworkTopology().getRouters()) {
+                    if (routerNames.isEmpty() || routerNames.contains(router.getRouterName())) {
+                        router.printRoutingTable(out);
+                    }
+                }
+            }
+        }
+        out.flush();
+    } // end main()
+} // end class TraceReplayer
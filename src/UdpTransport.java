@@ -0,0 +1,529 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 回环 UDP 传输层（可选开启，见 {@link NetworkTopology#startUdpTransport(int, boolean)}）
+ * <p>
+ * 开启后路由器之间不再直接调用 {@link Router#receiveUpdate(Router, RouteAdvertisement)}：每个路由器在 127.0.0.1 上绑定一个
+ * {@link DatagramChannel}（相当于各自的 RIP 端口），发送方把路由通告按 RFC 2453 编码为 RIPv2 响应报文（每个报文最多 25 个路由表项），
+ * 用池化的直接内存缓冲发给相邻路由器；接收线程各持有一个 {@link Selector}，多个路由器的通道轮流分配给接收线程，
+ * 收到报文后按 UDP 源端口找到发送方，校验、解码后交给接收方的路由表。
+ * <p>
+ * 网络编号编码为 10.0.0.0/8 中的主机地址（掩码 255.255.255.255），下一跳为 0.0.0.0（经由发送方），度量即跳数。
+ * 报文的收发与直接调用不同步：同步投递模式下发送方发完一轮路由更新后等待所有报文被接收方处理，
+ * 结果与直接调用相同，适用于在调用方线程上推进的离散事件仿真；异步模式下报文在途时发送方继续运行，适用于按真实时间运行的调度器。
+ * 与真实的 UDP 一样，接收缓冲区满时报文被内核丢弃，由之后的定时路由更新弥补。
+ * 同步投递时超时未到达的报文视为丢失：发送方把等待批次编号写入头部的保留字段（RFC 2453 中为 0，只在本传输层内部使用），
+ * 超时后批次编号加一，之前批次的报文迟到时直接丢弃并单独计数，不计入之后的等待，也不在发送方的那一轮之后改变路由表。
+ * {@link SynchronousRoundEngine} 直接处理路由通告，不经过传输层。
+ */
+public class UdpTransport implements Closeable {
+    public static final int COMMAND_RESPONSE = 2; // RIP 命令：响应
+    public static final int VERSION = 2; // RIP 版本号
+    public static final int ADDRESS_FAMILY_INET = 2; // 地址族：IP
+    public static final int HEADER_BYTES = 4; // RIPv2 报文头部字节数
+    public static final int ENTRY_BYTES = 20; // RIPv2 路由表项字节数
+    public static final int MAX_ENTRIES = 25; // 每个报文最多包含的路由表项数
+    public static final int MAX_PACKET_BYTES = HEADER_BYTES + MAX_ENTRIES * ENTRY_BYTES; // 最大报文字节数
+    private static final int NETWORK_ADDRESS_PREFIX = 0x0A000000; // 网络地址前缀（10.0.0.0/8）
+    private static final int HOST_MASK = 0xFFFFFFFF; // 子网掩码（主机路由）
+    private static final int RECEIVE_BUFFER_BYTES = 1 << 20; // 每个通道的接收缓冲区字节数（容纳一次完整路由表）
+    private static final int MAX_POOLED_BUFFERS = 64; // 缓冲池最多保留的缓冲数
+    private static final long DELIVERY_TIMEOUT_NANOS = 100_000_000; // 同步投递时等待报文的最长时间（超时视为丢失）
+    private static final InetAddress LOOPBACK = loopback(); // 127.0.0.1
+
+    private final Receiver[] receivers; // 接收线程
+    private final AtomicReferenceArray<Endpoint> endpointsByPort; // UDP 端口 -> 端点
+    private final ByteBuffer[] pooledBuffers; // 空闲的发送缓冲（由自身加锁保护）
+    private int pooledBufferCount; // 空闲的发送缓冲数
+    private int nextReceiver; // 下一个端点分配给哪个接收线程
+    private volatile boolean synchronousDelivery; // 是否同步投递
+    private volatile boolean closed; // 是否已关闭
+    private final LongAdder packetsSent; // 已发送的报文数
+    private final LongAdder bytesSent; // 已发送的字节数（UDP 载荷）
+    private final LongAdder sendFailures; // 发送失败的报文数（发送缓冲区满或通道已关闭）
+    private final AtomicLong packetsReceived; // 已接收的报文数（包括无效报文）
+    private final AtomicLong bytesReceived; // 已接收的字节数
+    private final AtomicLong invalidPackets; // 无效报文数（格式错误或发送方未接入）
+    private final AtomicLong lostPackets; // 同步投递时超时未到达的报文数
+    private final AtomicLong latePackets; // 超时之后才到达的报文数（已计入丢失，到达时丢弃）
+    private volatile int deliveryEpoch; // 同步投递的等待批次编号（超时后加一，低 16 位写入报文头部）
+    private final Object deliveryLock; // 保护超时的记账与报文的接收计数（二者不交错，迟到报文不会被多算）
+    private final AtomicLong buffersAllocated; // 已分配的发送缓冲数
+
+    /**
+     * @param receiverThreads     接收线程数（每个线程用一个选择器处理多个路由器的通道）
+     * @param synchronousDelivery 是否同步投递
+     * @throws IOException 打开选择器失败
+     */
+    public UdpTransport(int receiverThreads, boolean synchronousDelivery) throws IOException {
+        this.endpointsByPort = new AtomicReferenceArray<>(1 << 16);
+        this.pooledBuffers = new ByteBuffer[MAX_POOLED_BUFFERS];
+        this.synchronousDelivery = synchronousDelivery;
+        this.packetsSent = new LongAdder();
+        this.bytesSent = new LongAdder();
+        this.sendFailures = new LongAdder();
+        this.packetsReceived = new AtomicLong();
+        this.bytesReceived = new AtomicLong();
+        this.invalidPackets = new AtomicLong();
+        this.lostPackets = new AtomicLong();
+        this.latePackets = new AtomicLong();
+        this.deliveryLock = new Object();
+        this.buffersAllocated = new AtomicLong();
+        this.receivers = new Receiver[Math.max(1, receiverThreads)];
+        try {
+            for (int i = 0; i < receivers.length; i++) {
+                receivers[i] = new Receiver(i);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        for (Receiver receiver : receivers) {
+            receiver.thread.start();
+        }
+    } // end UdpTransport()
+
+    private static InetAddress loopback() {
+        try {
+            return InetAddress.getByAddress(new byte[]{127, 0, 0, 1});
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e); // 地址长度正确时不会抛出
+        }
+    } // end loopback()
+
+    /**
+     * 网络编号 -> 网络地址
+     */
+    public static int networkAddress(int networkId) {
+        return NETWORK_ADDRESS_PREFIX | networkId;
+    } // end networkAddress()
+
+    /**
+     * 网络地址 -> 网络编号
+     *
+     * @return 网络编号（不是本传输层编码的地址时为 -1）
+     */
+    public static int networkId(int address) {
+        return (address & 0xFF000000) == NETWORK_ADDRESS_PREFIX ? address & 0x00FFFFFF : -1;
+    } // end networkId()
+
+    /**
+     * 校验 RIPv2 响应报文的头部和长度
+     *
+     * @param packet 报文（position 到 limit 为载荷）
+     * @return 路由表项数（报文无效时为 -1）
+     */
+    public static int entryCount(ByteBuffer packet) {
+        int length = packet.remaining();
+        if (length < HEADER_BYTES || (length - HEADER_BYTES) % ENTRY_BYTES != 0
+                || packet.get(packet.position()) != COMMAND_RESPONSE || packet.get(packet.position() + 1) != VERSION) {
+            return -1;
+        }
+        return (length - HEADER_BYTES) / ENTRY_BYTES;
+    } // end entryCount()
+
+    /**
+     * 解码第 index 个路由表项的网络编号
+     *
+     * @return 网络编号（地址族、掩码或下一跳无效时为 -1）
+     */
+    public static int entryNetworkId(ByteBuffer packet, int index) {
+        int offset = packet.position() + HEADER_BYTES + index * ENTRY_BYTES;
+        if (packet.getShort(offset) != ADDRESS_FAMILY_INET || packet.getInt(offset + 8) != HOST_MASK
+                || packet.getInt(offset + 12) != 0) {
+            return -1;
+        }
+        return networkId(packet.getInt(offset + 4));
+    } // end entryNetworkId()
+
+    /**
+     * 解码第 index 个路由表项的度量（跳数）
+     */
+    public static int entryMetric(ByteBuffer packet, int index) {
+        return packet.getInt(packet.position() + HEADER_BYTES + index * ENTRY_BYTES + 16);
+    } // end entryMetric()
+
+    /**
+     * 路由器接入传输层：在 127.0.0.1 的临时端口上绑定通道，并分配给一个接收线程
+     *
+     * @param router 路由器（已接入时忽略）
+     * @throws IOException 打开、绑定通道失败
+     */
+    public void attach(Router router) throws IOException {
+        if (router.getUdpEndpoint() != null) {
+            return;
+        }
+        DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_BYTES);
+            channel.bind(new InetSocketAddress(LOOPBACK, 0));
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        Receiver receiver;
+        synchronized (receivers) {
+            receiver = receivers[nextReceiver];
+            nextReceiver = (nextReceiver + 1) % receivers.length;
+        }
+        Endpoint endpoint = new Endpoint(router, channel, (InetSocketAddress) channel.getLocalAddress(), receiver);
+        endpointsByPort.set(endpoint.address.getPort(), endpoint);
+        router.setUdpEndpoint(endpoint);
+        receiver.register(endpoint);
+    } // end attach()
+
+    /**
+     * 路由器断开传输层：关闭通道，之后从它的端口收到的报文作为无效报文丢弃
+     *
+     * @param router 路由器（未接入本传输层时忽略）
+     */
+    public void detach(Router router) {
+        Endpoint endpoint = router.getUdpEndpoint();
+        if (endpoint == null || endpoint.getTransport() != this) {
+            return;
+        }
+        router.setUdpEndpoint(null);
+        endpointsByPort.compareAndSet(endpoint.address.getPort(), endpoint, null);
+        try {
+            endpoint.channel.close();
+        } catch (IOException e) {
+            // 关闭失败时通道已不可用，忽略
+        }
+        endpoint.receiver.selector.wakeup(); // 尽快注销选择键、释放端口
+    } // end detach()
+
+    /**
+     * 同步投递时，等待已发送的报文全部被接收方处理；异步投递时立即返回
+     * <p>
+     * 超时未处理完的报文计入丢失，并开始新的等待批次：这些报文之后到达时作为迟到报文丢弃（正在处理的处理完后计入迟到），
+     * 已处理的报文数（接收数减去迟到数）不受影响，之后的等待仍然等到本批次的报文全部处理完毕。
+     */
+    public void awaitDelivery() {
+        if (!synchronousDelivery) {
+            return;
+        }
+        long target = packetsSent.sum();
+        long deadline = System.nanoTime() + DELIVERY_TIMEOUT_NANOS;
+        while (packetsReceived.get() - latePackets.get() + lostPackets.get() < target) { // 先读接收数再读迟到数，不会多算
+            if (System.nanoTime() - deadline > 0) {
+                synchronized (deliveryLock) {
+                    long delivered = packetsReceived.get() - latePackets.get() + lostPackets.get();
+                    if (delivered < target) {
+                        lostPackets.addAndGet(target - delivered);
+                        deliveryEpoch++; // 在途的报文之后到达时为迟到报文
+                    }
+                }
+                return;
+            }
+            Thread.yield();
+        }
+    } // end awaitDelivery()
+
+    /**
+     * 从缓冲池取出发送缓冲（池为空时分配新的直接内存缓冲）
+     */
+    private ByteBuffer acquireBuffer() {
+        synchronized (pooledBuffers) {
+            if (pooledBufferCount > 0) {
+                ByteBuffer buffer = pooledBuffers[--pooledBufferCount];
+                pooledBuffers[pooledBufferCount] = null;
+                return buffer;
+            }
+        }
+        buffersAllocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(MAX_PACKET_BYTES);
+    } // end acquireBuffer()
+
+    /**
+     * 把发送缓冲放回缓冲池（池已满时丢弃）
+     */
+    private void releaseBuffer(ByteBuffer buffer) {
+        synchronized (pooledBuffers) {
+            if (pooledBufferCount < pooledBuffers.length) {
+                pooledBuffers[pooledBufferCount++] = buffer;
+            }
+        }
+    } // end releaseBuffer()
+
+    /**
+     * 关闭传输层：停止接收线程，断开所有路由器
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Receiver receiver : receivers) {
+            if (receiver != null) {
+                receiver.selector.wakeup();
+                try {
+                    receiver.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        for (int port = 0; port < endpointsByPort.length(); port++) {
+            Endpoint endpoint = endpointsByPort.get(port);
+            if (endpoint != null) {
+                detach(endpoint.router);
+            }
+        }
+        for (Receiver receiver : receivers) {
+            if (receiver != null) {
+                try {
+                    receiver.selector.close();
+                } catch (IOException e) {
+                    // 选择器关闭失败时忽略
+                }
+            }
+        }
+    } // end close()
+
+    public boolean isSynchronousDelivery() {
+        return synchronousDelivery;
+    }
+
+    public void setSynchronousDelivery(boolean synchronousDelivery) {
+        this.synchronousDelivery = synchronousDelivery;
+    }
+
+    public int getReceiverThreads() {
+        return receivers.length;
+    }
+
+    public long getPacketsSent() {
+        return packetsSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getSendFailures() {
+        return sendFailures.sum();
+    }
+
+    public long getPacketsReceived() {
+        return packetsReceived.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getInvalidPackets() {
+        return invalidPackets.get();
+    }
+
+    public long getLostPackets() {
+        return lostPackets.get();
+    }
+
+    public long getLatePackets() {
+        return latePackets.get();
+    }
+
+    public long getBuffersAllocated() {
+        return buffersAllocated.get();
+    }
+
+    /**
+     * 路由器在传输层中的端点（通道、地址，以及编码路由通告时的状态）
+     */
+    public final class Endpoint implements RouteAdvertisement.RouteConsumer {
+        private final Router router; // 路由器
+        private final DatagramChannel channel; // 通道（非阻塞）
+        private final InetSocketAddress address; // 绑定的地址
+        private final Receiver receiver; // 处理该通道的接收线程
+
+        /* 以下字段只在 send() 内访问（以端点加锁） */
+        private ByteBuffer packet; // 正在编码的报文
+        private InetSocketAddress target; // 接收方地址
+        private int packetEntries; // 正在编码的报文中的路由表项数
+
+        private Endpoint(Router router, DatagramChannel channel, InetSocketAddress address, Receiver receiver) {
+            this.router = router;
+            this.channel = channel;
+            this.address = address;
+            this.receiver = receiver;
+        } // end Endpoint()
+
+        /**
+         * 把路由通告编码为 RIPv2 报文发给相邻路由器（按接收方做水平分割）
+         *
+         * @param neighbor      相邻路由器
+         * @param advertisement 路由通告
+         * @return 通告的路由表项数（相邻路由器未接入传输层时为 -1，由调用方直接调用）
+         */
+        public synchronized int send(Router neighbor, RouteAdvertisement advertisement) {
+            Endpoint neighborEndpoint = neighbor.getUdpEndpoint();
+            if (neighborEndpoint == null || neighborEndpoint.getTransport() != UdpTransport.this) {
+                return -1;
+            }
+            ByteBuffer buffer = acquireBuffer();
+            packet = buffer;
+            target = neighborEndpoint.address;
+            packetEntries = 0;
+            try {
+                int entryCount = advertisement.forEachRoute(neighbor.getRouterId(), this);
+                if (packetEntries > 0) {
+                    flush();
+                }
+                return entryCount;
+            } finally {
+                packet = null;
+                target = null;
+                releaseBuffer(buffer);
+            }
+        } // end send()
+
+        /**
+         * 编码一个路由表项（报文已满 25 项时发送）
+         */
+        @Override
+        public void accept(int networkId, int hops) {
+            if (packetEntries == 0) {
+                packet.clear();
+                packet.put((byte) COMMAND_RESPONSE).put((byte) VERSION).putShort((short) deliveryEpoch); // 保留字段：等待批次编号
+            }
+            packet.putShort((short) ADDRESS_FAMILY_INET).putShort((short) 0) // 地址族、路由标记
+                    .putInt(networkAddress(networkId)).putInt(HOST_MASK).putInt(0).putInt(hops); // 地址、掩码、下一跳、度量
+            if (++packetEntries == MAX_ENTRIES) {
+                flush();
+            }
+        } // end accept()
+
+        private void flush() {
+            packet.flip();
+            int length = packet.remaining();
+            packetEntries = 0;
+            try {
+                if (channel.send(packet, target) == 0) {
+                    sendFailures.increment();
+                    return;
+                }
+            } catch (IOException e) { // 通道已关闭（路由器正在断开）
+                sendFailures.increment();
+                return;
+            }
+            packetsSent.increment();
+            bytesSent.add(length);
+        } // end flush()
+
+        public UdpTransport getTransport() {
+            return UdpTransport.this;
+        }
+
+        public Router getRouter() {
+            return router;
+        }
+
+        public InetSocketAddress getAddress() {
+            return address;
+        }
+    } // end class Endpoint
+
+    /**
+     * 接收线程：用一个选择器处理分配给它的所有通道，收到的报文在本线程上交给接收方路由器处理
+     */
+    private final class Receiver implements Runnable, Consumer<SelectionKey> {
+        private final Selector selector; // 选择器
+        private final Thread thread; // 线程
+        private final ConcurrentLinkedQueue<Endpoint> pendingEndpoints; // 等待注册到选择器的端点
+        private final ByteBuffer buffer; // 接收缓冲（直接内存，本线程复用）
+
+        private Receiver(int index) throws IOException {
+            this.selector = Selector.open();
+            this.pendingEndpoints = new ConcurrentLinkedQueue<>();
+            this.buffer = ByteBuffer.allocateDirect(MAX_PACKET_BYTES + 1); // 多一个字节以识别超长报文
+            this.thread = new Thread(this, "rip-udp-receiver-" + index);
+            thread.setDaemon(true);
+        } // end Receiver()
+
+        /**
+         * 登记端点（选择器阻塞时不能直接注册，由接收线程注册）
+         */
+        private void register(Endpoint endpoint) {
+            pendingEndpoints.add(endpoint);
+            selector.wakeup();
+        } // end register()
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    Endpoint endpoint;
+                    while ((endpoint = pendingEndpoints.poll()) != null) {
+                        try {
+                            endpoint.channel.register(selector, SelectionKey.OP_READ, endpoint);
+                        } catch (ClosedChannelException e) {
+                            // 注册前已断开
+                        }
+                    }
+                    selector.select(this);
+                }
+            } catch (IOException e) {
+                // 选择器已关闭
+            }
+        } // end run()
+
+        /**
+         * 通道可读：取出所有已到达的报文
+         */
+        @Override
+        public void accept(SelectionKey key) {
+            Endpoint endpoint = (Endpoint) key.attachment();
+            while (true) {
+                buffer.clear();
+                SocketAddress source;
+                try {
+                    source = endpoint.channel.receive(buffer);
+                } catch (IOException e) { // 通道已关闭（路由器已断开）
+                    return;
+                }
+                if (source == null) {
+                    return;
+                }
+                buffer.flip();
+                deliver(endpoint, source);
+            }
+        } // end accept()
+
+        /**
+         * 处理一个报文：按 UDP 源端口找到发送方，校验后交给接收方路由器
+         */
+        private void deliver(Endpoint endpoint, SocketAddress source) {
+            bytesReceived.addAndGet(buffer.remaining());
+            short epoch = buffer.remaining() >= HEADER_BYTES ? buffer.getShort(buffer.position() + 2) : (short) deliveryEpoch;
+            if (epoch == (short) deliveryEpoch) { // 之前的等待批次已超时的报文不再处理
+                Endpoint sender = source instanceof InetSocketAddress address ? endpointsByPort.get(address.getPort()) : null;
+                if (sender == null || endpoint.router.receivePacket(sender.router, buffer) < 0) {
+                    invalidPackets.incrementAndGet();
+                }
+            }
+            synchronized (deliveryLock) { // 处理完毕后再计数（同步投递据此判断报文已处理）
+                if (epoch != (short) deliveryEpoch) {
+                    latePackets.incrementAndGet(); // 已计入丢失
+                }
+                packetsReceived.incrementAndGet();
+            }
+        } // end deliver()
+    } // end class Receiver
+} // end class UdpTransport
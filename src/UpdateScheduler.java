@@ -0,0 +1,42 @@
+/**
+ * 路由更新调度器接口（由网络拓扑持有，统一驱动所有路由器的定时路由更新）
+ */
+public interface UpdateScheduler {
+    long UPDATE_INTERVAL_MILLIS = 2000; // 默认路由更新周期（毫秒）
+
+    /**
+     * 开始驱动路由器的定时路由更新
+     *
+     * @param router 路由器
+     */
+    void start(Router router);
+
+    /**
+     * 停止驱动路由器的定时路由更新
+     *
+     * @param router 路由器
+     */
+    void stop(Router router);
+
+    /**
+     * 等待已开始的路由更新执行完毕（在 stop() 之后调用：返回后被停止的路由器不会再执行路由更新）
+     * <p>
+     * 在调用方线程上驱动路由更新的调度器（如离散事件仿真）不需要等待。
+     */
+    default void awaitQuiescence() {
+    } // end awaitQuiescence()
+
+    /**
+     * 关闭调度器，停止所有路由器的定时路由更新
+     */
+    void shutdown();
+
+    /**
+     * 获取调度器的当前时刻（离散事件仿真中为仿真时刻）
+     *
+     * @return 当前时刻（毫秒）
+     */
+    default long currentTimeMillis() {
+        return System.currentTimeMillis();
+    } // end currentTimeMillis()
+} // end interface UpdateScheduler
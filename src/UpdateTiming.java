@@ -0,0 +1,147 @@
+/**
+ * 定时路由更新的时间安排：初始相位、每周期抖动和分批发送（由调度器使用，见
+ * {@link SimulationEngine#setUpdateTiming(UpdateTiming)}、{@link TimingWheelScheduler#setUpdateTiming(UpdateTiming)}）
+ * <p>
+ * 默认（{@link #SYNCHRONIZED}）所有路由器在加入时立即发送路由更新，之后按固定周期发送，同时加入的路由器总在同一时刻发送，
+ * 负载集中在每个周期的开头。RFC 2453 3.8 建议避免路由器之间的同步：
+ * 随机相位使每个路由器的第一次路由更新推迟 [0, 周期) 内的随机时长；抖动使每个周期的长度在 周期 × (1 ± jitter) 内随机
+ * （RFC 2453 为 30 秒 ± 5 秒，约 ±0.17）；分批发送使一个周期的路由通告每批只发给 batchSize 个相邻路由器，
+ * 各批在周期内均匀错开（路由通告在周期开始时生成，见 {@link Router#onUpdateTimer(int)}）。
+ * <p>
+ * 随机数由种子、路由器编号和时刻散列得到，不共享随机数生成器：离散事件仿真的结果可重现，多个工作线程也无需同步。
+ */
+public final class UpdateTiming {
+    public static final UpdateTiming SYNCHRONIZED = new UpdateTiming(false, 0, 0, 0); // 无相位、无抖动、不分批（默认）
+    public static final double RFC_JITTER = 1.0 / 6; // RFC 2453 的抖动比例（30 秒 ± 5 秒）
+
+    private final boolean randomPhase; // 是否随机初始相位
+    private final double jitter; // 每周期抖动比例（0～1）
+    private final int batchSize; // 每批的相邻路由器数（0 表示不分批）
+    private final long seed; // 随机种子
+
+    /**
+     * @param randomPhase 是否随机初始相位
+     * @param jitter      每周期抖动比例（0～1）
+     * @param batchSize   每批的相邻路由器数（0 表示不分批）
+     * @param seed        随机种子
+     */
+    public UpdateTiming(boolean randomPhase, double jitter, int batchSize, long seed) {
+        this.randomPhase = randomPhase;
+        this.jitter = Math.max(0, Math.min(1, jitter));
+        this.batchSize = Math.max(0, batchSize);
+        this.seed = seed;
+    } // end UpdateTiming()
+
+    /**
+     * 路由器第一次路由更新的推迟时长
+     *
+     * @param router         路由器
+     * @param now            开始时刻（毫秒）
+     * @param intervalMillis 路由更新周期（毫秒）
+     * @return 推迟时长（毫秒）
+     */
+    public long initialDelay(Router router, long now, long intervalMillis) {
+        return randomPhase ? (long) (random(router, now, 0x5851F42D4C957F2DL) * intervalMillis) : 0;
+    } // end initialDelay()
+
+    /**
+     * 从本周期开始到下个周期开始的时长
+     *
+     * @param router         路由器
+     * @param cycleStart     本周期开始的时刻（毫秒）
+     * @param intervalMillis 路由更新周期（毫秒）
+     * @return 时长（毫秒，至少为 1）
+     */
+    public long nextPeriod(Router router, long cycleStart, long intervalMillis) {
+        if (jitter == 0) {
+            return intervalMillis;
+        }
+        double offset = (2 * random(router, cycleStart, 0x14057B7EF767814FL) - 1) * jitter;
+        return Math.max(1, Math.round(intervalMillis * (1 + offset)));
+    } // end nextPeriod()
+
+    /**
+     * 分批发送时相邻两批的间隔（各批在周期内均匀错开）
+     *
+     * @param periodMillis  本周期的时长（毫秒）
+     * @param neighborCount 相邻路由器数
+     * @return 间隔（毫秒，至少为 1）
+     */
+    public long batchSpacing(long periodMillis, int neighborCount) {
+        int batches = isPaced() ? Math.max(1, (neighborCount + batchSize - 1) / batchSize) : 1;
+        return Math.max(1, periodMillis / batches);
+    } // end batchSpacing()
+
+    /**
+     * 每批发送的相邻路由器数（传给 {@link Router#onUpdateTimer(int)}）
+     *
+     * @return 相邻路由器数（不分批时为 Integer.MAX_VALUE）
+     */
+    public int batchLimit() {
+        return isPaced() ? batchSize : Integer.MAX_VALUE;
+    } // end batchLimit()
+
+    /**
+     * 最后一次路由表变化之后，保证每个路由器都已把变化后的路由表发给所有相邻路由器所需的时长（用于判断收敛）
+     *
+     * @param intervalMillis 路由更新周期（毫秒）
+     * @return 时长（毫秒）
+     */
+    public long quietMillis(long intervalMillis) {
+        long maxPeriod = (long) Math.ceil(intervalMillis * (1 + jitter));
+        return isPaced() ? 2 * maxPeriod : maxPeriod; // 分批发送时，下个周期的最后一批最晚在一个周期后发出
+    } // end quietMillis()
+
+    /**
+     * 最后一次路由表变化之后，保证每个路由器都已把完整路由表发给所有相邻路由器所需的时长：
+     * 两次完整路由表之间只发送触发更新（变化的路由表项），相邻路由器的替代路由要等到下一次完整路由表才会送达
+     *
+     * @param intervalMillis   路由更新周期（毫秒）
+     * @param fullUpdateCycles 每隔多少个更新周期发送一次完整路由表
+     * @return 时长（毫秒）
+     */
+    public long quietMillis(long intervalMillis, int fullUpdateCycles) {
+        long maxPeriod = (long) Math.ceil(intervalMillis * (1 + jitter));
+        return quietMillis(intervalMillis) + Math.max(0, fullUpdateCycles - 1) * maxPeriod;
+    } // end quietMillis()
+
+    /**
+     * 由种子、路由器编号和时刻散列得到 [0, 1) 内的随机数（SplitMix64 的混合函数）
+     */
+    private double random(Router router, long time, long salt) {
+        long z = seed + salt + router.getRouterId() * 0x9E3779B97F4A7C15L + time * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    } // end random()
+
+    @Override
+    public String toString() {
+        if (!randomPhase && jitter == 0 && !isPaced()) {
+            return "无相位、无抖动、不分批";
+        }
+        return (randomPhase ? "随机相位" : "无相位") + "，抖动 ±" + String.format("%.0f%%", jitter * 100) + "，"
+                + (isPaced() ? "每批 " + batchSize + " 个相邻路由器" : "不分批");
+    } // end toString()
+
+    public boolean isPaced() {
+        return batchSize > 0;
+    }
+
+    public boolean isRandomPhase() {
+        return randomPhase;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+} // end class UpdateTiming